@@ -0,0 +1,202 @@
+import java.util.Arrays;
+
+/**
+ * This ShortestPathEngine answers queries with A* search, using the ALT
+ * technique (A*, Landmarks, and the Triangle inequality) to estimate the
+ * remaining cost to the target. When the engine is created, it chooses a
+ * small set of landmark nodes and precomputes the cost of the shortest path
+ * from every landmark to every node, and from every node to every landmark.
+ *
+ * For any landmark L, the triangle inequality gives two lower bounds on the
+ * cost of reaching target t from node v: d(L,t) - d(L,v) and d(v,L) - d(t,L).
+ * The largest of these bounds over all landmarks steers the search towards
+ * the target, without needing any coordinates for the nodes. Since the
+ * bounds never overestimate, the paths found are still shortest paths.
+ */
+public class ALTEngine implements ShortestPathEngine {
+
+    // the number of landmarks used when none is specified
+    public static final int DEFAULT_LANDMARK_COUNT = 8;
+
+    // the bounds are shrunk by this fraction so that rounding errors in the
+    // precomputed costs can never make a bound overestimate
+    private static final double BOUND_SCALE = 1.0 - 1e-9;
+
+    protected final CSRGraph<?> graph;
+    protected final int[] landmarks;
+    // fromLandmark[v * landmarks.length + k] is the cost from landmark k to v
+    protected final double[] fromLandmark;
+    // toLandmark[v * landmarks.length + k] is the cost from v to landmark k
+    protected final double[] toLandmark;
+
+    /**
+     * Creates an engine for the provided snapshot, using up to the default
+     * number of landmarks.
+     *
+     * @param graph the snapshot to search
+     */
+    public ALTEngine(CSRGraph<?> graph) {
+        this(graph, DEFAULT_LANDMARK_COUNT);
+    }
+
+    /**
+     * Creates an engine for the provided snapshot, choosing landmarks by
+     * farthest-point selection: each new landmark is the node that is farthest
+     * from all of the landmarks chosen before it.
+     *
+     * @param graph         the snapshot to search
+     * @param landmarkCount the number of landmarks to choose, which is
+     *                      lowered to the number of nodes in small graphs
+     * @throws IllegalArgumentException if landmarkCount is less than 1
+     */
+    public ALTEngine(CSRGraph<?> graph, int landmarkCount) {
+        if (landmarkCount < 1)
+            throw new IllegalArgumentException("At least one landmark is required.");
+        this.graph = graph;
+        int n = graph.getNodeCount();
+        int k = Math.min(landmarkCount, n);
+        this.landmarks = new int[k];
+        this.fromLandmark = new double[n * k];
+        this.toLandmark = new double[n * k];
+
+        double[] from = new double[n];
+        double[] to = new double[n];
+        // closeness[v] is the lowest cost between v and any chosen landmark
+        double[] closeness = new double[n];
+        Arrays.fill(closeness, Double.POSITIVE_INFINITY);
+        boolean[] chosen = new boolean[n];
+
+        // start from the node farthest from node 0, as if it were a landmark
+        int landmark = 0;
+        if (n > 0) {
+            CSRDijkstra.search(graph, 0, -1, false, from, null);
+            landmark = farthest(from, chosen);
+        }
+        for (int i = 0; i < k; i++) {
+            landmarks[i] = landmark;
+            chosen[landmark] = true;
+            CSRDijkstra.search(graph, landmark, -1, false, from, null);
+            CSRDijkstra.search(graph, landmark, -1, true, to, null);
+            for (int v = 0; v < n; v++) {
+                fromLandmark[v * k + i] = from[v];
+                toLandmark[v * k + i] = to[v];
+                closeness[v] = Math.min(closeness[v], Math.min(from[v], to[v]));
+            }
+            // nodes that no landmark can reach (either way) are picked first
+            landmark = farthest(closeness, chosen);
+        }
+    }
+
+    // returns the unchosen node with the highest cost, preferring lower indices
+    private static int farthest(double[] cost, boolean[] chosen) {
+        int best = -1;
+        for (int v = 0; v < cost.length; v++)
+            if (!chosen[v] && (best == -1 || cost[v] > cost[best]))
+                best = v;
+        return best == -1 ? 0 : best;
+    }
+
+    /**
+     * Returns the indices of the landmark nodes that this engine chose.
+     *
+     * @return the landmark node indices, in the order they were chosen
+     */
+    public int[] getLandmarks() {
+        return landmarks.clone();
+    }
+
+    /**
+     * Computes a lower bound on the cost of the shortest path from node v to
+     * node t, using the triangle inequality with every landmark.
+     *
+     * @param v the index of the node to estimate from
+     * @param t the index of the target node
+     * @return a lower bound on that cost, or Double.POSITIVE_INFINITY when the
+     *         landmark costs prove that t cannot be reached from v
+     */
+    protected double lowerBound(int v, int t) {
+        int k = landmarks.length;
+        double bound = 0.0;
+        for (int i = 0; i < k; i++) {
+            // d(L,t) <= d(L,v) + d(v,t)
+            double fromV = fromLandmark[v * k + i];
+            double fromT = fromLandmark[t * k + i];
+            if (fromV != Double.POSITIVE_INFINITY) {
+                if (fromT == Double.POSITIVE_INFINITY)
+                    return Double.POSITIVE_INFINITY;
+                bound = Math.max(bound, fromT - fromV);
+            }
+            // d(v,L) <= d(v,t) + d(t,L)
+            double toV = toLandmark[v * k + i];
+            double toT = toLandmark[t * k + i];
+            if (toT != Double.POSITIVE_INFINITY) {
+                if (toV == Double.POSITIVE_INFINITY)
+                    return Double.POSITIVE_INFINITY;
+                bound = Math.max(bound, toV - toT);
+            }
+        }
+        return bound * BOUND_SCALE;
+    }
+
+    /**
+     * Runs A* search from source until target is settled, keeping its state
+     * in this thread's search workspace instead of new arrays, so that a
+     * query only pays for the nodes it reaches.
+     *
+     * @param source the index of the starting node
+     * @param target the index of the destination node
+     * @return the workspace, holding the cost and predecessor of each node
+     *         that the search reached
+     */
+    protected SearchWorkspace search(int source, int target) {
+        SearchWorkspace workspace = SearchWorkspace.begin(graph.getNodeCount());
+        IndexedDaryHeap heap = workspace.getHeap();
+
+        if (lowerBound(source, target) == Double.POSITIVE_INFINITY)
+            return workspace;
+        workspace.reach(source, 0.0, -1, 0.0);
+        heap.insertOrDecrease(source, 0.0);
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            if (u == target)
+                return workspace;
+
+            double base = workspace.getDist(u);
+            for (int e = graph.outOffsets[u]; e < graph.outOffsets[u + 1]; e++) {
+                int v = graph.outTargets[e];
+                double cost = base + graph.outWeights[e];
+                if (cost < workspace.getDist(v)) {
+                    // each node's lower bound is computed once, when it is
+                    // first reached
+                    double bound = workspace.getBound(v);
+                    if (Double.isNaN(bound)) {
+                        bound = lowerBound(v, target);
+                        workspace.setBound(v, bound);
+                    }
+                    // skip nodes that the landmarks prove cannot reach target
+                    if (bound == Double.POSITIVE_INFINITY)
+                        continue;
+                    // an improved node is queued again even if it was already
+                    // settled, so that the search stays exact
+                    workspace.reach(v, cost, u, graph.outWeights[e]);
+                    heap.insertOrDecrease(v, cost + bound);
+                }
+            }
+        }
+        return workspace;
+    }
+
+    @Override
+    public int[] shortestPath(int source, int target) {
+        SearchWorkspace workspace = search(source, target);
+        if (!workspace.isReached(target))
+            return null;
+        return workspace.buildPath(target);
+    }
+
+    @Override
+    public double shortestPathCost(int source, int target) {
+        return search(source, target).getDist(target);
+    }
+
+}
@@ -0,0 +1,133 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This ShortestPathEngine precomputes the shortest paths between every pair
+ * of nodes in a snapshot, so that each query is answered by table lookups
+ * instead of a search. The table holds the cost of the shortest path from
+ * every node to every other node, along with the next hop: the second node
+ * along that path. A path is rebuilt by following next hops to the target.
+ *
+ * The table is filled by running one full Dijkstra search per source node,
+ * and those searches are spread across all cores with a ForkJoinPool. Since
+ * the table needs n*n entries of each kind, it is only meant for graphs with
+ * at most a few thousand nodes.
+ */
+public class AllPairsTable implements ShortestPathEngine {
+
+    // the most nodes a graph may have for DijkstraGraph to build a table
+    public static final int DEFAULT_NODE_LIMIT = 2048;
+    // the most nodes any table can index, since n*n must fit in an int
+    public static final int MAX_NODE_LIMIT = 46340;
+
+    // the number of sources that each fork join task handles without splitting
+    private static final int SOURCES_PER_TASK = 8;
+
+    protected final CSRGraph<?> graph;
+    protected final int n;
+    // dist[s * n + t] is the cost of the shortest path from s to t
+    protected final double[] dist;
+    // nextHop[s * n + t] is the node after s on that path, or -1 for none
+    protected final int[] nextHop;
+
+    /**
+     * Builds the table for a snapshot using the common ForkJoinPool.
+     *
+     * @param graph the snapshot to precompute all shortest paths for
+     * @throws IllegalArgumentException if graph has more than MAX_NODE_LIMIT
+     *                                  nodes
+     */
+    public AllPairsTable(CSRGraph<?> graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Builds the table for a snapshot, running the searches on a pool.
+     *
+     * @param graph the snapshot to precompute all shortest paths for
+     * @param pool  the pool to run one search per source node on
+     * @throws IllegalArgumentException if graph has more than MAX_NODE_LIMIT
+     *                                  nodes
+     */
+    public AllPairsTable(CSRGraph<?> graph, ForkJoinPool pool) {
+        if (graph.getNodeCount() > MAX_NODE_LIMIT)
+            throw new IllegalArgumentException("Too many nodes for an all pairs table: "
+                    + graph.getNodeCount());
+        this.graph = graph;
+        this.n = graph.getNodeCount();
+        this.dist = new double[n * n];
+        this.nextHop = new int[n * n];
+        pool.invoke(new SourceRange(0, n));
+    }
+
+    // fills the rows of the table for a range of sources, splitting the range
+    // in half until it is small enough to search sequentially
+    private class SourceRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int from;
+        private final int to;
+
+        public SourceRange(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SOURCES_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new SourceRange(from, mid), new SourceRange(mid, to));
+                return;
+            }
+            // each task reuses one set of search arrays for all of its sources
+            double[] rowDist = new double[n];
+            int[] parent = new int[n];
+            int[] order = new int[n];
+            for (int source = from; source < to; source++)
+                fillRow(source, rowDist, parent, order);
+        }
+    }
+
+    // runs a full search from source, and copies its results into the table
+    private void fillRow(int source, double[] rowDist, int[] parent, int[] order) {
+        int settled = CSRDijkstra.search(graph, source, -1, false, rowDist, parent, order);
+        int row = source * n;
+        System.arraycopy(rowDist, 0, dist, row, n);
+        Arrays.fill(nextHop, row, row + n, -1);
+        // each node's parent is settled before it, so its next hop is known
+        for (int i = 0; i < settled; i++) {
+            int v = order[i];
+            if (v == source || parent[v] == source)
+                nextHop[row + v] = v;
+            else
+                nextHop[row + v] = nextHop[row + parent[v]];
+        }
+    }
+
+    @Override
+    public int[] shortestPath(int source, int target) {
+        if (dist[source * n + target] == Double.POSITIVE_INFINITY)
+            return null;
+        // count the hops first, so the path can be copied into an exact array
+        int length = 1;
+        for (int v = source; v != target; v = nextHop[v * n + target]) {
+            if (length++ > n) {
+                // only zero weight cycles can make next hops loop
+                return new CSRDijkstra(graph).shortestPath(source, target);
+            }
+        }
+        int[] path = new int[length];
+        int i = 0;
+        for (int v = source; v != target; v = nextHop[v * n + target])
+            path[i++] = v;
+        path[i] = target;
+        return path;
+    }
+
+    @Override
+    public double shortestPathCost(int source, int target) {
+        return dist[source * n + target];
+    }
+
+}
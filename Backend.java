@@ -13,8 +13,6 @@ import java.io.IOException;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.NoSuchElementException;
-import java.io.File;
-import java.util.Scanner;
 
 /**
  * Implements the Backend methods through the use of the BackendInterface interface
@@ -22,7 +20,13 @@ import java.util.Scanner;
 public class Backend implements BackendInterface {
 
   // Instance Fields
+  // The graph the backend was created with, which dot files are always loaded into
+  private final GraphADT<String, Double> editableGraph;
+  // The graph that queries are answered from, which is editableGraph unless a compiled graph was
+  // loaded since the last dot file
   private GraphADT<String, Double> graph;
+  // Whether dot files are split into chunks that are parsed on every core
+  private boolean parallelLoading = false;
 
   /**
    * Constructor for the Backend class.
@@ -30,20 +34,57 @@ public class Backend implements BackendInterface {
    * @param graph is the object to store the backend's graph data
    */
   public Backend(GraphADT<String, Double> graph) {
+    this.editableGraph = graph;
     this.graph = graph;
   }
 
+  /**
+   * Selects whether loadGraphData() parses dot files on every core, which is faster for files of
+   * many megabytes. Either way, the same graph is loaded, and the same IOException is thrown for
+   * a file that cannot be loaded.
+   *
+   * @param parallelLoading is true to parse dot files in parallel
+   */
+  public void setParallelLoading(boolean parallelLoading) {
+    this.parallelLoading = parallelLoading;
+  }
+
   /**
    * Loads graph data from a dot file. If a graph was previously loaded, this method first deletes
-   * the contents (nodes and edges) of the existing graph before loading a new one.
+   * the contents (nodes and edges) of the existing graph before loading a new one. The whole file is
+   * parsed before the existing graph is touched, so a file that cannot be loaded leaves the existing
+   * graph as it was.
    * 
    * @param filename is the path to a dot file to read graph data from
-   * @throws IOException if there was any problem reading from this file
+   * @throws IOException if there was any problem reading from this file, which is a
+   *         DotFileParser.ParseException holding the line and column of a line in the wrong format
    * @see the method is overridden from the BackendInterface interface
    */
   @Override
+  @SuppressWarnings("unchecked")
   public void loadGraphData(String filename) throws IOException {
 
+    // Parses the whole file in one pass over its memory-mapped bytes, or in chunks on every core
+    DotFileParser parser = parallelLoading ? DotFileParser.parseParallel(filename) : DotFileParser.parse(filename);
+
+    // Goes back to the graph the backend was created with, if a read-only compiled graph was loaded
+    graph = editableGraph;
+
+    // A snapshot isolated graph copies itself on every change, so only the differences from its
+    // current version are published, all in one new version
+    if (graph instanceof SnapshotIsolatedGraph) {
+      GraphFileWatcher.publishChanges((SnapshotIsolatedGraph<String, Double>) graph, parser);
+      return;
+    }
+
+    // Empties a BaseGraph all at once, and emits every location and edge into it in one step
+    if (graph instanceof BaseGraph) {
+      BaseGraph<String, Double> baseGraph = (BaseGraph<String, Double>) graph;
+      baseGraph.clear();
+      parser.buildInto(baseGraph);
+      return;
+    }
+
     // Checks if the graph was previously loaded and if so deletes the contents
     if (graph.getNodeCount() != 0) {
       List<String> allNodes = graph.getAllNodes();
@@ -52,81 +93,54 @@ public class Backend implements BackendInterface {
       }
     }
 
-    // Checks if the file exists and throws an IOException if it doesn't
-    File file = new File(filename);
-    if (!file.exists()) {
-      throw new IOException("The file does not exist.");
-    }
-
-    // Creates a Scanner object to read the file and checks if it is not empty
-    Scanner sc = new Scanner(file);
-    if (!(sc.hasNextLine())) {
-      sc.close();
-      throw new IOException("The file is empty.");
-    }
-
-    // Reads the file and loads the graph with it's data
-    while (sc.hasNextLine()) {
-      String line = sc.nextLine();
-
-      // Makes sure the parsing of the contents of the file starts after and ends before the curly brace
-      if (!(line.contains("{") || line.contains("}"))) {
-
-        // Retrieves the starting and ending indexes of the predecessor node, successor node, and the weight of the edge
-        int predStart = line.indexOf("\"") + 1;
-        int predEnd = line.indexOf("\" -> ");
-        int succStart = line.indexOf("-> \"") + 4;
-        int succEnd = line.indexOf(" [") - 1;
-        int weightStart = line.indexOf("[seconds=") + 9;
-        int weightEnd = line.indexOf("]");
-
-        // Makes sure the format of the file is valid
-        if (predStart == -1 || predEnd == -1 || succStart == -1 || succEnd == -1 || weightStart == -1 || weightEnd == -1) {
-          sc.close();
-          throw new IOException("The format of the file is invalid.");
-        }
-
-        try {
-
-          // Retrieves the predecessor, successor, and the weight based on the indexes
-          String pred = line.substring(predStart, predEnd);
-          String succ = line.substring(succStart, succEnd);
-          Double weight = Double.parseDouble(line.substring(weightStart, weightEnd));
-
-          // Inserts the nodes and the edge if they don't already exist
-          if (!(graph.containsNode(pred))) {
-            graph.insertNode(pred);
-          }
-          if (!(graph.containsNode(succ))) {
-            graph.insertNode(succ);
-          }
-          if (!(graph.containsEdge(pred, succ))) {
-            graph.insertEdge(pred, succ, weight);
-          }
-
-          // Makes sure the file is in the correct format
-        } catch (IndexOutOfBoundsException e) {
-          sc.close();
-          throw new IOException("The format of the file is invalid.");
-
-          // Makes sure the weight is always mentioned
-        } catch (NullPointerException e) {
-          sc.close();
-          throw new IOException("The weight of the edge is not given.");
+    // Inserts each location once, and each edge the first time it appears in the file
+    parser.loadInto(graph);
+  }
 
-          // Makes sure the weight is the correct data type of Double
-        } catch (NumberFormatException e) {
-          sc.close();
-          throw new IOException("The weight of the edge is not in the correct data type.");
+  /**
+   * Loads graph data from a compiled graph file written by GraphCompiler. The file is
+   * memory-mapped and its locations and edges are served straight from it, so loading does not
+   * parse anything or insert any nodes. Queries are answered from the compiled graph, which cannot
+   * be changed, until loadGraphData() or watchGraphData() loads a dot file into the graph the
+   * backend was created with again.
+   *
+   * @param filename is the path to a compiled graph file to read graph data from
+   * @throws IOException if the file does not exist, or is not a compiled graph
+   * @see the method is overridden from the BackendInterface interface
+   */
+  @Override
+  public void loadCompiledGraphData(String filename) throws IOException {
+    graph = CompiledGraph.load(filename);
+  }
 
-          // Catches any other unexpected exceptions to make sure all of the data is loaded into the graph
-        } catch (Exception e) {
-          sc.close();;
-          throw new IOException("There was a problem with reading the file.");
-        }
-      }
+  /**
+   * Loads graph data from a dot file, and then keeps the graph in step with the file while it is
+   * edited, so that locations and walking times can change without restarting the server. Each
+   * time the file changes, only the differences are published, as a single new version of the
+   * graph; a file that cannot be loaded leaves the graph as it was.
+   *
+   * @param filename is the path to a dot file to read graph data from
+   * @return the watcher, which should be closed to stop watching the file
+   * @throws IOException if the file cannot be loaded, or its directory cannot be watched
+   * @throws IllegalStateException if the graph the backend was created with is not a
+   *         SnapshotIsolatedGraph
+   */
+  @SuppressWarnings("unchecked")
+  public GraphFileWatcher watchGraphData(String filename) throws IOException {
+    if (!(editableGraph instanceof SnapshotIsolatedGraph)) {
+      throw new IllegalStateException("Only a SnapshotIsolatedGraph can be changed while it is being read.");
     }
-    sc.close();
+    GraphFileWatcher watcher =
+        new GraphFileWatcher((SnapshotIsolatedGraph<String, Double>) editableGraph, filename);
+    try {
+      watcher.reload();
+    } catch (IOException e) {
+      watcher.close();
+      throw e;
+    }
+    graph = editableGraph;
+    watcher.start();
+    return watcher;
   }
 
   /**
@@ -154,17 +168,13 @@ public class Backend implements BackendInterface {
    */
   @Override
   public List<String> findLocationsOnShortestPath(String startLocation, String endLocation) {
-    List<String> shortestPath = new ArrayList<String>();
     try {
-
-      // Calls graph's shortestPathData() to retrieve all locations on the shortest path
-      shortestPath = graph.shortestPathData(startLocation, endLocation);
-
-      // If graph's shortestPathData() throws NoSuchElementException, then it means no path exists
+      // Calls findShortestRoute() to retrieve all locations on the shortest path
+      return new ArrayList<String>(findShortestRoute(startLocation, endLocation).getNodes());
+      // If findShortestRoute() throws NoSuchElementException, then it means no path exists
     } catch (NoSuchElementException e) {
-      return shortestPath;
+      return new ArrayList<String>();
     }
-    return shortestPath;
   }
 
   /**
@@ -177,25 +187,51 @@ public class Backend implements BackendInterface {
    */
   @Override
   public List<Double> findTimesOnShortestPath(String startLocation, String endLocation) {
-
-    List<Double> shortestPathTimes = new ArrayList<Double>();
     try {
+      // The route already holds the time of each leg, so no edges need to be looked up
+      return findShortestRoute(startLocation, endLocation).getLegWeights();
+      // If findShortestRoute() throws NoSuchElementException, then it means no path exists
+    } catch (NoSuchElementException e) {
+      return new ArrayList<Double>();
+    }
+  }
 
-      // Calls graph's shortestPathData() to first retrieve the shortest path
-      List<String> shortestPathLocations = graph.shortestPathData(startLocation, endLocation);
-
-      // Finds the times between two nodes in the shortest path
-      for (int i = 0; i < (shortestPathLocations.size() - 1); i++) {
-
-        // Calls graph's getEdge() method to retrieve the time between two nodes
-        shortestPathTimes.add(graph.getEdge(shortestPathLocations.get(i), shortestPathLocations.get(i + 1)));
-      }
+  /**
+   * Returns the shortest route from startLocation to endLocation, which holds the locations along
+   * the shortest path, the walking time of each leg, and the total walking time.
+   *
+   * @param startLocation is the start location of the route
+   * @param endLocation is the end location of the route
+   * @return the shortest route from startLocation to endLocation
+   * @throws NoSuchElementException if either location does not exist, or if there is no path between them
+   * @see the method is overridden from the BackendInterface interface
+   */
+  @Override
+  public Route<String> findShortestRoute(String startLocation, String endLocation) throws NoSuchElementException {
+    // Calls graph's shortestRoute() to find the path, leg times, and total with a single search
+    return graph.shortestRoute(startLocation, endLocation);
+  }
 
-      // If graph's shortestPathData() throws NoSuchElementException, then it means no path exists
+  /**
+   * Returns up to k different routes from startLocation to endLocation, from the fastest to the
+   * slowest, or an empty list if no route exists.
+   *
+   * @param startLocation is the start location of the routes
+   * @param endLocation is the end location of the routes
+   * @param k is the most routes to return
+   * @return a list of up to k routes from startLocation to endLocation, or an empty list if no route exists
+   * @throws IllegalArgumentException if k is less than 1
+   * @see the method is overridden from the BackendInterface interface
+   */
+  @Override
+  public List<Route<String>> findAlternativeRoutes(String startLocation, String endLocation, int k) {
+    try {
+      // Calls graph's kShortestRoutes() to find the routes with Yen's algorithm
+      return graph.kShortestRoutes(startLocation, endLocation, k);
+      // If graph's kShortestRoutes() throws NoSuchElementException, then it means no route exists
     } catch (NoSuchElementException e) {
-      return shortestPathTimes;
+      return new ArrayList<Route<String>>();
     }
-    return shortestPathTimes;
   }
 
   /**
@@ -209,57 +245,69 @@ public class Backend implements BackendInterface {
    */
   @Override
   public String getFurthestDestinationFrom(String startLocation) throws NoSuchElementException {
-    String currentLocation = null;
-    Double currentTime = 0.0;
+    return getFurthestDestinationTree(startLocation).getFurthestNode();
+  }
+
+  /**
+   * Returns the sequence of locations along the shortest path from startLocation to the most distant
+   * location that can be reached from it. Both the destination and the path come from the same
+   * shortest path tree, so only one search is run.
+   *
+   * @param startLocation is the location to find the most distant location from
+   * @return a list with the locations along the shortest path from startLocation to the most distant location
+   * @throws NoSuchElementException if startLocation does not exist, or if there are no other locations that can be reached from there
+   * @see the method is overridden from the BackendInterface interface
+   */
+  @Override
+  public List<String> findPathToFurthestDestinationFrom(String startLocation) throws NoSuchElementException {
+    ShortestPathTree<String> tree = getFurthestDestinationTree(startLocation);
+    return tree.getPath(tree.getFurthestNode());
+  }
 
+  /**
+   * Returns every location that can be reached from startLocation within the provided number of
+   * seconds, sorted by arrival time. The search stops at that time limit instead of visiting the
+   * whole graph.
+   *
+   * @param startLocation is the location to walk from
+   * @param seconds is the most walking time in seconds to include locations at
+   * @return the shortest path tree from startLocation, limited to seconds
+   * @throws NoSuchElementException if startLocation does not exist
+   * @throws IllegalArgumentException if seconds is negative or not a number
+   * @see the method is overridden from the BackendInterface interface
+   */
+  @Override
+  public ShortestPathTree<String> findLocationsWithinTime(String startLocation, double seconds) throws NoSuchElementException {
     // Makes sure the startLocation exists
     if (!(graph.containsNode(startLocation))) {
       throw new NoSuchElementException("The location does not exist.");
     }
+    // Calls graph's bounded shortestPathTree() so only nearby locations are searched
+    return graph.shortestPathTree(startLocation, seconds);
+  }
 
-    // Makes sure there is at least 1 location that can be reached
-    if (graph.getNodeCount() < 2) {
-      throw new NoSuchElementException("There are no other locations that can be reached from there.");
-    }
-
-    // First gets all nodes in the graph by using graph's getAllNodes() method to find the most distant location
-    List<String> allLocations = graph.getAllNodes();
-
-    // Checks the time from the startLocation to every location to find the most distant location
-    for (int i = 0; i < graph.getNodeCount(); i++) {
-      try {
-        String possibleLocation = allLocations.get(i);
-
-        // Calls graph's shortestPathCost() to find the time between the startLocation and the possibleLocation
-        Double possibleTime = graph.shortestPathCost(startLocation, possibleLocation);
-
-        // Makes sure the possibleLocation isn't the same as the startLocation
-        if (!(possibleLocation.equals(startLocation))) {
-
-          // Updates the currentLocation if there is no value in it already regardless of the time
-          if (currentLocation == null) {
-            currentLocation = possibleLocation;
-            currentTime = possibleTime;
-          } else {
-
-            // Only updates the currentLocation if the possibleTime is greater than the currentTime, which means there is a more distant location
-            if (currentTime < possibleTime) {
-              currentLocation = possibleLocation;
-              currentTime = possibleTime;
-            }
-          }
-        }
-      }
+  /**
+   * Computes the shortest path tree from startLocation, which holds the time to reach every location
+   * that can be reached from there.
+   *
+   * @param startLocation is the location to compute the shortest path tree from
+   * @return the shortest path tree rooted at startLocation
+   * @throws NoSuchElementException if startLocation does not exist, or if there are no other locations that can be reached from there
+   */
+  private ShortestPathTree<String> getFurthestDestinationTree(String startLocation) throws NoSuchElementException {
 
-      // If shortestPathCost() throws a NoSuchElementException, then it means no path exists for the location and the next location can be checked
-      catch (NoSuchElementException e) {
-      }
+    // Makes sure the startLocation exists
+    if (!(graph.containsNode(startLocation))) {
+      throw new NoSuchElementException("The location does not exist.");
     }
 
-    // Makes sure that there is a location that can be reached from startLocation
-    if (currentLocation == null) {
+    // Calls graph's shortestPathTree() to find the time to every location with a single search
+    ShortestPathTree<String> tree = graph.shortestPathTree(startLocation);
+
+    // Makes sure that there is a location other than startLocation that can be reached
+    if (tree.getReachableCount() < 2) {
       throw new NoSuchElementException("There are no other locations that can be reached from there.");
     }
-    return currentLocation;
+    return tree;
   }
 }
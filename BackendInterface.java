@@ -24,6 +24,15 @@ public interface BackendInterface {
    */
   public void loadGraphData(String filename) throws IOException;
 
+  /**
+   * Loads graph data from a compiled graph file written by GraphCompiler.  The
+   * file is memory-mapped and served as it is, so nothing is parsed and the
+   * previously loaded graph is replaced rather than changed.
+   * @param filename the path to a compiled graph file to read graph data from
+   * @throws IOException if there was any problem reading from this file
+   */
+  public void loadCompiledGraphData(String filename) throws IOException;
+
   /**
    * Returns a list of all locations (node data) available in the graph.
    * @return list of all location names
@@ -52,6 +61,32 @@ public interface BackendInterface {
    */
   public List<Double> findTimesOnShortestPath(String startLocation, String endLocation);
 
+  /**
+   * Returns the shortest route from startLocation to endLocation: the
+   * sequence of locations along it, the walking time in seconds between each
+   * two of those locations, and the total walking time, all found by a
+   * single search.
+   * @param startLocation the start location of the route
+   * @param endLocation the end location of the route
+   * @return the shortest route from startLocation to endLocation
+   * @throws NoSuchElementException if either location does not exist, or if
+   *         there is no path from startLocation to endLocation
+   */
+  public Route<String> findShortestRoute(String startLocation, String endLocation) throws NoSuchElementException;
+
+  /**
+   * Returns up to k different routes from startLocation to endLocation, from
+   * the fastest to the slowest, so that users can pick an alternative to the
+   * shortest route.  No route visits a location more than once.
+   * @param startLocation the start location of the routes
+   * @param endLocation the end location of the routes
+   * @param k the most routes to return
+   * @return a list of up to k routes from startLocation to endLocation, or an
+   *         empty list if no such route exists
+   * @throws IllegalArgumentException if k is less than 1
+   */
+  public List<Route<String>> findAlternativeRoutes(String startLocation, String endLocation, int k);
+
   /**
    * Returns the most distant location (the one that takes the longest time to 
    * reach) when comparing all shortest paths that begin from the provided 
@@ -64,4 +99,31 @@ public interface BackendInterface {
    */
   public String getFurthestDestinationFrom(String startLocation) throws NoSuchElementException;
 
+  /**
+   * Returns the sequence of locations along the shortest path from 
+   * startLocation to the most distant location (the one that takes the 
+   * longest time to reach) that can be reached from there.  This is the
+   * location returned by getFurthestDestinationFrom(startLocation).
+   * @param startLocation the location to find the most distant location from
+   * @return a list with the locations along the shortest path from 
+   *         startLocation to the most distant location, ending with that
+   *         most distant location
+   * @throws NoSuchElementException if startLocation does not exist, or if
+   *         there are no other locations that can be reached from there
+   */
+  public List<String> findPathToFurthestDestinationFrom(String startLocation) throws NoSuchElementException;
+
+  /**
+   * Returns every location that can be reached from startLocation within the
+   * provided number of seconds, along with the shortest walking time to each
+   * of them.  The reachable locations of the returned tree are sorted by
+   * arrival time, starting with startLocation itself.
+   * @param startLocation the location to walk from
+   * @param seconds the most walking time in seconds to include locations at
+   * @return the shortest path tree from startLocation, limited to seconds
+   * @throws NoSuchElementException if startLocation does not exist
+   * @throws IllegalArgumentException if seconds is negative or not a number
+   */
+  public ShortestPathTree<String> findLocationsWithinTime(String startLocation, double seconds) throws NoSuchElementException;
+
 }
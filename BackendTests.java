@@ -14,7 +14,13 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.io.IOException;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import java.util.NoSuchElementException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
  * Tests the methods in Backend.java
@@ -196,4 +202,397 @@ public class BackendTests {
       assertTrue(false, "getFurthestDestinationFrom() threw an exception.");
     }
   }
+
+  /**
+   * Tests the findPathToFurthestDestinationFrom() method
+   */
+  @Test
+  public void backendTest6() {
+
+    // Creates a graph and a Backend to call the method
+    Graph_Placeholder graph = new Graph_Placeholder();
+    Backend backend = new Backend(graph);
+
+    // Calls the loadGraphData() method to add the data into the graph
+    try {
+      backend.loadGraphData("campus.dot");
+    } catch (Exception e) {
+    }
+
+    // Checks if findPathToFurthestDestinationFrom() returns the path that ends at the most distant location
+    List<String> returnList = backend.findPathToFurthestDestinationFrom("Union South");
+    List<String> expectedList = new ArrayList<String>();
+    expectedList.add("Union South");
+    expectedList.add("Computer Sciences and Statistics");
+    expectedList.add("Weeks Hall for Geological Sciences");
+    expectedList.add("Memorial Union");
+    assertTrue(returnList.equals(expectedList), "findPathToFurthestDestinationFrom() didn't correctly return the path to the most distant location.");
+
+    // Checks if findPathToFurthestDestinationFrom() throws a NoSuchElementException when no other location can be reached
+    try {
+      backend.findPathToFurthestDestinationFrom("Memorial Union");
+      assertTrue(false, "findPathToFurthestDestinationFrom() did not throw a NoSuchElementException when it was suppose to");
+    } catch (NoSuchElementException e) {
+    }
+  }
+
+  /**
+   * Tests the findShortestRoute() method
+   */
+  @Test
+  public void backendTest7() {
+
+    // Creates a graph and a Backend to call the method
+    Graph_Placeholder graph = new Graph_Placeholder();
+    Backend backend = new Backend(graph);
+
+    // Calls the loadGraphData() method to add the data into the graph
+    try {
+      backend.loadGraphData("campus.dot");
+    } catch (Exception e) {
+    }
+
+    // Checks if findShortestRoute() returns the locations, leg times, and total time together
+    Route<String> route = backend.findShortestRoute("Union South", "Weeks Hall for Geological Sciences");
+    List<String> expectedList = new ArrayList<String>();
+    expectedList.add("Union South");
+    expectedList.add("Computer Sciences and Statistics");
+    expectedList.add("Weeks Hall for Geological Sciences");
+    assertTrue(route.getNodes().equals(expectedList), "findShortestRoute() didn't correctly return the locations on the shortest path.");
+    assertTrue(route.getLegCount() == 2 && route.getLegWeight(0) == 1.0 && route.getLegWeight(1) == 2.0, "findShortestRoute() didn't correctly return the times on the shortest path.");
+    assertTrue(route.getTotalCost() == 3.0, "findShortestRoute() didn't correctly return the total time of the shortest path.");
+
+    // Checks if findShortestRoute() throws a NoSuchElementException when no path exists
+    try {
+      backend.findShortestRoute("Psychology Building", null);
+      assertTrue(false, "findShortestRoute() did not throw a NoSuchElementException when it was suppose to");
+    } catch (NoSuchElementException e) {
+    }
+  }
+
+  /**
+   * Tests the findLocationsWithinTime() method
+   */
+  @Test
+  public void backendTest8() {
+
+    // Creates a graph and a Backend to call the method
+    Graph_Placeholder graph = new Graph_Placeholder();
+    Backend backend = new Backend(graph);
+
+    // Calls the loadGraphData() method to add the data into the graph
+    try {
+      backend.loadGraphData("campus.dot");
+    } catch (Exception e) {
+    }
+
+    // Checks if findLocationsWithinTime() only returns the locations within the time limit, sorted by arrival time
+    ShortestPathTree<String> tree = backend.findLocationsWithinTime("Union South", 3.0);
+    List<String> expectedList = new ArrayList<String>();
+    expectedList.add("Union South");
+    expectedList.add("Computer Sciences and Statistics");
+    expectedList.add("Weeks Hall for Geological Sciences");
+    assertTrue(tree.getReachableNodes().equals(expectedList), "findLocationsWithinTime() didn't correctly return the locations within the time limit.");
+    assertTrue(tree.getCost("Weeks Hall for Geological Sciences") == 3.0, "findLocationsWithinTime() didn't correctly return the time to a location.");
+
+    // Checks if findLocationsWithinTime() throws a NoSuchElementException when the location does not exist
+    try {
+      backend.findLocationsWithinTime("Psychology Building", 3.0);
+      assertTrue(false, "findLocationsWithinTime() did not throw a NoSuchElementException when it was suppose to");
+    } catch (NoSuchElementException e) {
+    }
+  }
+
+  /**
+   * Tests the findAlternativeRoutes() method
+   */
+  @Test
+  public void backendTest9() {
+
+    // Creates a graph and a Backend to call the method
+    Graph_Placeholder graph = new Graph_Placeholder();
+    Backend backend = new Backend(graph);
+
+    // Checks if findAlternativeRoutes() returns the placeholder's only route first
+    List<Route<String>> routes = backend.findAlternativeRoutes("Union South", "Weeks Hall for Geological Sciences", 3);
+    assertTrue(routes.size() == 1, "findAlternativeRoutes() didn't correctly return every route.");
+    assertTrue(routes.get(0).getNodes().size() == 3, "findAlternativeRoutes() didn't correctly return the shortest route first.");
+
+    // Checks if findAlternativeRoutes() returns an empty list when no route exists
+    List<Route<String>> noRoutes = backend.findAlternativeRoutes("Psychology Building", null, 3);
+    assertTrue(noRoutes.size() == 0, "findAlternativeRoutes() didn't correctly return an empty list when a route doesn't exist.");
+
+    // Checks if findAlternativeRoutes() throws an IllegalArgumentException when k is less than 1
+    try {
+      backend.findAlternativeRoutes("Union South", "Weeks Hall for Geological Sciences", 0);
+      assertTrue(false, "findAlternativeRoutes() did not throw an IllegalArgumentException when it was suppose to");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  /**
+   * Tests that loadGraphData() reads names and weights exactly, and reports the line and column of
+   * a line in the wrong format
+   */
+  @Test
+  public void backendTest10() throws IOException {
+
+    // Writes a small dot file with an escaped quote, a repeated edge, and a long weight
+    Path file = Files.createTempFile("backendTest10", ".dot");
+    Files.write(file, ("digraph campus {\n"
+        + "\t\"Memorial Union\" -> \"Science Hall\" [seconds=105.8];\n"
+        + "\r\n"
+        + "  \"The \\\"Hall\\\"\" -> \"Memorial Union\" [ seconds = 156.49999999999997 ];\r\n"
+        + "\t\"Memorial Union\" -> \"Science Hall\" [seconds=1.0];\n"
+        + "}\n").getBytes(StandardCharsets.UTF_8));
+    DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+    Backend backend = new Backend(graph);
+    backend.loadGraphData(file.toString());
+
+    // Checks that every location and edge was loaded, keeping the first weight of a repeated edge
+    assertTrue(graph.getNodeCount() == 3 && graph.getEdgeCount() == 2, "loadGraphData() didn't correctly load the data.");
+    assertTrue(graph.containsNode("The \"Hall\""), "loadGraphData() didn't correctly decode a location name.");
+    assertTrue(graph.getEdge("Memorial Union", "Science Hall") == 105.8, "loadGraphData() didn't keep the first weight of a repeated edge.");
+    assertTrue(graph.getEdge("The \"Hall\"", "Memorial Union") == Double.parseDouble("156.49999999999997"), "loadGraphData() didn't correctly read a weight.");
+
+    // Checks that a line in the wrong format is reported with its line and column
+    Files.write(file, ("digraph campus {\n"
+        + "\t\"Memorial Union\" -> \"Science Hall\" [seconds=105.8];\n"
+        + "\t\"Memorial Union\" => \"Radio Hall\" [seconds=176.7];\n"
+        + "}\n").getBytes(StandardCharsets.UTF_8));
+    try {
+      backend.loadGraphData(file.toString());
+      assertTrue(false, "loadGraphData() didn't correctly throw an IOException");
+    } catch (DotFileParser.ParseException e) {
+      assertTrue(e.getLine() == 3 && e.getColumn() == 19, "loadGraphData() didn't correctly report where the format was invalid.");
+    }
+
+    // Checks that a weight that is not a number is reported, and the graph is left as it was
+    Files.write(file, "\"Memorial Union\" -> \"Radio Hall\" [seconds=fast];".getBytes(StandardCharsets.UTF_8));
+    try {
+      backend.loadGraphData(file.toString());
+      assertTrue(false, "loadGraphData() didn't correctly throw an IOException");
+    } catch (DotFileParser.ParseException e) {
+      assertTrue(e.getLine() == 1 && e.getColumn() == 43, "loadGraphData() didn't correctly report where the weight was invalid.");
+    }
+    assertTrue(graph.getNodeCount() == 3, "loadGraphData() changed the graph when the file could not be loaded.");
+
+    // Checks that an empty file throws an IOException
+    Files.write(file, new byte[0]);
+    try {
+      backend.loadGraphData(file.toString());
+      assertTrue(false, "loadGraphData() didn't correctly throw an IOException");
+    } catch (IOException e) {
+      assertTrue(e.getMessage().equals("The file is empty."), "loadGraphData() didn't correctly report an empty file.");
+    }
+    Files.delete(file);
+  }
+
+  /**
+   * Tests that loadCompiledGraphData() serves the same graph from a compiled file as
+   * loadGraphData() does from the dot file it was compiled from
+   */
+  @Test
+  public void backendTest11() throws IOException {
+
+    // Compiles campus.dot, and loads it both ways
+    Path compiled = Files.createTempFile("backendTest11", ".graph");
+    GraphCompiler.compile("campus.dot", compiled.toString());
+    Backend dotBackend = new Backend(new DijkstraGraph<>());
+    dotBackend.loadGraphData("campus.dot");
+    Backend compiledBackend = new Backend(new DijkstraGraph<>());
+    compiledBackend.loadCompiledGraphData(compiled.toString());
+
+    // Checks that the locations and the answers to queries match
+    List<String> locations = new ArrayList<String>(dotBackend.getListOfAllLocations());
+    assertTrue(new HashSet<String>(compiledBackend.getListOfAllLocations()).equals(new HashSet<String>(locations)), "loadCompiledGraphData() didn't correctly load the locations.");
+    for (int i = 0; i < locations.size(); i += 7) {
+      String start = locations.get(i);
+      String end = locations.get(locations.size() - 1 - i);
+      assertTrue(compiledBackend.findLocationsOnShortestPath(start, end).equals(dotBackend.findLocationsOnShortestPath(start, end)), "loadCompiledGraphData() didn't correctly load the edges.");
+      assertTrue(compiledBackend.findTimesOnShortestPath(start, end).equals(dotBackend.findTimesOnShortestPath(start, end)), "loadCompiledGraphData() didn't correctly load the weights.");
+      assertTrue(compiledBackend.findAlternativeRoutes(start, end, 3).size() == dotBackend.findAlternativeRoutes(start, end, 3).size(), "loadCompiledGraphData() didn't correctly find the alternative routes.");
+      assertTrue(compiledBackend.findPathToFurthestDestinationFrom(start).equals(dotBackend.findPathToFurthestDestinationFrom(start)), "loadCompiledGraphData() didn't correctly find the furthest destination.");
+      assertTrue(compiledBackend.findLocationsWithinTime(start, 300).getReachableNodes().equals(dotBackend.findLocationsWithinTime(start, 300).getReachableNodes()), "loadCompiledGraphData() didn't correctly find the locations within a time.");
+    }
+    CompiledGraph graph = CompiledGraph.load(compiled.toString());
+    assertTrue(graph.getSnapshot().fingerprint() == DotFileParser.parse("campus.dot").toSnapshot().fingerprint(), "The compiled graph doesn't match the dot file.");
+    assertTrue(graph.getEdge("Memorial Union", "Science Hall") == 105.8 && !graph.containsEdge("Science Hall", "Nowhere"), "The compiled graph didn't correctly look up an edge.");
+    try {
+      graph.insertNode("Nowhere");
+      assertTrue(false, "The compiled graph didn't reject a change.");
+    } catch (UnsupportedOperationException e) {
+    }
+
+    // Checks that a file that is not a compiled graph throws an IOException
+    try {
+      compiledBackend.loadCompiledGraphData("campus.dot");
+      assertTrue(false, "loadCompiledGraphData() didn't correctly throw an IOException");
+    } catch (IOException e) {
+    }
+    Files.delete(compiled);
+  }
+
+  /**
+   * Tests that parsing a dot file in parallel chunks gives the same names, edges, and errors as
+   * parsing it from start to end
+   */
+  @Test
+  public void backendTest12() throws IOException {
+
+    // Writes a dot file of a few megabytes, so that it is split into several chunks
+    Random random = new Random(1200);
+    List<String> lines = new ArrayList<String>();
+    lines.add("digraph campus {");
+    for (int i = 0; i < 60000; i++) {
+      String pred = "Location " + random.nextInt(3000) + (i % 11 == 0 ? " \\\"East\\\"" : "");
+      String succ = "Location " + random.nextInt(3000);
+      lines.add("\t\"" + pred + "\" -> \"" + succ + "\" [seconds=" + (random.nextInt(3000) / 10.0 + random.nextDouble()) + "];" + (i % 3 == 0 ? "\r" : ""));
+    }
+    lines.add("}");
+    Path file = Files.createTempFile("backendTest12", ".dot");
+    Files.write(file, lines, StandardCharsets.UTF_8);
+
+    // Checks that every name and edge matches, in the same order
+    DotFileParser sequential = DotFileParser.parse(file.toString());
+    DotFileParser parallel = DotFileParser.parseParallel(file, new ForkJoinPool(4));
+    assertTrue(parallel.getNames().equals(sequential.getNames()), "parseParallel() didn't correctly read the names.");
+    assertTrue(parallel.getEdgeCount() == sequential.getEdgeCount(), "parseParallel() didn't correctly read the edges.");
+    for (int e = 0; e < sequential.getEdgeCount(); e++) {
+      assertTrue(parallel.getEdgeSource(e) == sequential.getEdgeSource(e) && parallel.getEdgeTarget(e) == sequential.getEdgeTarget(e)
+          && parallel.getEdgeWeight(e) == sequential.getEdgeWeight(e), "parseParallel() didn't correctly read an edge.");
+    }
+
+    // Checks that the first of two malformed lines in different chunks is reported the same way
+    lines.set(41000, "\t\"Location 1\" -> \"Location 2\" [seconds=slow];");
+    lines.set(23000, "\t\"Location 1\" -> \"Location 2\" [minutes=1.0];");
+    Files.write(file, lines, StandardCharsets.UTF_8);
+    DotFileParser.ParseException expected = null;
+    try {
+      DotFileParser.parse(file.toString());
+    } catch (DotFileParser.ParseException e) {
+      expected = e;
+    }
+    assertTrue(expected != null && expected.getLine() == 23001, "parse() didn't correctly report the first malformed line.");
+    try {
+      DotFileParser.parseParallel(file, new ForkJoinPool(4));
+      assertTrue(false, "parseParallel() didn't correctly throw an IOException");
+    } catch (DotFileParser.ParseException e) {
+      assertTrue(e.getMessage().equals(expected.getMessage()), "parseParallel() didn't correctly report the first malformed line.");
+    }
+
+    // Checks that a Backend loading in parallel loads the same graph
+    DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+    Backend backend = new Backend(graph);
+    backend.setParallelLoading(true);
+    backend.loadGraphData("campus.dot");
+    assertTrue(graph.getNodeCount() == 160 && graph.getEdgeCount() == 800, "loadGraphData() didn't correctly load the data in parallel.");
+    Files.delete(file);
+  }
+
+  /**
+   * Tests that a watched dot file is reloaded as a single new version holding only the changes,
+   * and that a file that cannot be loaded leaves the graph as it was
+   */
+  @Test
+  public void backendTest13() throws IOException, InterruptedException {
+
+    // Watches a small dot file
+    Path directory = Files.createTempDirectory("backendTest13");
+    Path file = directory.resolve("campus.dot");
+    Files.write(file, List.of("digraph campus {", "\t\"A\" -> \"B\" [seconds=10.0];", "\t\"B\" -> \"C\" [seconds=20.0];",
+        "\t\"C\" -> \"D\" [seconds=30.0];", "\t\"D\" -> \"A\" [seconds=40.0];", "}"), StandardCharsets.UTF_8);
+    SnapshotIsolatedGraph<String, Double> graph = new SnapshotIsolatedGraph<>();
+
+    // Reloads the file by hand, with a watcher that is not started, so that no other reload can run
+    GraphFileWatcher manual = new GraphFileWatcher(graph, file.toString());
+    try {
+      assertTrue(manual.reload() == 8 && graph.getNodeCount() == 4 && graph.getEdgeCount() == 4 && graph.getVersionNumber() == 1, "reload() didn't correctly load the file as one version.");
+      DijkstraGraph<String, Double> before = graph.getCurrentVersion();
+
+      // Removes an edge and a node, changes a weight, and adds a node
+      Files.write(file, List.of("digraph campus {", "\t\"A\" -> \"B\" [seconds=15.0];", "\t\"B\" -> \"C\" [seconds=20.0];",
+          "\t\"C\" -> \"A\" [seconds=50.0];", "\t\"A\" -> \"E\" [seconds=60.0];", "}"), StandardCharsets.UTF_8);
+      int changes = manual.reload();
+      assertTrue(changes == 5 && graph.getVersionNumber() == 2, "reload() didn't correctly publish only the changes as one version.");
+      assertTrue(graph.getEdge("A", "B") == 15.0 && graph.getEdge("B", "C") == 20.0 && graph.getEdge("C", "A") == 50.0 && graph.getEdge("A", "E") == 60.0, "reload() didn't correctly update the edges.");
+      assertTrue(!graph.containsNode("D") && graph.getNodeCount() == 4 && graph.getEdgeCount() == 4, "reload() didn't correctly remove the node.");
+      assertTrue(before.containsNode("D") && before.getEdge("A", "B") == 10.0, "reload() changed a version that was still being read.");
+      assertTrue(manual.reload() == 0 && graph.getVersionNumber() == 2, "reload() published a version when nothing changed.");
+    } finally {
+      manual.close();
+    }
+
+    // Watches the file, which the graph already matches
+    Backend backend = new Backend(graph);
+    GraphFileWatcher watcher = backend.watchGraphData(file.toString());
+    try {
+      assertTrue(graph.getVersionNumber() == 2, "watchGraphData() published a version when nothing changed.");
+
+      // Checks that the watcher reloads the file when it changes
+      Files.write(file, List.of("digraph campus {", "\t\"A\" -> \"B\" [seconds=15.0];", "\t\"B\" -> \"C\" [seconds=25.0];",
+          "\t\"C\" -> \"A\" [seconds=50.0];", "\t\"A\" -> \"E\" [seconds=60.0];", "}"), StandardCharsets.UTF_8);
+      for (int i = 0; i < 200 && graph.getVersionNumber() == 2; i++) {
+        Thread.sleep(50);
+      }
+      assertTrue(graph.getVersionNumber() == 3 && graph.getEdge("B", "C") == 25.0, "The watcher didn't correctly reload the changed file.");
+
+      // Checks that a malformed file leaves the graph as it was
+      Files.write(file, List.of("digraph campus {", "\t\"A\" -> \"B\" [seconds=slow];", "}"), StandardCharsets.UTF_8);
+      for (int i = 0; i < 200 && watcher.getLastError() == null; i++) {
+        Thread.sleep(50);
+      }
+      assertTrue(watcher.getLastError() instanceof DotFileParser.ParseException, "The watcher didn't correctly report the malformed file.");
+      assertTrue(graph.getVersionNumber() == 3 && graph.getEdgeCount() == 4, "The watcher changed the graph after a malformed file.");
+    } finally {
+      watcher.close();
+    }
+
+    // Checks that only a snapshot isolated graph can be watched
+    try {
+      new Backend(new DijkstraGraph<>()).watchGraphData(file.toString());
+      assertTrue(false, "watchGraphData() didn't correctly throw an IllegalStateException");
+    } catch (IllegalStateException e) {
+    }
+    Files.delete(file);
+    Files.delete(directory);
+  }
+
+  /**
+   * Tests that a dot file can be loaded after a compiled graph, back into the graph the backend was
+   * created with, and that a dot file that cannot be loaded leaves the compiled graph in use
+   */
+  @Test
+  public void backendTest14() throws IOException {
+
+    // Loads a compiled graph, and then a dot file that does not exist
+    Path compiled = Files.createTempFile("backendTest14", ".graph");
+    GraphCompiler.compile("campus.dot", compiled.toString());
+    DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+    Backend backend = new Backend(graph);
+    backend.loadCompiledGraphData(compiled.toString());
+    try {
+      backend.loadGraphData("nowhere.dot");
+      assertTrue(false, "loadGraphData() didn't correctly throw an IOException");
+    } catch (IOException e) {
+    }
+    assertTrue(backend.getListOfAllLocations().size() == 160 && graph.getNodeCount() == 0, "loadGraphData() didn't keep the compiled graph after a file that cannot be loaded.");
+
+    // Checks that loading the dot file goes back to the backend's own graph, which can be changed
+    backend.loadGraphData("campus.dot");
+    assertTrue(graph.getNodeCount() == 160 && graph.getEdgeCount() == 800, "loadGraphData() didn't correctly load into the backend's graph after a compiled graph.");
+    graph.insertNode("Nowhere");
+    assertTrue(backend.getListOfAllLocations().contains("Nowhere"), "The backend didn't answer from its own graph after loading a dot file.");
+    backend.loadCompiledGraphData(compiled.toString());
+    backend.loadGraphData("campus.dot");
+    assertTrue(graph.getNodeCount() == 160 && !graph.containsNode("Nowhere"), "loadGraphData() didn't correctly replace the backend's graph after a compiled graph.");
+
+    // Checks that a snapshot isolated graph can still be watched after a compiled graph
+    Backend watched = new Backend(new SnapshotIsolatedGraph<>());
+    watched.loadCompiledGraphData(compiled.toString());
+    GraphFileWatcher watcher = watched.watchGraphData("campus.dot");
+    watcher.close();
+    assertTrue(watched.getListOfAllLocations().size() == 160, "watchGraphData() didn't correctly load the file after a compiled graph.");
+    Files.delete(compiled);
+  }
 }
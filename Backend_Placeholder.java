@@ -24,6 +24,11 @@ public class Backend_Placeholder implements BackendInterface {
     graph.insertNode("Mosse Humanities Building");
   }
 
+  // this method loads the same extra location as loadGraphData()
+  public void loadCompiledGraphData(String filename) throws IOException {
+    loadGraphData(filename);
+  }
+
   public List<String> getListOfAllLocations() {
     return graph.getAllNodes();
   }
@@ -40,10 +45,42 @@ public class Backend_Placeholder implements BackendInterface {
     return times;
   }
 
+  // returns the placeholder path and increasing leg times, with a total of
+  // every value returned by findTimesOnShortestPath
+  public Route<String> findShortestRoute(String startLocation, String endLocation) throws NoSuchElementException {
+    List<String> locations = findLocationsOnShortestPath(startLocation,endLocation);
+    if(locations.isEmpty()) throw new NoSuchElementException();
+    List<Double> times = findTimesOnShortestPath(startLocation,endLocation);
+    double[] legs = new double[locations.size()-1];
+    double total = 0;
+    for(int i=0;i<times.size();i++) {
+      if(i < legs.length) legs[i] = times.get(i);
+      total += times.get(i);
+    }
+    return new Route<>(locations, legs, total);
+  }
+
+  // returns the placeholder route as the only route
+  public List<Route<String>> findAlternativeRoutes(String startLocation, String endLocation, int k) {
+    List<Route<String>> routes = new ArrayList<>();
+    routes.add(findShortestRoute(startLocation, endLocation));
+    return routes;
+  }
+
   // always returns the last node in the list
   public String getFurthestDestinationFrom(String startLocation) throws NoSuchElementException {
     List<String> all = graph.getAllNodes();
     return all.get(all.size()-1);
   }
 
+  // returns the placeholder path to the last node in the list
+  public List<String> findPathToFurthestDestinationFrom(String startLocation) throws NoSuchElementException {
+    return findLocationsOnShortestPath(startLocation, getFurthestDestinationFrom(startLocation));
+  }
+
+  // returns the placeholder graph's limited tree from the start location
+  public ShortestPathTree<String> findLocationsWithinTime(String startLocation, double seconds) throws NoSuchElementException {
+    return graph.shortestPathTree(startLocation, seconds);
+  }
+
 }
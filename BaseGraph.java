@@ -1,6 +1,8 @@
 import java.util.List;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
 
 /**
  * This BaseGraph class contains stores a set of nodes, along with a set of
@@ -11,6 +13,7 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
     // Each node contains unique data along with two lists of directed edges
     protected class Node {
         public NodeType data;
+        public int index; // this node's position within nodeList
         public List<Edge> edgesLeaving = new LinkedList<>();
         public List<Edge> edgesEntering = new LinkedList<>();
 
@@ -22,6 +25,11 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
     // Nodes can be retrieved from this map by their unique data
     protected MapADT<NodeType, Node> nodes = null;
 
+    // Nodes are also numbered densely from 0 to getNodeCount()-1 by their
+    // position within this list, so that searches can keep per-node state in
+    // arrays instead of maps
+    protected List<Node> nodeList = new ArrayList<>();
+
     // Each edge contains data/weight, and two nodes that it connects
     protected class Edge {
         public EdgeType data; // the weight or cost of this edge
@@ -38,6 +46,10 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
     protected int edgeCount = 0;
     // Edges can be retrieved through the edge lists in either connected node
 
+    // Bumped by every change to the graph, so that results computed from it
+    // can be checked for staleness
+    protected long version = 0;
+
     /**
      * Constructor for BaseGraph that provides the map the graph uses.
      * 
@@ -59,7 +71,11 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
     public boolean insertNode(NodeType data) {
         if (nodes.containsKey(data))
             return false; // throws NPE when data's null
-        nodes.put(data, new Node(data));
+        Node newNode = new Node(data);
+        newNode.index = nodeList.size();
+        nodes.put(data, newNode);
+        nodeList.add(newNode);
+        version++;
         return true;
     }
 
@@ -77,15 +93,78 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
         if (!nodes.containsKey(data))
             return false; // throws NPE when data==null
         Node oldNode = nodes.remove(data);
+        // fill the hole in nodeList with the last node, to keep indices dense
+        Node lastNode = nodeList.remove(nodeList.size() - 1);
+        if (lastNode != oldNode) {
+            lastNode.index = oldNode.index;
+            nodeList.set(lastNode.index, lastNode);
+        }
         // remove all edges entering neighboring nodes from this one
         for (Edge edge : oldNode.edgesLeaving)
             edge.successor.edgesEntering.remove(edge);
         // remove all edges leaving neighboring nodes toward this one
         for (Edge edge : oldNode.edgesEntering)
             edge.predecessor.edgesLeaving.remove(edge);
+        // the removed edges no longer count, with a self loop counted once
+        this.edgeCount -= oldNode.edgesLeaving.size();
+        for (Edge edge : oldNode.edgesEntering)
+            if (edge.predecessor != oldNode)
+                this.edgeCount--;
+        version++;
         return true;
     }
 
+    /**
+     * Fills this empty graph with nodes and edges in one step, without the
+     * lookups that insertNode() and insertEdge() make to find repeats. This is
+     * how a graph is emitted from a source that has already numbered its
+     * nodes and holds no repeated edges, such as a GraphBuilder, a parsed DOT
+     * file, or another graph.
+     *
+     * @param data    the data of each node, in the order of their indices
+     * @param count   the number of edges to load
+     * @param sources the index of each edge's predecessor node
+     * @param targets the index of each edge's successor node
+     * @param weights gives the data of each edge, by its position
+     * @throws IllegalStateException if this graph already holds a node
+     */
+    protected void load(List<NodeType> data, int count, int[] sources, int[] targets,
+            IntFunction<? extends EdgeType> weights) {
+        if (!nodeList.isEmpty())
+            throw new IllegalStateException("Only an empty graph can be loaded.");
+        // size the map and list once, rather than growing them node by node
+        if (nodes instanceof HashtableMap)
+            ((HashtableMap<NodeType, Node>) nodes).ensureCapacity(data.size());
+        if (nodeList instanceof ArrayList)
+            ((ArrayList<Node>) nodeList).ensureCapacity(data.size());
+        for (NodeType item : data) {
+            Node newNode = new Node(item);
+            newNode.index = nodeList.size();
+            nodes.put(item, newNode);
+            nodeList.add(newNode);
+        }
+        for (int e = 0; e < count; e++) {
+            Node predNode = nodeList.get(sources[e]);
+            Node succNode = nodeList.get(targets[e]);
+            Edge newEdge = new Edge(weights.apply(e), predNode, succNode);
+            predNode.edgesLeaving.add(newEdge);
+            succNode.edgesEntering.add(newEdge);
+        }
+        this.edgeCount += count;
+        version++;
+    }
+
+    /**
+     * Removes every node and edge from this graph at once, rather than
+     * unlinking each node's edges from its neighbors one node at a time.
+     */
+    public void clear() {
+        nodes.clear();
+        nodeList.clear();
+        this.edgeCount = 0;
+        version++;
+    }
+
     /**
      * Check whether the graph contains a node with the provided data.
      * 
@@ -144,6 +223,7 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
             predNode.edgesLeaving.add(newEdge);
             succNode.edgesEntering.add(newEdge);
         }
+        version++;
         return true;
     }
 
@@ -164,6 +244,7 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
             oldEdge.successor.edgesEntering.remove(oldEdge);
             // and decrement the edge count before removing
             this.edgeCount--;
+            version++;
             return true;
         } catch (NoSuchElementException e) {
             // when no such edge exists, return false instead
@@ -212,6 +293,17 @@ public class BaseGraph<NodeType, EdgeType extends Number> {
                 succ.toString());
     }
 
+    /**
+     * Return the version of this graph, which changes every time a node or
+     * edge is inserted, removed, or updated. Two calls that return the same
+     * version saw the graph in the same state.
+     *
+     * @return the current version of this graph
+     */
+    public long getVersion() {
+        return version;
+    }
+
     /**
      * Return the number of edges in the graph.
      * 
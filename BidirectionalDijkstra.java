@@ -0,0 +1,132 @@
+import java.util.Arrays;
+
+/**
+ * This ShortestPathEngine runs two Dijkstra searches at once: a forward
+ * search from the source along the edges leaving each node, and a backward
+ * search from the target along the edges entering each node. The searches
+ * take turns settling one node each, and every node reached by both of them
+ * gives the cost of one path from source to target. Once the lowest costs
+ * left in the two heaps add up to at least the best such path, no better
+ * path can exist, and the search stops.
+ *
+ * On long point-to-point routes the two searches meet in the middle, so each
+ * only has to settle the nodes within about half of the path's cost.
+ */
+public class BidirectionalDijkstra implements ShortestPathEngine {
+
+    protected final CSRGraph<?> graph;
+
+    /**
+     * Creates an engine that answers queries over the provided snapshot.
+     *
+     * @param graph the snapshot to search
+     */
+    public BidirectionalDijkstra(CSRGraph<?> graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Runs the forward and backward searches until they meet on a shortest
+     * path. Each search keeps its state in one of this thread's search
+     * workspaces, so that a query only pays for the nodes it reaches. For
+     * each node it reaches, the forward search records the node before it on
+     * the path from source, and the backward search records the node after it
+     * on the path to target along with the weight of that edge.
+     *
+     * @param source  the index of the starting node
+     * @param target  the index of the destination node
+     * @param forward receives the state of the forward search
+     * @param back    receives the state of the backward search
+     * @return the index of a node on the shortest path that both searches
+     *         reached, or -1 when there is no path from source to target
+     */
+    protected int search(int source, int target, SearchWorkspace forward, SearchWorkspace back) {
+        IndexedDaryHeap forwardHeap = forward.getHeap();
+        IndexedDaryHeap backHeap = back.getHeap();
+
+        forward.reach(source, 0.0, -1, 0.0);
+        back.reach(target, 0.0, -1, 0.0);
+        forwardHeap.insertOrDecrease(source, 0.0);
+        backHeap.insertOrDecrease(target, 0.0);
+        double best = source == target ? 0.0 : Double.POSITIVE_INFINITY;
+        int meeting = source == target ? source : -1;
+        boolean forwardTurn = true;
+
+        while (!forwardHeap.isEmpty() && !backHeap.isEmpty()) {
+            // stop once neither search can still reach a cheaper meeting node
+            double lowest = forwardHeap.getKey(forwardHeap.peek()) + backHeap.getKey(backHeap.peek());
+            if (lowest >= best)
+                break;
+
+            SearchWorkspace workspace = forwardTurn ? forward : back;
+            SearchWorkspace other = forwardTurn ? back : forward;
+            IndexedDaryHeap heap = workspace.getHeap();
+            int[] offsets = forwardTurn ? graph.outOffsets : graph.inOffsets;
+            int[] neighbors = forwardTurn ? graph.outTargets : graph.inSources;
+            double[] weights = forwardTurn ? graph.outWeights : graph.inWeights;
+
+            int u = heap.poll();
+            double base = workspace.getDist(u);
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = neighbors[e];
+                double cost = base + weights[e];
+                if (cost < workspace.getDist(v)) {
+                    workspace.reach(v, cost, u, weights[e]);
+                    heap.insertOrDecrease(v, cost);
+                    // a node reached by both searches completes a path
+                    double through = cost + other.getDist(v);
+                    if (through < best) {
+                        best = through;
+                        meeting = v;
+                    }
+                }
+            }
+            forwardTurn = !forwardTurn;
+        }
+        return meeting;
+    }
+
+    /**
+     * Joins the forward path from source to the meeting node with the backward
+     * path from the meeting node to target.
+     *
+     * @param meeting the node that both searches reached
+     * @param forward the state of the forward search
+     * @param back    the state of the backward search
+     * @return the node indices along the path from source to target
+     */
+    protected static int[] buildPath(int meeting, SearchWorkspace forward, SearchWorkspace back) {
+        int[] firstHalf = forward.buildPath(meeting);
+        int[] path = Arrays.copyOf(firstHalf, firstHalf.length + back.pathLength(meeting) - 1);
+        int i = firstHalf.length;
+        for (int v = back.getParent(meeting); v != -1; v = back.getParent(v))
+            path[i++] = v;
+        return path;
+    }
+
+    @Override
+    public int[] shortestPath(int source, int target) {
+        SearchWorkspace forward = SearchWorkspace.begin(graph.getNodeCount());
+        SearchWorkspace back = SearchWorkspace.beginBackward(graph.getNodeCount());
+        int meeting = search(source, target, forward, back);
+        if (meeting == -1)
+            return null;
+        return buildPath(meeting, forward, back);
+    }
+
+    @Override
+    public double shortestPathCost(int source, int target) {
+        SearchWorkspace forward = SearchWorkspace.begin(graph.getNodeCount());
+        SearchWorkspace back = SearchWorkspace.beginBackward(graph.getNodeCount());
+        int meeting = search(source, target, forward, back);
+        if (meeting == -1)
+            return Double.POSITIVE_INFINITY;
+        // add the backward edge weights in path order, so that the total is
+        // rounded exactly as a forward search would round it
+        double cost = forward.getDist(meeting);
+        for (int v = meeting; back.getParent(v) != -1; v = back.getParent(v))
+            cost += back.getParentWeight(v);
+        return cost;
+    }
+
+}
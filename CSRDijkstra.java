@@ -0,0 +1,187 @@
+import java.util.Arrays;
+
+/**
+ * This ShortestPathEngine runs Dijkstra's shortest path algorithm directly on
+ * the primitive arrays of a CSRGraph snapshot. Each query keeps its tentative
+ * distances and predecessors in arrays indexed by dense node index, rather
+ * than in a map keyed by node data, and point queries reuse the arrays of
+ * their thread's SearchWorkspace.
+ */
+public class CSRDijkstra implements ShortestPathEngine {
+
+    protected final CSRGraph<?> graph;
+
+    /**
+     * Creates an engine that answers queries over the provided snapshot.
+     *
+     * @param graph the snapshot to search
+     */
+    public CSRDijkstra(CSRGraph<?> graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Runs Dijkstra's algorithm from source until target is settled (or until
+     * every reachable node is settled, when target is -1), keeping its state
+     * in this thread's search workspace instead of new arrays.
+     *
+     * @param source the index of the starting node
+     * @param target the index of the destination node, or -1 for none
+     * @return the workspace, holding the cost and predecessor of each node
+     *         that the search reached
+     */
+    protected SearchWorkspace search(int source, int target) {
+        SearchWorkspace workspace = SearchWorkspace.begin(graph.getNodeCount());
+        IndexedDaryHeap heap = workspace.getHeap();
+        workspace.reach(source, 0.0, -1, 0.0);
+        heap.insertOrDecrease(source, 0.0);
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            if (u == target)
+                break;
+            double base = workspace.getDist(u);
+            for (int e = graph.outOffsets[u]; e < graph.outOffsets[u + 1]; e++) {
+                int v = graph.outTargets[e];
+                double cost = base + graph.outWeights[e];
+                if (cost < workspace.getDist(v)) {
+                    workspace.reach(v, cost, u, graph.outWeights[e]);
+                    heap.insertOrDecrease(v, cost);
+                }
+            }
+        }
+        return workspace;
+    }
+
+    /**
+     * Runs Dijkstra's algorithm over a snapshot from source until target is
+     * settled (or until every reachable node is settled, when target is -1).
+     * A backward search follows the edges entering each node instead of the
+     * edges leaving it, and so finds the shortest paths from every node to
+     * source rather than from source to every node.
+     *
+     * @param graph    the snapshot to search
+     * @param source   the index of the node to search from
+     * @param target   the index of the node to stop at, or -1 for none
+     * @param backward true to search along edges in reverse
+     * @param dist     receives the cost of the shortest path to each settled
+     *                 node
+     * @param parent   receives the neighbor before each node on its shortest
+     *                 path from source, or null to not record these
+     */
+    protected static void search(CSRGraph<?> graph, int source, int target, boolean backward,
+            double[] dist, int[] parent) {
+        search(graph, source, target, backward, dist, parent, null);
+    }
+
+    /**
+     * Runs Dijkstra's algorithm over a snapshot like the method above, and
+     * also records the order in which nodes are settled.
+     *
+     * @param graph    the snapshot to search
+     * @param source   the index of the node to search from
+     * @param target   the index of the node to stop at, or -1 for none
+     * @param backward true to search along edges in reverse
+     * @param dist     receives the cost of the shortest path to each settled
+     *                 node
+     * @param parent   receives the neighbor before each node on its shortest
+     *                 path from source, or null to not record these
+     * @param order    receives the index of each settled node, in the order
+     *                 they were settled, or null to not record these
+     * @return the number of nodes that were settled
+     */
+    protected static int search(CSRGraph<?> graph, int source, int target, boolean backward,
+            double[] dist, int[] parent, int[] order) {
+        return search(graph, source, target, backward, Double.POSITIVE_INFINITY, dist, parent, order);
+    }
+
+    /**
+     * Runs Dijkstra's algorithm over a snapshot like the method above, but
+     * stops before settling any node whose cost is above maxCost. Nodes that
+     * were reached but not settled may be left with a cost above maxCost.
+     *
+     * @param graph    the snapshot to search
+     * @param source   the index of the node to search from
+     * @param target   the index of the node to stop at, or -1 for none
+     * @param backward true to search along edges in reverse
+     * @param maxCost  the highest path cost to settle nodes at
+     * @param dist     receives the cost of the shortest path to each settled
+     *                 node
+     * @param parent   receives the neighbor before each node on its shortest
+     *                 path from source, or null to not record these
+     * @param order    receives the index of each settled node, in the order
+     *                 they were settled, or null to not record these
+     * @return the number of nodes that were settled
+     */
+    protected static int search(CSRGraph<?> graph, int source, int target, boolean backward,
+            double maxCost, double[] dist, int[] parent, int[] order) {
+        int[] offsets = backward ? graph.inOffsets : graph.outOffsets;
+        int[] neighbors = backward ? graph.inSources : graph.outTargets;
+        double[] weights = backward ? graph.inWeights : graph.outWeights;
+
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        if (parent != null)
+            Arrays.fill(parent, -1);
+        IndexedDaryHeap heap = new IndexedDaryHeap(graph.getNodeCount());
+
+        dist[source] = 0.0;
+        heap.insertOrDecrease(source, 0.0);
+        int settled = 0;
+        while (!heap.isEmpty()) {
+            // no node left in the heap costs less than the one on top
+            if (heap.getKey(heap.peek()) > maxCost)
+                break;
+            int u = heap.poll();
+            if (order != null)
+                order[settled] = u;
+            settled++;
+            if (u == target)
+                break;
+
+            // relax every edge leaving u; settled nodes never improve, since
+            // all edge weights are non-negative
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = neighbors[e];
+                double cost = dist[u] + weights[e];
+                if (cost < dist[v]) {
+                    dist[v] = cost;
+                    if (parent != null)
+                        parent[v] = u;
+                    heap.insertOrDecrease(v, cost);
+                }
+            }
+        }
+        return settled;
+    }
+
+    /**
+     * Follows predecessor links back from target to build the path that ends
+     * there, in order from source to target.
+     *
+     * @param parent the predecessor of each node, or -1 at the source
+     * @param target the index of the last node on the path
+     * @return the node indices along the path
+     */
+    protected static int[] buildPath(int[] parent, int target) {
+        int length = 0;
+        for (int v = target; v != -1; v = parent[v])
+            length++;
+        int[] path = new int[length];
+        for (int v = target; v != -1; v = parent[v])
+            path[--length] = v;
+        return path;
+    }
+
+    @Override
+    public int[] shortestPath(int source, int target) {
+        SearchWorkspace workspace = search(source, target);
+        if (!workspace.isReached(target))
+            return null;
+        return workspace.buildPath(target);
+    }
+
+    @Override
+    public double shortestPathCost(int source, int target) {
+        return search(source, target).getDist(target);
+    }
+
+}
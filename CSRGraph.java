@@ -0,0 +1,217 @@
+import java.util.NoSuchElementException;
+
+/**
+ * This CSRGraph class is an immutable snapshot of a graph, stored in
+ * compressed sparse row (CSR) form. Every node is numbered with a dense index
+ * from 0 to getNodeCount()-1, and the edges leaving node u are stored in the
+ * outTargets and outWeights arrays between positions outOffsets[u] and
+ * outOffsets[u+1]. The edges entering each node are stored the same way in
+ * the in* arrays, so that searches can also walk the graph backwards.
+ *
+ * Because all of the adjacency data lives in a handful of primitive arrays,
+ * shortest path searches over a CSRGraph do not chase pointers between Node
+ * and Edge objects, and do not unbox any edge weights.
+ *
+ * @param NodeType is the data type stored at each graph node
+ */
+public class CSRGraph<NodeType> {
+
+    // node data, indexed by dense node index
+    protected final Object[] nodeData;
+    // dense node indices, retrievable by node data
+    protected final ObjectIntHashMap<NodeType> indices;
+
+    // edges leaving each node: successor indices and weights
+    protected final int[] outOffsets;
+    protected final int[] outTargets;
+    protected final double[] outWeights;
+
+    // edges entering each node: predecessor indices and weights
+    protected final int[] inOffsets;
+    protected final int[] inSources;
+    protected final double[] inWeights;
+
+    /**
+     * Creates a snapshot from a list of nodes and an unordered list of edges.
+     * The i-th edge runs from node edgeSources[i] to node edgeTargets[i] and
+     * has weight edgeWeights[i]. Edges are bucketed by node with a counting
+     * sort, so the relative order of edges leaving (or entering) the same node
+     * is preserved.
+     *
+     * @param nodeData    the data of every node, indexed by dense node index
+     * @param edgeSources the index of the predecessor node of each edge
+     * @param edgeTargets the index of the successor node of each edge
+     * @param edgeWeights the non-negative weight of each edge
+     * @param edgeCount   the number of edges stored in the three edge arrays
+     */
+    public CSRGraph(Object[] nodeData, int[] edgeSources, int[] edgeTargets,
+            double[] edgeWeights, int edgeCount) {
+        this.nodeData = nodeData;
+        this.indices = indexNodes(nodeData);
+        int n = nodeData.length;
+
+        this.outOffsets = new int[n + 1];
+        this.outTargets = new int[edgeCount];
+        this.outWeights = new double[edgeCount];
+        this.inOffsets = new int[n + 1];
+        this.inSources = new int[edgeCount];
+        this.inWeights = new double[edgeCount];
+
+        // count the edges leaving and entering every node
+        for (int i = 0; i < edgeCount; i++) {
+            outOffsets[edgeSources[i] + 1]++;
+            inOffsets[edgeTargets[i] + 1]++;
+        }
+        // turn those counts into the offset of each node's first edge
+        for (int u = 0; u < n; u++) {
+            outOffsets[u + 1] += outOffsets[u];
+            inOffsets[u + 1] += inOffsets[u];
+        }
+        // then place each edge into the next free slot of its nodes' rows
+        int[] outNext = new int[n];
+        int[] inNext = new int[n];
+        System.arraycopy(outOffsets, 0, outNext, 0, n);
+        System.arraycopy(inOffsets, 0, inNext, 0, n);
+        for (int i = 0; i < edgeCount; i++) {
+            int out = outNext[edgeSources[i]]++;
+            outTargets[out] = edgeTargets[i];
+            outWeights[out] = edgeWeights[i];
+            int in = inNext[edgeTargets[i]]++;
+            inSources[in] = edgeSources[i];
+            inWeights[in] = edgeWeights[i];
+        }
+    }
+
+    /**
+     * Creates a snapshot from adjacency that is already in CSR form, for a
+     * subclass that stores its node data elsewhere. Such a subclass must
+     * override containsNode(), indexOf(), and nodeAt().
+     *
+     * @param outOffsets the position of the first edge leaving each node,
+     *                   followed by the number of edges
+     * @param outTargets the successor of each edge, grouped by predecessor
+     * @param outWeights the weight of each edge, grouped by predecessor
+     * @param inOffsets  the position of the first edge entering each node,
+     *                   followed by the number of edges
+     * @param inSources  the predecessor of each edge, grouped by successor
+     * @param inWeights  the weight of each edge, grouped by successor
+     */
+    protected CSRGraph(int[] outOffsets, int[] outTargets, double[] outWeights,
+            int[] inOffsets, int[] inSources, double[] inWeights) {
+        this.nodeData = null;
+        this.indices = null;
+        this.outOffsets = outOffsets;
+        this.outTargets = outTargets;
+        this.outWeights = outWeights;
+        this.inOffsets = inOffsets;
+        this.inSources = inSources;
+        this.inWeights = inWeights;
+    }
+
+    // maps every node's data to its position within the nodeData array
+    private ObjectIntHashMap<NodeType> indexNodes(Object[] nodeData) {
+        ObjectIntHashMap<NodeType> map = new ObjectIntHashMap<>(nodeData.length);
+        for (int i = 0; i < nodeData.length; i++)
+            map.put(nodeAt(nodeData, i), i);
+        return map;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <NodeType> NodeType nodeAt(Object[] nodeData, int index) {
+        return (NodeType) nodeData[index];
+    }
+
+    /**
+     * Return the number of nodes in this snapshot.
+     *
+     * @return the number of nodes in this snapshot
+     */
+    public int getNodeCount() {
+        return outOffsets.length - 1;
+    }
+
+    /**
+     * Return the number of edges in this snapshot.
+     *
+     * @return the number of edges in this snapshot
+     */
+    public int getEdgeCount() {
+        return outTargets.length;
+    }
+
+    /**
+     * Check whether this snapshot contains a node with the provided data.
+     *
+     * @param data the node contents to check for
+     * @return true if data item is stored in a node within this snapshot, or
+     *         false otherwise
+     */
+    public boolean containsNode(NodeType data) {
+        return indices.containsKey(data);
+    }
+
+    /**
+     * Return the dense index of the node containing the provided data.
+     *
+     * @param data the node contents to look up
+     * @return the index of that node
+     * @throws NoSuchElementException if no node contains this data
+     */
+    public int indexOf(NodeType data) {
+        int index = indices.getOrDefault(data, -1);
+        if (index == -1)
+            throw new NoSuchElementException("Node not in graph: " + data);
+        return index;
+    }
+
+    /**
+     * Return the data stored in the node with the provided dense index.
+     *
+     * @param index the index of the node, from 0 to getNodeCount()-1
+     * @return the data stored in that node
+     */
+    public NodeType nodeAt(int index) {
+        return nodeAt(nodeData, index);
+    }
+
+    /**
+     * Return the weight of the edge from node u to node v.
+     *
+     * @param u the index of the predecessor node
+     * @param v the index of the successor node
+     * @return the weight of the edge from u to v, or Double.POSITIVE_INFINITY
+     *         when there is no such edge
+     */
+    public double edgeWeight(int u, int v) {
+        double weight = Double.POSITIVE_INFINITY;
+        for (int e = outOffsets[u]; e < outOffsets[u + 1]; e++)
+            if (outTargets[e] == v && outWeights[e] < weight)
+                weight = outWeights[e];
+        return weight;
+    }
+
+    /**
+     * Computes a hash of this snapshot's node data and edges, so that data
+     * precomputed for one snapshot can be checked against another before it
+     * is reused. Snapshots with the same nodes in the same order and the same
+     * edges always have the same fingerprint.
+     *
+     * @return a 64 bit hash of this snapshot's contents
+     */
+    public long fingerprint() {
+        int n = getNodeCount();
+        long hash = n;
+        for (int u = 0; u < n; u++) {
+            NodeType data = nodeAt(u);
+            hash = hash * 31 + (data == null ? 0 : data.hashCode());
+        }
+        for (int u = 0; u < n; u++)
+            hash = hash * 31 + outOffsets[u + 1];
+        for (int e = 0; e < outTargets.length; e++) {
+            hash = hash * 31 + outTargets[e];
+            hash = hash * 31 + Double.doubleToLongBits(outWeights[e]);
+        }
+        return hash;
+    }
+
+}
@@ -0,0 +1,495 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * This CompiledGraph class is a read-only GraphADT that serves a graph
+ * straight out of a memory-mapped file written by GraphCompiler, so loading
+ * it parses nothing and builds no Node or Edge objects. The file holds:
+ *
+ * - a header of 32 bytes: the magic number 0x43475246, the format version,
+ *   the node count n, the edge count m, the number of name slots s, four
+ *   bytes of padding, and the length of the string table as a long
+ * - the offset of each node's name within the string table, as n+1 ints
+ * - the String.hashCode() of each node's name, as n ints
+ * - an open addressing table of node ids plus one (0 for an empty slot),
+ *   probed linearly from the spread hash code of a name, as s ints
+ * - the edges leaving each node in CSR form: n+1 offsets, m successors (as
+ *   ints), and m weights (as doubles)
+ * - the edges entering each node in the same form, with m predecessors
+ * - the string table, holding every name in UTF-8, in node order
+ *
+ * All numbers are big-endian. Names are looked up through the table in the
+ * file, and each name is only decoded the first time it is needed. The
+ * adjacency arrays are copied out of the file in bulk, and searched by the
+ * same snapshot engines that DijkstraGraph uses.
+ */
+public class CompiledGraph implements GraphADT<String, Double> {
+
+    // the first four bytes of every compiled graph file
+    public static final int MAGIC = 0x43475246;
+    // the version of the format that this class reads
+    public static final int VERSION = 1;
+    // the number of bytes before the first section
+    protected static final int HEADER_BYTES = 32;
+
+    protected final ByteBuffer buffer;
+    protected final int nodeCount;
+    protected final int edgeCount;
+    // one less than the number of name slots, to mask hash codes with
+    protected final int slotMask;
+    // the position of each section within the buffer
+    protected final int nameOffsetsAt;
+    protected final int nameHashesAt;
+    protected final int nameSlotsAt;
+    protected final int stringsAt;
+    // the names decoded so far, by node index
+    private final String[] names;
+    protected final Snapshot snapshot;
+
+    /**
+     * This Snapshot class is the CSR form of a compiled graph, which looks up
+     * names in the compiled file rather than in its own table.
+     */
+    protected class Snapshot extends CSRGraph<String> {
+        protected Snapshot(int[] outOffsets, int[] outTargets, double[] outWeights,
+                int[] inOffsets, int[] inSources, double[] inWeights) {
+            super(outOffsets, outTargets, outWeights, inOffsets, inSources, inWeights);
+        }
+
+        @Override
+        public boolean containsNode(String data) {
+            return findName(data) != -1;
+        }
+
+        @Override
+        public int indexOf(String data) {
+            int index = findName(data);
+            if (index == -1)
+                throw new NoSuchElementException("Node not in graph: " + data);
+            return index;
+        }
+
+        @Override
+        public String nodeAt(int index) {
+            return nameAt(index);
+        }
+    }
+
+    /**
+     * Memory-maps a compiled graph file.
+     *
+     * @param filename the path to the file written by GraphCompiler
+     * @return a graph backed by that file
+     * @throws IOException if the file does not exist, is empty, is not a
+     *                     compiled graph of this version, or cannot be read
+     */
+    public static CompiledGraph load(String filename) throws IOException {
+        Path path = Paths.get(filename);
+        if (!Files.exists(path))
+            throw new IOException("The file does not exist.");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0)
+                throw new IOException("The file is empty.");
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE)
+                throw new IOException("The format of the file is invalid.");
+            // the mapping stays valid once the channel is closed
+            return new CompiledGraph(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    /**
+     * Creates a graph backed by the bytes of a compiled graph file.
+     *
+     * @param buffer the whole file, starting at position 0
+     * @throws IOException if the bytes are not a compiled graph of this version
+     */
+    public CompiledGraph(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC)
+            throw new IOException("The format of the file is invalid.");
+        if (buffer.getInt(4) != VERSION)
+            throw new IOException("The compiled graph is version " + buffer.getInt(4)
+                    + ", but only version " + VERSION + " can be read.");
+        int n = buffer.getInt(8);
+        int m = buffer.getInt(12);
+        int slots = buffer.getInt(16);
+        long stringBytes = buffer.getLong(24);
+        if (n < 0 || m < 0 || slots < 2 * n || Integer.bitCount(slots) != 1 || stringBytes < 0)
+            throw new IOException("The format of the file is invalid.");
+        long expected = HEADER_BYTES + 4L * (n + 1) + 4L * n + 4L * slots
+                + 2 * (4L * (n + 1) + 4L * m + 8L * m) + stringBytes;
+        if (expected != buffer.capacity())
+            throw new IOException("The format of the file is invalid.");
+
+        this.nodeCount = n;
+        this.edgeCount = m;
+        this.slotMask = slots - 1;
+        this.nameOffsetsAt = HEADER_BYTES;
+        this.nameHashesAt = nameOffsetsAt + 4 * (n + 1);
+        this.nameSlotsAt = nameHashesAt + 4 * n;
+        int at = nameSlotsAt + 4 * slots;
+        int[] outOffsets = readInts(at, n + 1);
+        int[] outTargets = readInts(at += 4 * (n + 1), m);
+        double[] outWeights = readDoubles(at += 4 * m, m);
+        int[] inOffsets = readInts(at += 8 * m, n + 1);
+        int[] inSources = readInts(at += 4 * (n + 1), m);
+        double[] inWeights = readDoubles(at += 4 * m, m);
+        this.stringsAt = at + 8 * m;
+        this.names = new String[n];
+        this.snapshot = new Snapshot(outOffsets, outTargets, outWeights, inOffsets, inSources, inWeights);
+    }
+
+    // copies count ints out of the buffer in bulk, starting at position at
+    private int[] readInts(int at, int count) {
+        int[] values = new int[count];
+        buffer.duplicate().position(at).slice().asIntBuffer().get(values);
+        return values;
+    }
+
+    // copies count doubles out of the buffer in bulk, starting at position at
+    private double[] readDoubles(int at, int count) {
+        double[] values = new double[count];
+        buffer.duplicate().position(at).slice().asDoubleBuffer().get(values);
+        return values;
+    }
+
+    // mixes the bits of a hash code, so that masking keeps the high bits too
+    protected static int spread(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Finds the number of name slots for a graph, which is the smallest power
+     * of two that is at least twice the number of nodes.
+     *
+     * @param nodeCount the number of nodes in the graph
+     * @return the number of name slots
+     */
+    protected static int slotsFor(int nodeCount) {
+        int slots = 2;
+        while (slots < 2 * nodeCount)
+            slots <<= 1;
+        return slots;
+    }
+
+    /**
+     * Returns the name of the node with an index, decoding it from the file
+     * the first time it is needed.
+     *
+     * @param index the index of the node, from 0 to getNodeCount()-1
+     * @return the node's name
+     */
+    public String nameAt(int index) {
+        // decoded names never change, so threads that race to decode the
+        // same one store equal Strings
+        String name = names[index];
+        if (name == null) {
+            int from = buffer.getInt(nameOffsetsAt + 4 * index);
+            int to = buffer.getInt(nameOffsetsAt + 4 * (index + 1));
+            byte[] bytes = new byte[to - from];
+            buffer.get(stringsAt + from, bytes);
+            name = new String(bytes, StandardCharsets.UTF_8);
+            names[index] = name;
+        }
+        return name;
+    }
+
+    // finds the index of the node with a name, or returns -1
+    protected int findName(String name) {
+        if (name == null)
+            return -1;
+        int hash = name.hashCode();
+        int slot = spread(hash) & slotMask;
+        while (true) {
+            int index = buffer.getInt(nameSlotsAt + 4 * slot) - 1;
+            if (index == -1)
+                return -1;
+            if (buffer.getInt(nameHashesAt + 4 * index) == hash && nameAt(index).equals(name))
+                return index;
+            slot = (slot + 1) & slotMask;
+        }
+    }
+
+    // finds the index of a node that must exist
+    private int indexOf(String name, String role) {
+        int index = findName(name);
+        if (index == -1)
+            throw new NoSuchElementException(role + " node not in graph");
+        return index;
+    }
+
+    /**
+     * Returns the snapshot that queries on this graph search, which shares
+     * its node indices.
+     *
+     * @return the CSR form of this graph
+     */
+    public CSRGraph<String> getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * A compiled graph cannot be changed.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean insertNode(String data) {
+        throw new UnsupportedOperationException("A compiled graph cannot be changed.");
+    }
+
+    /**
+     * A compiled graph cannot be changed.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean removeNode(String data) {
+        throw new UnsupportedOperationException("A compiled graph cannot be changed.");
+    }
+
+    /**
+     * A compiled graph cannot be changed.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean insertEdge(String pred, String succ, Double weight) {
+        throw new UnsupportedOperationException("A compiled graph cannot be changed.");
+    }
+
+    /**
+     * A compiled graph cannot be changed.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean removeEdge(String pred, String succ) {
+        throw new UnsupportedOperationException("A compiled graph cannot be changed.");
+    }
+
+    /**
+     * Check if the graph contains a node with the provided name.
+     *
+     * @param data the node name to check for
+     * @return true if a node has this name, or false otherwise
+     */
+    @Override
+    public boolean containsNode(String data) {
+        return findName(data) != -1;
+    }
+
+    /**
+     * Return the names of every node, in the order of the compiled file.
+     *
+     * @return a new list of the names
+     */
+    @Override
+    public List<String> getAllNodes() {
+        List<String> all = new ArrayList<>(nodeCount);
+        for (int i = 0; i < nodeCount; i++)
+            all.add(nameAt(i));
+        return all;
+    }
+
+    /**
+     * Return the number of nodes in the graph.
+     *
+     * @return the number of nodes in the graph
+     */
+    @Override
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Check if the graph contains an edge from the node named pred to the node
+     * named succ.
+     *
+     * @param pred the name of the edge's predecessor
+     * @param succ the name of the edge's successor
+     * @return true if such an edge exists, or false otherwise
+     */
+    @Override
+    public boolean containsEdge(String pred, String succ) {
+        int u = findName(pred);
+        int v = findName(succ);
+        return u != -1 && v != -1 && snapshot.edgeWeight(u, v) != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Return the weight of the edge from the node named pred to the node named
+     * succ.
+     *
+     * @param pred the name of the edge's predecessor
+     * @param succ the name of the edge's successor
+     * @return the weight of the edge
+     * @throws NoSuchElementException if either node or the edge does not exist
+     */
+    @Override
+    public Double getEdge(String pred, String succ) {
+        double weight = snapshot.edgeWeight(indexOf(pred, "Predecessor"), indexOf(succ, "Successor"));
+        if (weight == Double.POSITIVE_INFINITY)
+            throw new NoSuchElementException("No edge from " + pred + " to " + succ);
+        return weight;
+    }
+
+    /**
+     * Return the number of edges in the graph.
+     *
+     * @return the number of edges in the graph
+     */
+    @Override
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Returns the names of the nodes along the shortest path from the node
+     * named start to the node named end.
+     *
+     * @param start the name of the node that the path starts at
+     * @param end   the name of the node that the path ends at
+     * @return the names along the path, from start to end
+     * @throws NoSuchElementException if either node does not exist, or there
+     *                                is no path between them
+     */
+    @Override
+    public List<String> shortestPathData(String start, String end) {
+        return shortestRoute(start, end).getNodes();
+    }
+
+    /**
+     * Returns the cost of the shortest path from the node named start to the
+     * node named end.
+     *
+     * @param start the name of the node that the path starts at
+     * @param end   the name of the node that the path ends at
+     * @return the cost of the path
+     * @throws NoSuchElementException if either node does not exist, or there
+     *                                is no path between them
+     */
+    @Override
+    public double shortestPathCost(String start, String end) {
+        return shortestRoute(start, end).getTotalCost();
+    }
+
+    /**
+     * Returns the shortest route from the node named start to the node named
+     * end, with the weight of each leg along it.
+     *
+     * @param start the name of the node that the route starts at
+     * @param end   the name of the node that the route ends at
+     * @return the shortest route
+     * @throws NoSuchElementException if either node does not exist, or there
+     *                                is no path between them
+     */
+    @Override
+    public Route<String> shortestRoute(String start, String end) {
+        int[] path = new CSRDijkstra(snapshot).shortestPath(indexOf(start, "Start"), indexOf(end, "End"));
+        if (path == null)
+            throw new NoSuchElementException("No path from " + start + " to " + end);
+        return buildRoute(path);
+    }
+
+    /**
+     * Returns up to k different routes from the node named start to the node
+     * named end, from the shortest to the most costly, using Yen's k shortest
+     * paths algorithm. No route visits any node more than once.
+     *
+     * @param start the name of the node that the routes start at
+     * @param end   the name of the node that the routes end at
+     * @param k     the most routes to return
+     * @return a list of up to k routes
+     * @throws IllegalArgumentException if k is less than 1
+     * @throws NoSuchElementException   if either node does not exist, or there
+     *                                  is no path between them
+     */
+    @Override
+    public List<Route<String>> kShortestRoutes(String start, String end, int k) {
+        if (k < 1)
+            throw new IllegalArgumentException("At least one route must be requested: " + k);
+        List<int[]> paths = new YenKShortestPaths(snapshot, indexOf(start, "Start"), indexOf(end, "End"))
+                .findPaths(k);
+        if (paths.isEmpty())
+            throw new NoSuchElementException("No path from " + start + " to " + end);
+        List<Route<String>> routes = new ArrayList<>(paths.size());
+        for (int[] path : paths)
+            routes.add(buildRoute(path));
+        return routes;
+    }
+
+    // collects the names and leg weights along a path of node indices
+    private Route<String> buildRoute(int[] path) {
+        List<String> nodes = new ArrayList<>(path.length);
+        double[] legs = new double[path.length - 1];
+        double cost = 0.0;
+        for (int i = 0; i < path.length; i++) {
+            nodes.add(nameAt(path[i]));
+            if (i > 0) {
+                legs[i - 1] = snapshot.edgeWeight(path[i - 1], path[i]);
+                cost += legs[i - 1];
+            }
+        }
+        return new Route<>(nodes, legs, cost);
+    }
+
+    /**
+     * Computes the shortest path tree from the node named start, which holds
+     * the cost of the shortest path to every node that can be reached.
+     *
+     * @param start the name of the node that every path starts at
+     * @return the shortest path tree rooted at start
+     * @throws NoSuchElementException if start does not exist
+     */
+    @Override
+    public ShortestPathTree<String> shortestPathTree(String start) {
+        return shortestPathTree(start, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Computes the shortest path tree from the node named start, limited to
+     * the nodes whose shortest path costs at most maxCost.
+     *
+     * @param start   the name of the node that every path starts at
+     * @param maxCost the most that a path in the tree may cost
+     * @return the shortest path tree rooted at start, limited to maxCost
+     * @throws IllegalArgumentException if maxCost is negative or not a number
+     * @throws NoSuchElementException   if start does not exist
+     */
+    @Override
+    public ShortestPathTree<String> shortestPathTree(String start, double maxCost) {
+        if (!(maxCost >= 0.0))
+            throw new IllegalArgumentException("Invalid maximum path cost: " + maxCost);
+        int source = indexOf(start, "Start");
+        double[] dist = new double[nodeCount];
+        int[] parent = new int[nodeCount];
+        int[] order = new int[nodeCount];
+        int settled = CSRDijkstra.search(snapshot, source, -1, false, maxCost, dist, parent, order);
+
+        List<String> treeNodes = new ArrayList<>(settled);
+        double[] costs = new double[settled];
+        int[] parents = new int[settled];
+        IntIntHashMap positions = new IntIntHashMap(settled);
+        for (int i = 0; i < settled; i++) {
+            int index = order[i];
+            positions.put(index, i);
+            treeNodes.add(nameAt(index));
+            costs[i] = dist[index];
+            parents[i] = parent[index] == -1 ? -1 : positions.get(parent[index]);
+        }
+        return new ShortestPathTree<>(treeNodes, costs, parents);
+    }
+
+}
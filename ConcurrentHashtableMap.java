@@ -0,0 +1,385 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This ConcurrentHashtableMap class is a MapADT that many threads can use at
+ * once. Keys are chained in bins, and every chain is built from immutable
+ * entries, so a chain never changes once a reader can see it: writers put a
+ * new entry at the head of its chain, and remove an entry by copying the part
+ * of the chain in front of it. The bins live in a table that is read through
+ * a volatile field, so readers never take a lock, and always see either the
+ * whole effect of a write or none of it.
+ *
+ * Writers lock one of a fixed set of stripes, chosen by the low bits of the
+ * key's hash code. The table always has at least as many bins as there are
+ * stripes, so each bin belongs to exactly one stripe, and writers to
+ * different stripes never wait on each other.
+ *
+ * Growing the table moves the entries over one stripe at a time. The thread
+ * that starts the move links the old table to a new, larger one, and then
+ * takes each stripe in turn, copies the stripe's chains into the new table,
+ * and marks its old bins as forwarded. A writer that finds a move under way
+ * moves its own stripe first, if it has not been moved yet, and then writes
+ * to the new table, so writers only ever wait for their own stripe to be
+ * moved. A reader that finds a forwarded bin looks for its key in the new
+ * table instead. Once every stripe has been moved, the new table replaces the
+ * old one.
+ *
+ * The capacity reported by getCapacity() has the same meaning as for
+ * HashtableMap: it starts at 64 by default, and doubles once the map is 80%
+ * full.
+ */
+public class ConcurrentHashtableMap<KeyType, ValueType> implements MapADT<KeyType, ValueType> {
+
+    // the size, as a fraction of the capacity, at which the map grows
+    protected static final double MAX_LOAD_FACTOR = 0.8;
+
+    // one key-value pair within a chain, which never changes once created
+    private static class Entry {
+        private final Object key;
+        private final Object value;
+        private final int hash;
+        private final Entry next;
+
+        private Entry(Object key, Object value, int hash, Entry next) {
+            this.key = key;
+            this.value = value;
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+
+    // marks a bin whose entries have been moved to the next table
+    private static final Entry FORWARDED = new Entry(null, null, 0, null);
+
+    // the bins of one version of the table, along with its capacity
+    private static class Table {
+        private final AtomicReferenceArray<Entry> bins;
+        private final int capacity;
+        private final int mask;
+        // the larger table that this one's entries are being moved to, or
+        // null when no move has started
+        private final AtomicReference<Table> next = new AtomicReference<>();
+
+        private Table(int binCount, int capacity) {
+            this.bins = new AtomicReferenceArray<>(binCount);
+            this.capacity = capacity;
+            this.mask = binCount - 1;
+        }
+    }
+
+    private volatile Table table;
+    private final ReentrantLock[] stripes;
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Creates an empty map with a capacity of 64, and four stripes for every
+     * thread that the machine can run at once.
+     */
+    public ConcurrentHashtableMap() {
+        this(64);
+    }
+
+    /**
+     * Creates an empty map with the provided capacity, and four stripes for
+     * every thread that the machine can run at once.
+     *
+     * @param capacity the number of keys the map can hold before it grows
+     */
+    public ConcurrentHashtableMap(int capacity) {
+        this(capacity, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates an empty map with the provided capacity and number of stripes.
+     *
+     * @param capacity    the number of keys the map can hold before it grows
+     * @param stripeCount the most writers that can change the map at once,
+     *                    which is rounded up to a power of two
+     * @throws IllegalArgumentException if capacity is negative or stripeCount
+     *                                  is less than 1
+     */
+    public ConcurrentHashtableMap(int capacity, int stripeCount) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("Capacity cannot be negative: " + capacity);
+        if (stripeCount < 1)
+            throw new IllegalArgumentException("There must be at least one stripe: " + stripeCount);
+        int stripesRounded = Integer.highestOneBit(stripeCount);
+        if (stripesRounded < stripeCount)
+            stripesRounded <<= 1;
+        this.stripes = new ReentrantLock[stripesRounded];
+        for (int i = 0; i < stripesRounded; i++)
+            stripes[i] = new ReentrantLock();
+        this.table = new Table(binsFor(capacity), capacity);
+    }
+
+    // finds a power of two number of bins for a capacity, which is never
+    // fewer than the number of stripes
+    private int binsFor(int capacity) {
+        int bins = stripes.length;
+        while (bins < capacity)
+            bins <<= 1;
+        return bins;
+    }
+
+    // mixes the bits of a hash code, so that masking keeps the high bits too
+    private static int spread(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    // finds the entry holding key in the current table, or null when absent
+    private Entry find(Object key, int hash) {
+        Table current = table;
+        Entry head = current.bins.get(hash & current.mask);
+        // a forwarded bin's entries were all copied before it was marked
+        while (head == FORWARDED) {
+            current = current.next.get();
+            head = current.bins.get(hash & current.mask);
+        }
+        for (Entry e = head; e != null; e = e.next)
+            if (e.hash == hash && e.key.equals(key))
+                return e;
+        return null;
+    }
+
+    // returns the table that a writer holding a stripe should change, after
+    // moving that stripe into every larger table that a move has started
+    private Table tableFor(int stripe) {
+        Table current = table;
+        for (Table next = current.next.get(); next != null; next = current.next.get()) {
+            moveStripe(current, next, stripe);
+            current = next;
+        }
+        return current;
+    }
+
+    // copies the chains of one stripe into the next table and forwards their
+    // bins, unless that has been done already; the stripe must be held
+    private void moveStripe(Table old, Table next, int stripe) {
+        // the stripe's bins are moved together, so its first bin tells
+        if (old.bins.get(stripe) == FORWARDED)
+            return;
+        // entries cannot change, so each one is copied into the new chains,
+        // which all belong to the same stripe since the tables only grow
+        for (int i = stripe; i < old.bins.length(); i += stripes.length) {
+            for (Entry e = old.bins.get(i); e != null; e = e.next) {
+                int bin = e.hash & next.mask;
+                next.bins.set(bin, new Entry(e.key, e.value, e.hash, next.bins.get(bin)));
+            }
+        }
+        for (int i = stripe; i < old.bins.length(); i += stripes.length)
+            old.bins.set(i, FORWARDED);
+    }
+
+    /**
+     * Adds a new key,value pair/mapping to this collection. It is ok that the
+     * value is null.
+     *
+     * @param key   the key of the key,value pair
+     * @param value the value that key maps to
+     * @throws IllegalArgumentException if key already maps to a value
+     * @throws NullPointerException     if key is null
+     */
+    @Override
+    public void put(KeyType key, ValueType value) throws IllegalArgumentException, NullPointerException {
+        if (key == null)
+            throw new NullPointerException("Key cannot be null.");
+        int hash = spread(key.hashCode());
+        ReentrantLock stripe = stripes[hash & (stripes.length - 1)];
+        int newSize;
+        Table current;
+        stripe.lock();
+        try {
+            current = tableFor(hash & (stripes.length - 1));
+            int bin = hash & current.mask;
+            Entry head = current.bins.get(bin);
+            for (Entry e = head; e != null; e = e.next)
+                if (e.hash == hash && e.key.equals(key))
+                    throw new IllegalArgumentException("Duplicate key.");
+            current.bins.set(bin, new Entry(key, value, hash, head));
+            newSize = size.incrementAndGet();
+        } finally {
+            stripe.unlock();
+        }
+        if ((double) newSize / current.capacity >= MAX_LOAD_FACTOR)
+            resize(current);
+    }
+
+    // doubles the capacity of the table, unless another thread already has,
+    // or is still moving entries into it; that thread checks the size again
+    // once its move is done
+    private void resize(Table old) {
+        while (old == table && (double) size.get() / old.capacity >= MAX_LOAD_FACTOR) {
+            int capacity = Math.max(1, old.capacity * 2);
+            Table grown = new Table(binsFor(capacity), capacity);
+            if (!old.next.compareAndSet(null, grown))
+                return;
+            // only one stripe at a time waits for its entries to be moved
+            for (int stripe = 0; stripe < stripes.length; stripe++) {
+                stripes[stripe].lock();
+                try {
+                    moveStripe(old, grown, stripe);
+                } finally {
+                    stripes[stripe].unlock();
+                }
+            }
+            // clear() may have replaced the table while the entries moved
+            for (ReentrantLock stripe : stripes)
+                stripe.lock();
+            try {
+                if (table != old)
+                    return;
+                table = grown;
+            } finally {
+                for (ReentrantLock stripe : stripes)
+                    stripe.unlock();
+            }
+            old = grown;
+        }
+    }
+
+    /**
+     * Checks whether a key maps to a value in this collection.
+     *
+     * @param key the key to check
+     * @return true if the key maps to a value, and false is the key doesn't
+     *         map to a value
+     */
+    @Override
+    public boolean containsKey(KeyType key) {
+        return find(key, spread(key.hashCode())) != null;
+    }
+
+    /**
+     * Retrieves the specific value that a key maps to.
+     *
+     * @param key the key to look up
+     * @return the value that key maps to
+     * @throws NoSuchElementException when key is not stored in this
+     *                                collection
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public ValueType get(KeyType key) throws NoSuchElementException {
+        Entry entry = find(key, spread(key.hashCode()));
+        if (entry == null)
+            throw new NoSuchElementException("Key not found: " + key);
+        return (ValueType) entry.value;
+    }
+
+    /**
+     * Remove the mapping for a key from this collection.
+     *
+     * @param key the key whose mapping to remove
+     * @return the value that the removed key mapped to
+     * @throws NoSuchElementException when key is not stored in this
+     *                                collection
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public ValueType remove(KeyType key) throws NoSuchElementException {
+        int hash = spread(key.hashCode());
+        ReentrantLock stripe = stripes[hash & (stripes.length - 1)];
+        stripe.lock();
+        try {
+            Table current = tableFor(hash & (stripes.length - 1));
+            int bin = hash & current.mask;
+            Entry head = current.bins.get(bin);
+            Entry removed = null;
+            for (Entry e = head; e != null; e = e.next) {
+                if (e.hash == hash && e.key.equals(key)) {
+                    removed = e;
+                    break;
+                }
+            }
+            if (removed == null)
+                throw new NoSuchElementException("Key not found: " + key);
+            // copy the entries in front of the removed one onto its successor
+            Entry rest = removed.next;
+            for (Entry e = head; e != removed; e = e.next)
+                rest = new Entry(e.key, e.value, e.hash, rest);
+            current.bins.set(bin, rest);
+            size.decrementAndGet();
+            return (ValueType) removed.value;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Removes all key,value pairs from this collection.
+     */
+    @Override
+    public void clear() {
+        for (ReentrantLock stripe : stripes)
+            stripe.lock();
+        try {
+            Table current = table;
+            table = new Table(current.bins.length(), current.capacity);
+            size.set(0);
+        } finally {
+            for (ReentrantLock stripe : stripes)
+                stripe.unlock();
+        }
+    }
+
+    /**
+     * Retrieves the number of keys stored in this collection.
+     *
+     * @return the number of keys stored in this collection
+     */
+    @Override
+    public int getSize() {
+        return size.get();
+    }
+
+    /**
+     * Retrieves this collection's capacity.
+     *
+     * @return the capacity of this collection, which doubles once the
+     *         collection is 80% full
+     */
+    @Override
+    public int getCapacity() {
+        return table.capacity;
+    }
+
+    /**
+     * Retrieves this collection's keys, without blocking writers. The list
+     * holds every key that was stored for the whole time it was being built,
+     * and may or may not hold keys that were put or removed meanwhile.
+     *
+     * @return a new list of keys, in no particular order
+     */
+    @Override
+    public List<KeyType> getKeys() {
+        Table current = table;
+        List<KeyType> keys = new ArrayList<>();
+        for (int i = 0; i < current.bins.length(); i++)
+            addKeys(current, i, keys);
+        return keys;
+    }
+
+    // adds the keys of one bin to a list, following it into the next table
+    // when it has been forwarded
+    @SuppressWarnings("unchecked")
+    private void addKeys(Table current, int bin, List<KeyType> keys) {
+        Entry head = current.bins.get(bin);
+        if (head == FORWARDED) {
+            // the bin's keys are in every bin of the next table that it masks to
+            Table next = current.next.get();
+            for (int i = bin; i < next.bins.length(); i += current.bins.length())
+                addKeys(next, i, keys);
+            return;
+        }
+        for (Entry e = head; e != null; e = e.next)
+            keys.add((KeyType) e.key);
+    }
+
+}
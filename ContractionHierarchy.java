@@ -0,0 +1,648 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This ShortestPathEngine answers queries with a contraction hierarchy. While
+ * preprocessing, nodes are contracted one at a time, from least to most
+ * important: contracting node v removes it from the remaining graph, after
+ * adding a shortcut edge u->w for every pair of neighbors whose only shortest
+ * path runs u->v->w. A witness search (a small Dijkstra search that avoids v)
+ * checks whether some other path is at least as short, in which case no
+ * shortcut is needed. The position of each node in this order is its rank.
+ *
+ * Every shortest path can then be found by a bidirectional search that only
+ * ever moves to higher ranked nodes: forward from the source along edges to
+ * higher ranks, and backward from the target along edges from higher ranks.
+ * Both searches stay near the top of the hierarchy, so they settle very few
+ * nodes. Each shortcut remembers the two edges that it replaces, so the path
+ * found is unpacked recursively into the snapshot's original edges.
+ *
+ * Nodes are ordered by their edge difference (the number of shortcuts their
+ * contraction would add minus the number of edges it would remove) plus the
+ * number of their neighbors that have already been contracted. The initial
+ * edge differences, which need a witness search from every neighbor of every
+ * node, are computed in parallel on a ForkJoinPool. A finished hierarchy can
+ * be saved to a file, and loaded again later for the same snapshot.
+ */
+public class ContractionHierarchy implements ShortestPathEngine {
+
+    // the most nodes that a single witness search settles before giving up
+    public static final int DEFAULT_WITNESS_SETTLE_LIMIT = 500;
+
+    // identifies files written by save()
+    private static final int FILE_MAGIC = 0x43484731;
+
+    // the number of nodes that each fork join task handles without splitting
+    private static final int NODES_PER_TASK = 256;
+
+    protected final CSRGraph<?> graph;
+    protected final int n;
+    // rank[v] is the position of node v in the contraction order
+    protected final int[] rank;
+
+    // every edge of the hierarchy: the snapshot's edges followed by shortcuts
+    protected int edgeCount = 0;
+    protected int[] edgeFrom;
+    protected int[] edgeTo;
+    protected double[] edgeWeight;
+    // the two edges that a shortcut replaces, or -1 for an original edge
+    protected int[] edgeFirst;
+    protected int[] edgeSecond;
+
+    // edges from each node to higher ranked nodes, by edge id
+    protected int[] upOffsets;
+    protected int[] upEdges;
+    // edges into each node from higher ranked nodes, by edge id
+    protected int[] downOffsets;
+    protected int[] downEdges;
+
+    /**
+     * Builds a hierarchy for a snapshot, using the common ForkJoinPool.
+     *
+     * @param graph the snapshot to preprocess
+     */
+    public ContractionHierarchy(CSRGraph<?> graph) {
+        this(graph, ForkJoinPool.commonPool(), DEFAULT_WITNESS_SETTLE_LIMIT);
+    }
+
+    /**
+     * Builds a hierarchy for a snapshot.
+     *
+     * @param graph         the snapshot to preprocess
+     * @param pool          the pool to compute the initial node order on
+     * @param witnessLimit  the most nodes a witness search may settle; lower
+     *                      limits preprocess faster but add more shortcuts
+     */
+    public ContractionHierarchy(CSRGraph<?> graph, ForkJoinPool pool, int witnessLimit) {
+        this.graph = graph;
+        this.n = graph.getNodeCount();
+        this.rank = new int[n];
+        int capacity = Math.max(16, graph.getEdgeCount() * 2);
+        this.edgeFrom = new int[capacity];
+        this.edgeTo = new int[capacity];
+        this.edgeWeight = new double[capacity];
+        this.edgeFirst = new int[capacity];
+        this.edgeSecond = new int[capacity];
+        new Contractor(witnessLimit).contract(pool);
+        buildSearchGraphs();
+    }
+
+    // creates a hierarchy from the ranks and edges read by load()
+    private ContractionHierarchy(CSRGraph<?> graph, int[] rank, int edgeCount, int[] edgeFrom,
+            int[] edgeTo, double[] edgeWeight, int[] edgeFirst, int[] edgeSecond) {
+        this.graph = graph;
+        this.n = graph.getNodeCount();
+        this.rank = rank;
+        this.edgeCount = edgeCount;
+        this.edgeFrom = edgeFrom;
+        this.edgeTo = edgeTo;
+        this.edgeWeight = edgeWeight;
+        this.edgeFirst = edgeFirst;
+        this.edgeSecond = edgeSecond;
+        buildSearchGraphs();
+    }
+
+    /**
+     * Returns the number of shortcut edges that preprocessing added.
+     *
+     * @return the number of shortcuts in this hierarchy
+     */
+    public int getShortcutCount() {
+        int shortcuts = 0;
+        for (int e = 0; e < edgeCount; e++)
+            if (edgeFirst[e] != -1)
+                shortcuts++;
+        return shortcuts;
+    }
+
+    /**
+     * Returns the rank of a node: its position in the contraction order.
+     *
+     * @param node the index of the node
+     * @return the rank of that node, from 0 (contracted first) to n-1
+     */
+    public int getRank(int node) {
+        return rank[node];
+    }
+
+    /**
+     * This Contractor holds the state that is only needed while contracting
+     * nodes: the edges into and out of each node (including shortcuts), which
+     * nodes have been contracted, and how many of each node's neighbors have.
+     */
+    private class Contractor {
+        private final int witnessLimit;
+        private final int[][] outEdges = new int[n][];
+        private final int[] outCount = new int[n];
+        private final int[][] inEdges = new int[n][];
+        private final int[] inCount = new int[n];
+        private final boolean[] contracted = new boolean[n];
+        private final int[] contractedNeighbors = new int[n];
+        private final double[] priority = new double[n];
+        // each thread reuses one witness search while computing priorities
+        private final ThreadLocal<WitnessSearch> witnessSearches =
+                ThreadLocal.withInitial(() -> new WitnessSearch());
+
+        public Contractor(int witnessLimit) {
+            this.witnessLimit = witnessLimit;
+            for (int v = 0; v < n; v++) {
+                outEdges[v] = new int[4];
+                inEdges[v] = new int[4];
+            }
+            // start with every edge of the snapshot, other than self loops
+            for (int u = 0; u < n; u++)
+                for (int e = graph.outOffsets[u]; e < graph.outOffsets[u + 1]; e++)
+                    if (graph.outTargets[e] != u)
+                        addOrLowerEdge(u, graph.outTargets[e], graph.outWeights[e], -1, -1);
+        }
+
+        // contracts every node, from the lowest to the highest priority
+        public void contract(ForkJoinPool pool) {
+            pool.invoke(new PriorityRange(0, n));
+            IndexedDaryHeap queue = new IndexedDaryHeap(n);
+            for (int v = 0; v < n; v++)
+                queue.insertOrDecrease(v, priority[v]);
+
+            WitnessSearch witness = witnessSearches.get();
+            ShortcutList shortcuts = new ShortcutList();
+            int nextRank = 0;
+            while (!queue.isEmpty()) {
+                int v = queue.poll();
+                // priorities go stale as neighbors are contracted, so the
+                // popped node is checked again before it is contracted
+                shortcuts.clear();
+                findShortcuts(v, witness, shortcuts);
+                double current = shortcuts.size - degree(v) + contractedNeighbors[v];
+                if (!queue.isEmpty() && current > queue.getKey(queue.peek())) {
+                    queue.insertOrDecrease(v, current);
+                    continue;
+                }
+
+                for (int i = 0; i < shortcuts.size; i++) {
+                    int first = shortcuts.first[i];
+                    int second = shortcuts.second[i];
+                    addOrLowerEdge(edgeFrom[first], edgeTo[second],
+                            edgeWeight[first] + edgeWeight[second], first, second);
+                }
+                contracted[v] = true;
+                rank[v] = nextRank++;
+                for (int i = 0; i < outCount[v]; i++)
+                    contractedNeighbors[edgeTo[outEdges[v][i]]]++;
+                for (int i = 0; i < inCount[v]; i++)
+                    contractedNeighbors[edgeFrom[inEdges[v][i]]]++;
+            }
+        }
+
+        // computes the initial priority of a range of nodes, splitting the
+        // range in half until it is small enough to handle sequentially
+        private class PriorityRange extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+            private final int from;
+            private final int to;
+
+            public PriorityRange(int from, int to) {
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from > NODES_PER_TASK) {
+                    int mid = (from + to) >>> 1;
+                    invokeAll(new PriorityRange(from, mid), new PriorityRange(mid, to));
+                    return;
+                }
+                WitnessSearch witness = witnessSearches.get();
+                ShortcutList shortcuts = new ShortcutList();
+                for (int v = from; v < to; v++) {
+                    shortcuts.clear();
+                    findShortcuts(v, witness, shortcuts);
+                    priority[v] = shortcuts.size - degree(v);
+                }
+            }
+        }
+
+        // counts the edges between v and nodes that are not yet contracted
+        private int degree(int v) {
+            int degree = 0;
+            for (int i = 0; i < outCount[v]; i++)
+                if (!contracted[edgeTo[outEdges[v][i]]])
+                    degree++;
+            for (int i = 0; i < inCount[v]; i++)
+                if (!contracted[edgeFrom[inEdges[v][i]]])
+                    degree++;
+            return degree;
+        }
+
+        // lists the pairs of edges u->v->w that would need a shortcut if v
+        // were contracted now
+        private void findShortcuts(int v, WitnessSearch witness, ShortcutList shortcuts) {
+            for (int i = 0; i < inCount[v]; i++) {
+                int first = inEdges[v][i];
+                int u = edgeFrom[first];
+                if (contracted[u])
+                    continue;
+                // the witness search never needs to look past the most costly
+                // path through v
+                double limit = -1.0;
+                for (int j = 0; j < outCount[v]; j++) {
+                    int w = edgeTo[outEdges[v][j]];
+                    if (!contracted[w] && w != u)
+                        limit = Math.max(limit, edgeWeight[first] + edgeWeight[outEdges[v][j]]);
+                }
+                if (limit < 0.0)
+                    continue;
+
+                witness.run(u, v, limit);
+                for (int j = 0; j < outCount[v]; j++) {
+                    int second = outEdges[v][j];
+                    int w = edgeTo[second];
+                    if (!contracted[w] && w != u
+                            && witness.costTo(w) > edgeWeight[first] + edgeWeight[second])
+                        shortcuts.add(first, second);
+                }
+            }
+        }
+
+        // adds an edge from u to w, or lowers the weight of the existing one
+        private void addOrLowerEdge(int u, int w, double weight, int first, int second) {
+            for (int i = 0; i < outCount[u]; i++) {
+                int e = outEdges[u][i];
+                if (edgeTo[e] == w) {
+                    if (weight < edgeWeight[e]) {
+                        edgeWeight[e] = weight;
+                        edgeFirst[e] = first;
+                        edgeSecond[e] = second;
+                    }
+                    return;
+                }
+            }
+            if (edgeCount == edgeFrom.length) {
+                int capacity = edgeCount * 2;
+                edgeFrom = Arrays.copyOf(edgeFrom, capacity);
+                edgeTo = Arrays.copyOf(edgeTo, capacity);
+                edgeWeight = Arrays.copyOf(edgeWeight, capacity);
+                edgeFirst = Arrays.copyOf(edgeFirst, capacity);
+                edgeSecond = Arrays.copyOf(edgeSecond, capacity);
+            }
+            int e = edgeCount++;
+            edgeFrom[e] = u;
+            edgeTo[e] = w;
+            edgeWeight[e] = weight;
+            edgeFirst[e] = first;
+            edgeSecond[e] = second;
+            if (outCount[u] == outEdges[u].length)
+                outEdges[u] = Arrays.copyOf(outEdges[u], outCount[u] * 2);
+            outEdges[u][outCount[u]++] = e;
+            if (inCount[w] == inEdges[w].length)
+                inEdges[w] = Arrays.copyOf(inEdges[w], inCount[w] * 2);
+            inEdges[w][inCount[w]++] = e;
+        }
+
+        /**
+         * A WitnessSearch is a Dijkstra search over the nodes that have not
+         * been contracted, which avoids one node and stops early. It only
+         * resets the entries that it touched, so it can be rerun cheaply.
+         */
+        private class WitnessSearch {
+            private final double[] dist = new double[n];
+            private final int[] touched = new int[n];
+            private int touchedCount = 0;
+            private final IndexedDaryHeap heap = new IndexedDaryHeap(n);
+
+            public WitnessSearch() {
+                Arrays.fill(dist, Double.POSITIVE_INFINITY);
+            }
+
+            // finds paths from source that avoid a node, up to a cost limit
+            public void run(int source, int avoid, double limit) {
+                for (int i = 0; i < touchedCount; i++)
+                    dist[touched[i]] = Double.POSITIVE_INFINITY;
+                touchedCount = 0;
+                dist[source] = 0.0;
+                touched[touchedCount++] = source;
+                heap.insertOrDecrease(source, 0.0);
+
+                int settled = 0;
+                while (!heap.isEmpty()) {
+                    int u = heap.poll();
+                    if (dist[u] > limit || ++settled > witnessLimit)
+                        break;
+                    for (int i = 0; i < outCount[u]; i++) {
+                        int e = outEdges[u][i];
+                        int w = edgeTo[e];
+                        if (w == avoid || contracted[w])
+                            continue;
+                        double cost = dist[u] + edgeWeight[e];
+                        if (cost < dist[w]) {
+                            if (dist[w] == Double.POSITIVE_INFINITY)
+                                touched[touchedCount++] = w;
+                            dist[w] = cost;
+                            heap.insertOrDecrease(w, cost);
+                        }
+                    }
+                }
+                heap.clear();
+            }
+
+            // the cost of the best witness path found to a node
+            public double costTo(int node) {
+                return dist[node];
+            }
+        }
+    }
+
+    // a growable list of pairs of edges, that each need a shortcut
+    private static class ShortcutList {
+        private int[] first = new int[8];
+        private int[] second = new int[8];
+        private int size = 0;
+
+        public void add(int firstEdge, int secondEdge) {
+            if (size == first.length) {
+                first = Arrays.copyOf(first, size * 2);
+                second = Arrays.copyOf(second, size * 2);
+            }
+            first[size] = firstEdge;
+            second[size] = secondEdge;
+            size++;
+        }
+
+        public void clear() {
+            size = 0;
+        }
+    }
+
+    // sorts the edge ids into the upward and downward search graphs
+    private void buildSearchGraphs() {
+        upOffsets = new int[n + 1];
+        downOffsets = new int[n + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            if (rank[edgeFrom[e]] < rank[edgeTo[e]])
+                upOffsets[edgeFrom[e] + 1]++;
+            else
+                downOffsets[edgeTo[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            upOffsets[v + 1] += upOffsets[v];
+            downOffsets[v + 1] += downOffsets[v];
+        }
+        upEdges = new int[upOffsets[n]];
+        downEdges = new int[downOffsets[n]];
+        int[] upNext = Arrays.copyOf(upOffsets, n);
+        int[] downNext = Arrays.copyOf(downOffsets, n);
+        for (int e = 0; e < edgeCount; e++) {
+            if (rank[edgeFrom[e]] < rank[edgeTo[e]])
+                upEdges[upNext[edgeFrom[e]]++] = e;
+            else
+                downEdges[downNext[edgeTo[e]]++] = e;
+        }
+    }
+
+    /**
+     * Runs the upward searches from source and target until they can no
+     * longer find a cheaper meeting node. Each search keeps its state in one
+     * of this thread's search workspaces, so that a query only pays for the
+     * few nodes that the upward searches reach. In place of a predecessor,
+     * the forward search records the edge into each node that it reaches,
+     * and the backward search records the edge out of each node towards
+     * target.
+     *
+     * @param source  the index of the starting node
+     * @param target  the index of the destination node
+     * @param forward receives the state of the forward search
+     * @param back    receives the state of the backward search
+     * @return the highest ranked node on the shortest path, or -1 when there
+     *         is no path from source to target
+     */
+    protected int search(int source, int target, SearchWorkspace forward, SearchWorkspace back) {
+        IndexedDaryHeap forwardHeap = forward.getHeap();
+        IndexedDaryHeap backHeap = back.getHeap();
+
+        forward.reach(source, 0.0, -1, 0.0);
+        back.reach(target, 0.0, -1, 0.0);
+        forwardHeap.insertOrDecrease(source, 0.0);
+        backHeap.insertOrDecrease(target, 0.0);
+        double best = source == target ? 0.0 : Double.POSITIVE_INFINITY;
+        int meeting = source == target ? source : -1;
+
+        while (true) {
+            double forwardMin = forwardHeap.isEmpty() ? Double.POSITIVE_INFINITY
+                    : forwardHeap.getKey(forwardHeap.peek());
+            double backMin = backHeap.isEmpty() ? Double.POSITIVE_INFINITY
+                    : backHeap.getKey(backHeap.peek());
+            // each search can stop once it cannot improve on the best path
+            if (forwardMin >= best && backMin >= best)
+                break;
+
+            boolean forwardTurn = forwardMin <= backMin;
+            SearchWorkspace workspace = forwardTurn ? forward : back;
+            SearchWorkspace other = forwardTurn ? back : forward;
+            IndexedDaryHeap heap = workspace.getHeap();
+            int[] offsets = forwardTurn ? upOffsets : downOffsets;
+            int[] edges = forwardTurn ? upEdges : downEdges;
+
+            int u = heap.poll();
+            double base = workspace.getDist(u);
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int e = edges[i];
+                int v = forwardTurn ? edgeTo[e] : edgeFrom[e];
+                double cost = base + edgeWeight[e];
+                if (cost < workspace.getDist(v)) {
+                    workspace.reach(v, cost, e, edgeWeight[e]);
+                    heap.insertOrDecrease(v, cost);
+                    double through = cost + other.getDist(v);
+                    if (through < best) {
+                        best = through;
+                        meeting = v;
+                    }
+                }
+            }
+        }
+        return meeting;
+    }
+
+    /**
+     * Unpacks the path found by search() into the snapshot's original edges.
+     *
+     * @param meeting the meeting node returned by search()
+     * @param forward the state of the forward search, holding edges
+     * @param back    the state of the backward search, holding edges
+     * @return the ids of the original edges along the path, in order
+     */
+    protected int[] unpack(int meeting, SearchWorkspace forward, SearchWorkspace back) {
+        // list the hierarchy edges from source to target, using the stack
+        // array in reverse for the forward half
+        int hops = 0;
+        for (int v = meeting; forward.getParent(v) != -1; v = edgeFrom[forward.getParent(v)])
+            hops++;
+        for (int v = meeting; back.getParent(v) != -1; v = edgeTo[back.getParent(v)])
+            hops++;
+        int[] stack = new int[Math.max(16, hops)];
+        int top = 0;
+        for (int v = meeting; back.getParent(v) != -1; v = edgeTo[back.getParent(v)])
+            top++;
+        // push the backward half last edge first, then the forward half
+        int i = top;
+        for (int v = meeting; back.getParent(v) != -1; v = edgeTo[back.getParent(v)])
+            stack[--i] = back.getParent(v);
+        for (int v = meeting; forward.getParent(v) != -1; v = edgeFrom[forward.getParent(v)])
+            stack[top++] = forward.getParent(v);
+
+        // expand shortcuts until only original edges are left, in order
+        int[] path = new int[Math.max(16, hops)];
+        int length = 0;
+        while (top > 0) {
+            int e = stack[--top];
+            if (edgeFirst[e] == -1) {
+                if (length == path.length)
+                    path = Arrays.copyOf(path, length * 2);
+                path[length++] = e;
+            } else {
+                if (top + 2 > stack.length)
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                stack[top++] = edgeSecond[e];
+                stack[top++] = edgeFirst[e];
+            }
+        }
+        return Arrays.copyOf(path, length);
+    }
+
+    @Override
+    public int[] shortestPath(int source, int target) {
+        SearchWorkspace forward = SearchWorkspace.begin(n);
+        SearchWorkspace back = SearchWorkspace.beginBackward(n);
+        int meeting = search(source, target, forward, back);
+        if (meeting == -1)
+            return null;
+        int[] edges = unpack(meeting, forward, back);
+        int[] path = new int[edges.length + 1];
+        path[0] = source;
+        for (int i = 0; i < edges.length; i++)
+            path[i + 1] = edgeTo[edges[i]];
+        return path;
+    }
+
+    @Override
+    public double shortestPathCost(int source, int target) {
+        SearchWorkspace forward = SearchWorkspace.begin(n);
+        SearchWorkspace back = SearchWorkspace.beginBackward(n);
+        int meeting = search(source, target, forward, back);
+        if (meeting == -1)
+            return Double.POSITIVE_INFINITY;
+        // add the original edge weights in path order, so that the total is
+        // rounded exactly as a forward search would round it
+        double cost = 0.0;
+        for (int e : unpack(meeting, forward, back))
+            cost += edgeWeight[e];
+        return cost;
+    }
+
+    /**
+     * Writes this hierarchy to a file, so that it can be loaded again for the
+     * same snapshot without repeating the preprocessing.
+     *
+     * @param filename the path of the file to write
+     * @throws IOException if there was any problem writing to this file
+     */
+    public void save(String filename) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(filename)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeLong(graph.fingerprint());
+            out.writeInt(n);
+            out.writeInt(edgeCount);
+            for (int v = 0; v < n; v++)
+                out.writeInt(rank[v]);
+            for (int e = 0; e < edgeCount; e++) {
+                out.writeInt(edgeFrom[e]);
+                out.writeInt(edgeTo[e]);
+                out.writeDouble(edgeWeight[e]);
+                out.writeInt(edgeFirst[e]);
+                out.writeInt(edgeSecond[e]);
+            }
+        }
+    }
+
+    /**
+     * Reads a hierarchy that was written by save() for the provided snapshot.
+     *
+     * @param filename the path of the file to read
+     * @param graph    the snapshot that the hierarchy was built for
+     * @return the hierarchy read from this file
+     * @throws IOException if there was any problem reading from this file, if
+     *                     it was written for a different snapshot, or if its
+     *                     ranks or edges are damaged
+     */
+    public static ContractionHierarchy load(String filename, CSRGraph<?> graph) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(filename)))) {
+            if (in.readInt() != FILE_MAGIC)
+                throw new IOException("The file is not a contraction hierarchy.");
+            if (in.readLong() != graph.fingerprint() || in.readInt() != graph.getNodeCount())
+                throw new IOException("The contraction hierarchy was built for a different graph.");
+            int edgeCount = in.readInt();
+            // each edge takes two ints and a double for its endpoints and
+            // weight, and two ints for the edges that a shortcut replaces
+            if (edgeCount < 0 || edgeCount * 24L > new File(filename).length())
+                throw new IOException("The contraction hierarchy has an invalid edge count.");
+            int n = graph.getNodeCount();
+            int[] rank = new int[n];
+            for (int v = 0; v < n; v++)
+                rank[v] = in.readInt();
+            int[] edgeFrom = new int[edgeCount];
+            int[] edgeTo = new int[edgeCount];
+            double[] edgeWeight = new double[edgeCount];
+            int[] edgeFirst = new int[edgeCount];
+            int[] edgeSecond = new int[edgeCount];
+            for (int e = 0; e < edgeCount; e++) {
+                edgeFrom[e] = in.readInt();
+                edgeTo[e] = in.readInt();
+                edgeWeight[e] = in.readDouble();
+                edgeFirst[e] = in.readInt();
+                edgeSecond[e] = in.readInt();
+            }
+            checkLoaded(n, rank, edgeCount, edgeFrom, edgeTo, edgeFirst, edgeSecond);
+            return new ContractionHierarchy(graph, rank, edgeCount, edgeFrom, edgeTo, edgeWeight,
+                    edgeFirst, edgeSecond);
+        }
+    }
+
+    // checks that the ranks read by load() number the nodes from 0 to n-1,
+    // that every edge joins two nodes, and that every shortcut replaces an
+    // edge into and an edge out of a node ranked below both of its ends, so
+    // that a damaged file cannot make queries fail or unpack forever
+    private static void checkLoaded(int n, int[] rank, int edgeCount, int[] edgeFrom, int[] edgeTo,
+            int[] edgeFirst, int[] edgeSecond) throws IOException {
+        boolean[] ranked = new boolean[n];
+        for (int v = 0; v < n; v++) {
+            if (rank[v] < 0 || rank[v] >= n || ranked[rank[v]])
+                throw new IOException("The contraction hierarchy has invalid ranks.");
+            ranked[rank[v]] = true;
+        }
+        for (int e = 0; e < edgeCount; e++)
+            if (edgeFrom[e] < 0 || edgeFrom[e] >= n || edgeTo[e] < 0 || edgeTo[e] >= n)
+                throw new IOException("The contraction hierarchy has an edge between invalid nodes.");
+        for (int e = 0; e < edgeCount; e++) {
+            int first = edgeFirst[e];
+            int second = edgeSecond[e];
+            if (first == -1 && second == -1)
+                continue;
+            if (first < 0 || first >= edgeCount || second < 0 || second >= edgeCount
+                    || edgeFrom[first] != edgeFrom[e] || edgeTo[second] != edgeTo[e]
+                    || edgeTo[first] != edgeFrom[second]
+                    || rank[edgeTo[first]] >= Math.min(rank[edgeFrom[e]], rank[edgeTo[e]]))
+                throw new IOException("The contraction hierarchy has an invalid shortcut.");
+        }
+    }
+
+}
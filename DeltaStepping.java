@@ -0,0 +1,351 @@
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This DeltaStepping class finds the shortest paths from one node to every
+ * other node of a snapshot with Meyer and Sanders' delta-stepping algorithm,
+ * spreading the work of each step across a ForkJoinPool. Nodes are kept in
+ * buckets of width delta by their tentative cost, and the lowest bucket is
+ * emptied in rounds. Each round relaxes the light edges (weight at most
+ * delta) of every node in the bucket in parallel, which may put nodes back
+ * into the same bucket. Once the bucket stays empty, the heavy edges of every
+ * node that passed through it are relaxed in parallel, and those can only
+ * reach later buckets.
+ *
+ * Tentative costs are stored as the bits of non-negative doubles in an
+ * AtomicLongArray, and lowered with compare-and-set, so relaxations from
+ * different threads never lose an improvement. Every final cost is the sum
+ * of the weights along some path, added up in order, so the costs found are
+ * exactly the ones that Dijkstra's algorithm finds.
+ */
+public class DeltaStepping {
+
+    // the number of nodes whose edges one fork join task relaxes without
+    // splitting
+    private static final int NODES_PER_TASK = 256;
+
+    protected final CSRGraph<?> graph;
+    protected final double delta;
+    protected final ForkJoinPool pool;
+
+    // the tentative cost of each node during a search, as the bits of a
+    // double, so each instance runs only one search at a time
+    private AtomicLongArray tentative;
+
+    /**
+     * A growable list of node indices.
+     */
+    private static class IntList {
+        private int[] data = new int[16];
+        private int size = 0;
+
+        private void add(int value) {
+            if (size == data.length)
+                data = Arrays.copyOf(data, size * 2);
+            data[size++] = value;
+        }
+
+        private void addAll(IntList other) {
+            for (int i = 0; i < other.size; i++)
+                add(other.data[i]);
+        }
+    }
+
+    /**
+     * Creates a search over a snapshot that runs on the common ForkJoinPool.
+     *
+     * @param graph the snapshot to search
+     * @param delta the width of each bucket, which also separates light
+     *              edges from heavy ones
+     * @throws IllegalArgumentException if delta is not positive and finite
+     */
+    public DeltaStepping(CSRGraph<?> graph, double delta) {
+        this(graph, delta, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a search over a snapshot that runs on a pool.
+     *
+     * @param graph the snapshot to search
+     * @param delta the width of each bucket, which also separates light
+     *              edges from heavy ones
+     * @param pool  the pool to relax edges on
+     * @throws IllegalArgumentException if delta is not positive and finite
+     */
+    public DeltaStepping(CSRGraph<?> graph, double delta, ForkJoinPool pool) {
+        if (!(delta > 0.0) || delta == Double.POSITIVE_INFINITY)
+            throw new IllegalArgumentException("Invalid bucket width: " + delta);
+        this.graph = graph;
+        this.delta = delta;
+        this.pool = pool;
+    }
+
+    /**
+     * Picks a bucket width for a snapshot, which is the average weight of its
+     * edges. Most edges are then light, while each bucket still holds only a
+     * small band of costs.
+     *
+     * @param graph the snapshot to pick a width for
+     * @return the average edge weight, or 1.0 when that is not positive
+     */
+    public static double defaultDelta(CSRGraph<?> graph) {
+        double total = 0.0;
+        for (int e = 0; e < graph.getEdgeCount(); e++)
+            total += graph.outWeights[e];
+        double average = total / graph.getEdgeCount();
+        return average > 0.0 && average != Double.POSITIVE_INFINITY ? average : 1.0;
+    }
+
+    /**
+     * Finds the cost of the shortest path from source to every node whose
+     * cost is at most maxCost. Buckets beyond maxCost are never emptied, so
+     * nodes that cost more than maxCost may be left with a cost above the
+     * cost of their shortest path.
+     *
+     * @param source  the index of the node to search from
+     * @param maxCost the highest path cost to find exact costs for
+     * @param parent  receives the predecessor of each node within maxCost on
+     *                its shortest path, or -1 at source and for every other
+     *                node, or null to not record these
+     * @return the cost of each node, or Double.POSITIVE_INFINITY for nodes
+     *         that cannot be reached
+     */
+    public double[] search(int source, double maxCost, int[] parent) {
+        int n = graph.getNodeCount();
+        tentative = new AtomicLongArray(n);
+        long unreached = Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+        for (int v = 0; v < n; v++)
+            tentative.set(v, unreached);
+        tentative.set(source, Double.doubleToRawLongBits(0.0));
+
+        TreeMap<Long, IntList> buckets = new TreeMap<>();
+        // a node is added to a list at most once while its stamp is current
+        int[] listStamp = new int[n];
+        int[] bucketStamp = new int[n];
+        int stamp = 0;
+        IntList first = new IntList();
+        first.add(source);
+        buckets.put(0L, first);
+
+        while (!buckets.isEmpty()) {
+            Map.Entry<Long, IntList> lowest = buckets.pollFirstEntry();
+            long index = lowest.getKey();
+            if (index * delta > maxCost)
+                break;
+            IntList settled = new IntList();
+            IntList frontier = lowest.getValue();
+            stamp++;
+            int bucket = stamp;
+            while (frontier.size > 0) {
+                // skip nodes that have since moved to a lower bucket
+                stamp++;
+                IntList current = new IntList();
+                for (int i = 0; i < frontier.size; i++) {
+                    int v = frontier.data[i];
+                    if (listStamp[v] != stamp && bucketOf(cost(v)) == index) {
+                        listStamp[v] = stamp;
+                        current.add(v);
+                        if (bucketStamp[v] != bucket) {
+                            bucketStamp[v] = bucket;
+                            settled.add(v);
+                        }
+                    }
+                }
+                stamp++;
+                frontier = distribute(relax(current, true), index, buckets, listStamp, stamp);
+            }
+            // heavy edges reach later buckets, unless rounding puts a cost
+            // right at the edge of this one, which is then emptied again
+            stamp++;
+            IntList again = distribute(relax(settled, false), index, buckets, listStamp, stamp);
+            if (again.size > 0)
+                buckets.put(index, again);
+        }
+
+        double[] dist = new double[n];
+        for (int v = 0; v < n; v++)
+            dist[v] = cost(v);
+        tentative = null;
+        if (parent != null)
+            findParents(source, maxCost, dist, parent);
+        return dist;
+    }
+
+    // reads the tentative cost of a node
+    private double cost(int v) {
+        return Double.longBitsToDouble(tentative.get(v));
+    }
+
+    // finds the bucket that a cost belongs in
+    private long bucketOf(double cost) {
+        return (long) (cost / delta);
+    }
+
+    // relaxes the light or the heavy edges leaving a list of nodes, in
+    // parallel when there are enough of them, and returns the nodes whose
+    // costs were lowered
+    private IntList relax(IntList nodes, boolean light) {
+        if (nodes.size <= NODES_PER_TASK)
+            return new RelaxRange(nodes, 0, nodes.size, light).compute();
+        return pool.invoke(new RelaxRange(nodes, 0, nodes.size, light));
+    }
+
+    // puts each node whose cost was lowered into its bucket once, and returns
+    // the ones that belong back in the bucket being emptied
+    private IntList distribute(IntList improved, long index, TreeMap<Long, IntList> buckets,
+            int[] listStamp, int stamp) {
+        IntList again = new IntList();
+        for (int i = 0; i < improved.size; i++) {
+            int v = improved.data[i];
+            if (listStamp[v] == stamp)
+                continue;
+            listStamp[v] = stamp;
+            long target = bucketOf(cost(v));
+            if (target == index)
+                again.add(v);
+            else
+                buckets.computeIfAbsent(target, key -> new IntList()).add(v);
+        }
+        return again;
+    }
+
+    // relaxes edges leaving a range of a list of nodes, splitting the range
+    // in half until it is small enough to relax sequentially
+    private class RelaxRange extends RecursiveTask<IntList> {
+        private static final long serialVersionUID = 1L;
+        private final IntList nodes;
+        private final int from;
+        private final int to;
+        private final boolean light;
+
+        public RelaxRange(IntList nodes, int from, int to, boolean light) {
+            this.nodes = nodes;
+            this.from = from;
+            this.to = to;
+            this.light = light;
+        }
+
+        @Override
+        protected IntList compute() {
+            if (to - from > NODES_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                RelaxRange right = new RelaxRange(nodes, mid, to, light);
+                right.fork();
+                IntList improved = new RelaxRange(nodes, from, mid, light).compute();
+                improved.addAll(right.join());
+                return improved;
+            }
+            IntList improved = new IntList();
+            for (int i = from; i < to; i++) {
+                int u = nodes.data[i];
+                double base = cost(u);
+                for (int e = graph.outOffsets[u]; e < graph.outOffsets[u + 1]; e++) {
+                    double weight = graph.outWeights[e];
+                    if ((weight <= delta) != light)
+                        continue;
+                    int v = graph.outTargets[e];
+                    double cost = base + weight;
+                    // retry until the cost is lowered or another thread has
+                    // already lowered it at least as far
+                    long seen = tentative.get(v);
+                    while (cost < Double.longBitsToDouble(seen)) {
+                        if (tentative.compareAndSet(v, seen, Double.doubleToRawLongBits(cost))) {
+                            improved.add(v);
+                            break;
+                        }
+                        seen = tentative.get(v);
+                    }
+                }
+            }
+            return improved;
+        }
+    }
+
+    /**
+     * Picks the predecessor of each node within maxCost, once every cost is
+     * final. Any edge from a cheaper node that adds up to a node's exact cost
+     * lies on one of its shortest paths, and these are found in parallel.
+     * Nodes that can only be reached at their cost through edges from nodes
+     * of the same cost (which needs edges of weight zero) are then linked to
+     * nodes that already have a predecessor, so the links never form a cycle.
+     *
+     * @param source  the index of the node that was searched from
+     * @param maxCost the highest path cost that costs were found for
+     * @param dist    the final cost of each node
+     * @param parent  receives the predecessor of each node
+     */
+    protected void findParents(int source, double maxCost, double[] dist, int[] parent) {
+        Arrays.fill(parent, -1);
+        pool.invoke(new ParentRange(0, dist.length, maxCost, dist, parent));
+
+        IntList unlinked = new IntList();
+        for (int v = 0; v < dist.length; v++)
+            if (v != source && dist[v] <= maxCost && parent[v] == -1)
+                unlinked.add(v);
+        boolean progress = true;
+        while (unlinked.size > 0 && progress) {
+            progress = false;
+            IntList remaining = new IntList();
+            for (int i = 0; i < unlinked.size; i++) {
+                int v = unlinked.data[i];
+                for (int e = graph.inOffsets[v]; e < graph.inOffsets[v + 1]; e++) {
+                    int u = graph.inSources[e];
+                    if ((u == source || parent[u] != -1) && dist[u] + graph.inWeights[e] == dist[v]) {
+                        parent[v] = u;
+                        progress = true;
+                        break;
+                    }
+                }
+                if (parent[v] == -1)
+                    remaining.add(v);
+            }
+            unlinked = remaining;
+        }
+    }
+
+    // picks predecessors from strictly cheaper nodes for a range of nodes,
+    // splitting the range in half until it is small enough to scan
+    private class ParentRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int from;
+        private final int to;
+        private final double maxCost;
+        private final double[] dist;
+        private final int[] parent;
+
+        public ParentRange(int from, int to, double maxCost, double[] dist, int[] parent) {
+            this.from = from;
+            this.to = to;
+            this.maxCost = maxCost;
+            this.dist = dist;
+            this.parent = parent;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > NODES_PER_TASK * 4) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ParentRange(from, mid, maxCost, dist, parent),
+                        new ParentRange(mid, to, maxCost, dist, parent));
+                return;
+            }
+            for (int v = from; v < to; v++) {
+                if (!(dist[v] <= maxCost))
+                    continue;
+                for (int e = graph.inOffsets[v]; e < graph.inOffsets[v + 1]; e++) {
+                    int u = graph.inSources[e];
+                    if (dist[u] < dist[v] && dist[u] + graph.inWeights[e] == dist[v]) {
+                        parent[v] = u;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+}
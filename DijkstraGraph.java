@@ -9,7 +9,14 @@
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
 
 
 /**
@@ -33,6 +40,8 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
      *
      * SearchNodes are Comparable and are sorted by cost so that the lowest cost
      * SearchNode has the highest priority within a java.util.PriorityQueue.
+     * The search itself keeps its state in arrays indexed by each Node's dense
+     * index, and only links SearchNodes together along the path it finds.
      */
     protected class SearchNode implements Comparable<SearchNode> {
         public Node node;
@@ -54,6 +63,43 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
         }
     }
 
+    /**
+     * A CachedPath holds the result of one shortest path query, which is the
+     * shortest Route between two nodes, or null when there is no such path.
+     */
+    protected class CachedPath {
+        public final Route<NodeType> route;
+
+        public CachedPath(Route<NodeType> route) {
+            this.route = route;
+        }
+    }
+
+    // the number of shortest path results that are cached by default
+    public static final int DEFAULT_PATH_CACHE_CAPACITY = 1024;
+
+    // recent shortest path results, by start and end data
+    protected LRUCache<List<NodeType>, CachedPath> pathCache =
+            new LRUCache<>(DEFAULT_PATH_CACHE_CAPACITY);
+
+    // frozen snapshot of this graph, or null when it must be recompiled
+    protected CSRGraph<NodeType> snapshot = null;
+    // engine that answers shortest path queries over that snapshot
+    protected ShortestPathEngine engine = null;
+    // the kind of engine to build, and the number of landmarks ALT uses
+    protected RoutingEngine routingEngine = RoutingEngine.DIJKSTRA;
+    protected int landmarkCount = ALTEngine.DEFAULT_LANDMARK_COUNT;
+    // the most nodes that the ALL_PAIRS engine will build a table for
+    protected int allPairsNodeLimit = AllPairsTable.DEFAULT_NODE_LIMIT;
+    // file that the CONTRACTION_HIERARCHIES engine is loaded from and saved to
+    protected String hierarchyFile = null;
+    // whether tree sweeps run delta stepping in parallel, and its bucket
+    // width, or 0 to use the snapshot's average edge weight
+    protected boolean parallelSweeps = false;
+    protected double deltaSteppingWidth = 0.0;
+    // shortest path trees that are repaired as edges change, by start node
+    protected List<DynamicTree> dynamicTrees = new ArrayList<>();
+
     /**
      * Constructor that sets the map that the graph uses.
      */
@@ -61,6 +107,548 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
         super(new HashtableMap<>());
     }
 
+    /**
+     * Compiles the current contents of this graph into an immutable CSRGraph
+     * snapshot. Until this graph is next modified, shortestPathData() and
+     * shortestPathCost() run their searches over that snapshot's primitive
+     * arrays instead of over the Node and Edge objects of this graph. Any call
+     * to insertNode, removeNode, insertEdge, or removeEdge that changes this
+     * graph discards the snapshot.
+     *
+     * @return the snapshot that queries will now be answered from
+     */
+    public CSRGraph<NodeType> freeze() {
+        if (snapshot != null) {
+            if (engine == null)
+                engine = createEngine(snapshot);
+            return snapshot;
+        }
+
+        // nodes keep their dense indices, and edges are listed by the
+        // indices of the nodes that they connect
+        Object[] nodeData = new Object[nodeList.size()];
+        int[] sources = new int[edgeCount];
+        int[] targets = new int[edgeCount];
+        double[] weights = new double[edgeCount];
+        int e = 0;
+        for (Node node : nodeList) {
+            nodeData[node.index] = node.data;
+            for (Edge edge : node.edgesLeaving) {
+                sources[e] = node.index;
+                targets[e] = edge.successor.index;
+                weights[e] = edge.data.doubleValue();
+                e++;
+            }
+        }
+
+        snapshot = new CSRGraph<>(nodeData, sources, targets, weights, e);
+        engine = createEngine(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Builds the kind of engine selected by setRoutingEngine() over a snapshot.
+     *
+     * @param snapshot the frozen snapshot for the engine to search
+     * @return the new engine
+     */
+    protected ShortestPathEngine createEngine(CSRGraph<NodeType> snapshot) {
+        switch (routingEngine) {
+            case ALT:
+                return new ALTEngine(snapshot, landmarkCount);
+            case BIDIRECTIONAL:
+                return new BidirectionalDijkstra(snapshot);
+            case ALL_PAIRS:
+                // the table needs n*n entries, so large graphs are searched
+                if (snapshot.getNodeCount() <= allPairsNodeLimit)
+                    return new AllPairsTable(snapshot);
+                return new CSRDijkstra(snapshot);
+            case CONTRACTION_HIERARCHIES:
+                return createContractionHierarchy(snapshot);
+            default:
+                return new CSRDijkstra(snapshot);
+        }
+    }
+
+    /**
+     * Loads the contraction hierarchy for a snapshot from the hierarchy file,
+     * or builds it and then saves it to that file. A file that cannot be read,
+     * or that was saved for a different snapshot, is rebuilt and overwritten.
+     *
+     * @param snapshot the frozen snapshot for the hierarchy to search
+     * @return the loaded or newly built hierarchy
+     */
+    protected ContractionHierarchy createContractionHierarchy(CSRGraph<NodeType> snapshot) {
+        if (hierarchyFile == null)
+            return new ContractionHierarchy(snapshot);
+        if (new File(hierarchyFile).isFile()) {
+            try {
+                return ContractionHierarchy.load(hierarchyFile, snapshot);
+            } catch (IOException e) {
+                // fall through and rebuild the hierarchy
+            }
+        }
+        ContractionHierarchy hierarchy = new ContractionHierarchy(snapshot);
+        try {
+            hierarchy.save(hierarchyFile);
+        } catch (IOException e) {
+            // the file only saves time later, so queries can still go ahead
+        }
+        return hierarchy;
+    }
+
+    /**
+     * Selects the algorithm that shortestPathData() and shortestPathCost() use.
+     * Every engine other than RoutingEngine.DIJKSTRA searches a frozen
+     * snapshot, so those engines freeze this graph on the first query after
+     * it is modified, and build any precomputed data they need at that time.
+     *
+     * @param routingEngine the algorithm to answer queries with
+     * @throws NullPointerException if routingEngine is null
+     */
+    public void setRoutingEngine(RoutingEngine routingEngine) {
+        if (routingEngine == null)
+            throw new NullPointerException("Routing engine cannot be null.");
+        this.routingEngine = routingEngine;
+        engine = null;
+        // another engine may break ties between shortest paths differently
+        pathCache.clear();
+    }
+
+    /**
+     * Returns the algorithm that shortestPathData() and shortestPathCost() use.
+     *
+     * @return the selected routing engine
+     */
+    public RoutingEngine getRoutingEngine() {
+        return routingEngine;
+    }
+
+    /**
+     * Sets the number of landmarks that the RoutingEngine.ALT engine chooses.
+     * More landmarks give tighter lower bounds, at the cost of two full
+     * searches and two arrays of path costs per landmark.
+     *
+     * @param landmarkCount the number of landmarks, at least 1
+     * @throws IllegalArgumentException if landmarkCount is less than 1
+     */
+    public void setLandmarkCount(int landmarkCount) {
+        if (landmarkCount < 1)
+            throw new IllegalArgumentException("At least one landmark is required.");
+        this.landmarkCount = landmarkCount;
+        if (routingEngine == RoutingEngine.ALT)
+            engine = null;
+    }
+
+    /**
+     * Sets the most nodes that the RoutingEngine.ALL_PAIRS engine will build
+     * a table for. The table takes 12 bytes for every pair of nodes, so with
+     * the default limit of 2048 nodes it takes up to about 50 megabytes.
+     * Larger graphs are searched with Dijkstra's algorithm instead.
+     *
+     * @param allPairsNodeLimit the most nodes to build a table for
+     * @throws IllegalArgumentException if allPairsNodeLimit is negative or
+     *                                  above AllPairsTable.MAX_NODE_LIMIT
+     */
+    public void setAllPairsNodeLimit(int allPairsNodeLimit) {
+        if (allPairsNodeLimit < 0 || allPairsNodeLimit > AllPairsTable.MAX_NODE_LIMIT)
+            throw new IllegalArgumentException("Invalid all pairs node limit: " + allPairsNodeLimit);
+        this.allPairsNodeLimit = allPairsNodeLimit;
+        if (routingEngine == RoutingEngine.ALL_PAIRS)
+            engine = null;
+    }
+
+    /**
+     * Sets the file that the RoutingEngine.CONTRACTION_HIERARCHIES engine is
+     * loaded from when this graph is frozen, so that the hierarchy does not
+     * have to be rebuilt every time the same graph is loaded. When the file
+     * does not hold a hierarchy for the current snapshot, a new hierarchy is
+     * built and saved there instead.
+     *
+     * @param hierarchyFile the path of the hierarchy file, or null to always
+     *                      build the hierarchy without saving it
+     */
+    public void setHierarchyFile(String hierarchyFile) {
+        this.hierarchyFile = hierarchyFile;
+        if (routingEngine == RoutingEngine.CONTRACTION_HIERARCHIES)
+            engine = null;
+    }
+
+    /**
+     * Selects whether shortestPathTree() sweeps a frozen snapshot with
+     * parallel delta stepping instead of a sequential Dijkstra search. Both
+     * find the same costs, but delta stepping spreads large sweeps across
+     * every core. Trees maintained by maintainShortestPathTree() are still
+     * answered from those trees.
+     *
+     * @param parallelSweeps true to sweep with delta stepping
+     */
+    public void setParallelTreeSweeps(boolean parallelSweeps) {
+        this.parallelSweeps = parallelSweeps;
+    }
+
+    /**
+     * Sets the bucket width that parallel tree sweeps use. Edges no heavier
+     * than the width are relaxed in rounds within a bucket, and heavier edges
+     * once per bucket, so a wider bucket means fewer, larger rounds of
+     * parallel work, with more nodes relaxed more than once.
+     *
+     * @param width the bucket width, or 0 to use the average edge weight of
+     *              the snapshot
+     * @throws IllegalArgumentException if width is negative, infinite, or NaN
+     */
+    public void setDeltaSteppingWidth(double width) {
+        if (!(width >= 0.0) || width == Double.POSITIVE_INFINITY)
+            throw new IllegalArgumentException("Invalid bucket width: " + width);
+        this.deltaSteppingWidth = width;
+    }
+
+    /**
+     * Checks whether queries are currently answered from an all pairs table.
+     *
+     * @return true if the RoutingEngine.ALL_PAIRS engine is selected and this
+     *         graph is small enough for it to have built a table
+     */
+    public boolean hasAllPairsTable() {
+        return routingEngine == RoutingEngine.ALL_PAIRS && currentEngine() instanceof AllPairsTable;
+    }
+
+    /**
+     * Sets the most results that shortestPathData() and shortestPathCost()
+     * keep cached. When the cache is full, the least recently used result is
+     * evicted. Cached results are never returned after this graph changes.
+     *
+     * @param capacity the most results to cache, or 0 to turn caching off
+     * @throws IllegalArgumentException if capacity is negative
+     */
+    public void setPathCacheCapacity(int capacity) {
+        pathCache.setCapacity(capacity);
+    }
+
+    /**
+     * Returns the number of queries that were answered from the path cache.
+     *
+     * @return the number of path cache hits
+     */
+    public long getPathCacheHitCount() {
+        return pathCache.getHitCount();
+    }
+
+    /**
+     * Returns the number of queries that had to search for their result.
+     *
+     * @return the number of path cache misses
+     */
+    public long getPathCacheMissCount() {
+        return pathCache.getMissCount();
+    }
+
+    /**
+     * Returns the number of results evicted from the full path cache.
+     *
+     * @return the number of path cache evictions
+     */
+    public long getPathCacheEvictionCount() {
+        return pathCache.getEvictionCount();
+    }
+
+    /**
+     * Creates a new graph with the same nodes, edges, and settings as this
+     * one. Nodes are loaded in the order of their dense indices, and edges
+     * in the order they leave each node, so a snapshot of the copy matches a
+     * snapshot of this graph. The copy starts with an empty path cache and
+     * does not maintain any shortest path trees.
+     *
+     * @return the new copy of this graph
+     */
+    public DijkstraGraph<NodeType, EdgeType> copy() {
+        DijkstraGraph<NodeType, EdgeType> copy = new DijkstraGraph<>();
+        copy.routingEngine = routingEngine;
+        copy.landmarkCount = landmarkCount;
+        copy.allPairsNodeLimit = allPairsNodeLimit;
+        copy.hierarchyFile = hierarchyFile;
+        copy.parallelSweeps = parallelSweeps;
+        copy.deltaSteppingWidth = deltaSteppingWidth;
+        copy.pathCache.setCapacity(pathCache.getCapacity());
+        // the nodes and edges are already distinct, so they are loaded in one
+        // step instead of looking for a repeat of each one
+        List<NodeType> data = new ArrayList<>(nodeList.size());
+        int[] sources = new int[edgeCount];
+        int[] targets = new int[edgeCount];
+        List<EdgeType> weights = new ArrayList<>(edgeCount);
+        for (Node node : nodeList) {
+            data.add(node.data);
+            for (Edge edge : node.edgesLeaving) {
+                sources[weights.size()] = node.index;
+                targets[weights.size()] = edge.successor.index;
+                weights.add(edge.data);
+            }
+        }
+        copy.load(data, edgeCount, sources, targets, weights::get);
+        return copy;
+    }
+
+    /**
+     * Returns the engine that queries should be answered with, freezing this
+     * graph first when the selected engine needs a snapshot.
+     *
+     * @return the engine to search with, or null when queries should search
+     *         this graph's Node and Edge objects directly
+     */
+    protected ShortestPathEngine currentEngine() {
+        if (snapshot == null && routingEngine == RoutingEngine.DIJKSTRA)
+            return null;
+        freeze();
+        return engine;
+    }
+
+    /**
+     * Checks whether queries are currently answered from a frozen snapshot.
+     *
+     * @return true if this graph has been frozen and not modified since
+     */
+    public boolean isFrozen() {
+        return snapshot != null;
+    }
+
+    // discards the frozen snapshot after this graph has been modified
+    protected void thaw() {
+        snapshot = null;
+        engine = null;
+    }
+
+    @Override
+    public boolean insertNode(NodeType data) {
+        boolean changed = super.insertNode(data);
+        if (changed) {
+            thaw();
+            // node indices are only kept by rebuilding each maintained tree
+            for (DynamicTree tree : dynamicTrees)
+                tree.stale = true;
+        }
+        return changed;
+    }
+
+    @Override
+    protected void load(List<NodeType> data, int count, int[] sources, int[] targets,
+            IntFunction<? extends EdgeType> weights) {
+        super.load(data, count, sources, targets, weights);
+        thaw();
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        thaw();
+        // every maintained tree started from a node that is now gone
+        dynamicTrees.clear();
+    }
+
+    @Override
+    public boolean removeNode(NodeType data) {
+        boolean changed = super.removeNode(data);
+        if (changed) {
+            thaw();
+            dynamicTrees.removeIf(tree -> tree.start.equals(data));
+            for (DynamicTree tree : dynamicTrees)
+                tree.stale = true;
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean insertEdge(NodeType pred, NodeType succ, EdgeType weight) {
+        // remember the old weight, so maintained trees can tell which way it moved
+        double oldWeight = Double.POSITIVE_INFINITY;
+        if (!dynamicTrees.isEmpty() && containsNode(pred) && containsNode(succ) && containsEdge(pred, succ))
+            oldWeight = getEdge(pred, succ).doubleValue();
+        boolean changed = super.insertEdge(pred, succ, weight);
+        if (changed) {
+            thaw();
+            if (!dynamicTrees.isEmpty()) {
+                Edge edge = getEdgeHelper(pred, succ);
+                for (DynamicTree tree : dynamicTrees)
+                    tree.edgeChanged(edge, oldWeight, edge.data.doubleValue());
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean removeEdge(NodeType pred, NodeType succ) {
+        Edge edge = null;
+        if (!dynamicTrees.isEmpty() && containsNode(pred) && containsNode(succ) && containsEdge(pred, succ))
+            edge = getEdgeHelper(pred, succ);
+        boolean changed = super.removeEdge(pred, succ);
+        if (changed) {
+            thaw();
+            for (DynamicTree tree : dynamicTrees)
+                tree.edgeChanged(edge, edge.data.doubleValue(), Double.POSITIVE_INFINITY);
+        }
+        return changed;
+    }
+
+    /**
+     * A DynamicTree is a shortest path tree from one start node that is kept
+     * up to date as edges change, in the style of Ramalingam and Reps, rather
+     * than being recomputed from scratch. When an edge gets cheaper (or is
+     * inserted), only the nodes whose paths it improves are updated, by a
+     * Dijkstra search that starts at the edge's successor. When an edge on the
+     * tree gets more costly (or is removed), only the subtree below it can
+     * lose its paths: those nodes are given the cheapest path through an edge
+     * from outside the subtree, and then a Dijkstra search over the subtree
+     * settles the rest. Changes to edges off the tree that make them more
+     * costly cannot change any shortest path. Inserting or removing nodes
+     * renumbers nodes, so those changes mark the tree to be rebuilt.
+     */
+    protected class DynamicTree {
+        public final NodeType start;
+        // the cost of the shortest path and the last edge on it, by node index
+        public double[] dist;
+        public Edge[] parentEdge;
+        // true when the tree must be rebuilt before it is used
+        public boolean stale = true;
+
+        public DynamicTree(NodeType start) {
+            this.start = start;
+        }
+
+        // rebuilds the whole tree when nodes have changed since it was built
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        public void ensureCurrent() {
+            if (!stale)
+                return;
+            int n = nodeList.size();
+            // with no end node, the search settles every reachable node
+            SearchWorkspace workspace = SearchWorkspace.begin(n);
+            searchGraph(nodes.get(start), null, workspace);
+            dist = new double[n];
+            parentEdge = (Edge[]) new BaseGraph.Edge[n];
+            for (Node node : nodeList) {
+                dist[node.index] = workspace.getDist(node.index);
+                int from = workspace.getParent(node.index);
+                if (from != -1)
+                    parentEdge[node.index] = getEdgeHelper(nodeList.get(from).data, node.data);
+            }
+            stale = false;
+        }
+
+        // repairs the tree after the weight of edge changed from oldWeight to
+        // newWeight, where an infinite weight stands for a missing edge
+        public void edgeChanged(Edge edge, double oldWeight, double newWeight) {
+            if (stale)
+                return;
+            int u = edge.predecessor.index;
+            int v = edge.successor.index;
+            // the heap is only taken from the thread's workspace once the
+            // change is known to affect the tree
+            SearchWorkspace workspace;
+            IndexedDaryHeap heap;
+            if (newWeight < oldWeight) {
+                double cost = dist[u] + newWeight;
+                if (cost >= dist[v])
+                    return;
+                dist[v] = cost;
+                parentEdge[v] = edge;
+                workspace = SearchWorkspace.begin(dist.length);
+                heap = workspace.getHeap();
+                heap.insertOrDecrease(v, cost);
+            } else if (newWeight > oldWeight && parentEdge[v] == edge) {
+                // every node in the subtree below v may lose its path; the
+                // workspace marks those nodes as reached, so that nothing the
+                // size of the whole graph is allocated or cleared
+                workspace = SearchWorkspace.begin(dist.length);
+                heap = workspace.getHeap();
+                List<Node> affected = new ArrayList<>();
+                affected.add(edge.successor);
+                workspace.reach(v, 0.0, -1, 0.0);
+                for (int i = 0; i < affected.size(); i++)
+                    for (Edge child : affected.get(i).edgesLeaving)
+                        if (parentEdge[child.successor.index] == child && !workspace.isReached(child.successor.index)) {
+                            workspace.reach(child.successor.index, 0.0, -1, 0.0);
+                            affected.add(child.successor);
+                        }
+                for (Node node : affected) {
+                    dist[node.index] = Double.POSITIVE_INFINITY;
+                    parentEdge[node.index] = null;
+                }
+                // each one can first be reached from outside of the subtree
+                for (Node node : affected) {
+                    for (Edge in : node.edgesEntering) {
+                        if (workspace.isReached(in.predecessor.index))
+                            continue;
+                        double cost = dist[in.predecessor.index] + in.data.doubleValue();
+                        if (cost < dist[node.index]) {
+                            dist[node.index] = cost;
+                            parentEdge[node.index] = in;
+                        }
+                    }
+                    if (dist[node.index] != Double.POSITIVE_INFINITY)
+                        heap.insertOrDecrease(node.index, dist[node.index]);
+                }
+            } else {
+                return;
+            }
+
+            // settle the changed nodes, passing improvements on to successors
+            while (!heap.isEmpty()) {
+                Node current = nodeList.get(heap.poll());
+                for (Edge out : current.edgesLeaving) {
+                    int next = out.successor.index;
+                    double cost = dist[current.index] + out.data.doubleValue();
+                    if (cost < dist[next]) {
+                        dist[next] = cost;
+                        parentEdge[next] = out;
+                        heap.insertOrDecrease(next, cost);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts maintaining the shortest path tree from the node containing the
+     * start data. Until stopMaintainingShortestPathTree() is called, changes
+     * to edges repair this tree in place instead of discarding it, and
+     * shortestPathTree(), shortestRoute(), shortestPathData(), and
+     * shortestPathCost() queries from start are answered from it without a
+     * new search.
+     *
+     * @param start the data item in the root node of the tree
+     * @throws NoSuchElementException if start is not found in the graph
+     */
+    public void maintainShortestPathTree(NodeType start) {
+        if (!nodes.containsKey(start))
+            throw new NoSuchElementException("Start node not in graph");
+        if (findDynamicTree(start) == null) {
+            DynamicTree tree = new DynamicTree(start);
+            tree.ensureCurrent();
+            dynamicTrees.add(tree);
+        }
+    }
+
+    /**
+     * Stops maintaining the shortest path tree from the node containing the
+     * start data.
+     *
+     * @param start the data item in the root node of the tree
+     * @return true if a tree from start was being maintained, or false if not
+     */
+    public boolean stopMaintainingShortestPathTree(NodeType start) {
+        return dynamicTrees.removeIf(tree -> tree.start.equals(start));
+    }
+
+    // returns the up to date maintained tree from start, or null when none
+    protected DynamicTree findDynamicTree(NodeType start) {
+        for (DynamicTree tree : dynamicTrees) {
+            if (tree.start.equals(start)) {
+                tree.ensureCurrent();
+                return tree;
+            }
+        }
+        return null;
+    }
+
     /**
      * This helper method creates a network of SearchNodes while computing the
      * shortest path between the provided start and end locations. The
@@ -81,32 +669,75 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
             throw new NoSuchElementException("Start or end node not in graph");
         }
 
-        // create a priority queue of SearchNodes
-        PriorityQueue<SearchNode> pq = new PriorityQueue<>();
-        // create a map of SearchNodes for each node in the graph
-        MapADT<NodeType, Boolean> visited = new HashtableMap<>();
+        Node startNode = nodes.get(start);
+        Node endNode = nodes.get(end);
 
-        pq.add(new SearchNode(nodes.get(start), 0.0, null));
+        // tentative path costs and predecessors live in this thread's workspace
+        SearchWorkspace workspace = SearchWorkspace.begin(nodeList.size());
+        if (searchGraph(startNode, endNode, workspace))
+            return buildSearchNodes(endNode, workspace);
+        // if we reach here then there is no path from start to end
+        throw new NoSuchElementException("No path from " + start.toString() + " to " + end.toString());
+    }
+
+    /**
+     * Runs Dijkstra's algorithm over this graph's Node and Edge objects, from
+     * startNode until endNode is settled (or until every reachable node is
+     * settled, when endNode is null).
+     *
+     * @param startNode the starting node for the path
+     * @param endNode   the destination node for the path, or null for none
+     * @param workspace a workspace that was just begun for this graph, which
+     *                  receives the cost and predecessor of each node
+     * @return true if endNode was reached, or false when there is no path
+     */
+    protected boolean searchGraph(Node startNode, Node endNode, SearchWorkspace workspace) {
+        // a heap of node indices, keyed by each node's tentative path cost
+        IndexedDaryHeap heap = workspace.getHeap();
+        workspace.reach(startNode.index, 0.0, -1, 0.0);
+        heap.insertOrDecrease(startNode.index, 0.0);
 
-        while (!pq.isEmpty()) {
-            // remove the SearchNode with the lowest cost from the queue
-            SearchNode current = pq.poll();
-            if (visited.containsKey(current.node.data)) continue;
-            // mark the current node as visited
-            visited.put(current.node.data, true);
+        while (!heap.isEmpty()) {
+            // remove the node with the lowest cost from the heap
+            Node current = nodeList.get(heap.poll());
 
             // if the current node is the end node then we have found the shortest path
-            if (current.node.data.equals(end)) return current;
+            if (current == endNode) return true;
 
-            // add all of the edges leaving this node to the queue
-            for (Edge edge : current.node.edgesLeaving) {
-                if (!visited.containsKey(edge.successor.data)) {
-                    pq.add(new SearchNode(edge.successor, current.cost + edge.data.doubleValue(), current));
+            // relax all of the edges leaving this node; settled nodes never
+            // improve, since all edge weights are non-negative
+            double base = workspace.getDist(current.index);
+            for (Edge edge : current.edgesLeaving) {
+                int next = edge.successor.index;
+                double weight = edge.data.doubleValue();
+                double cost = base + weight;
+                if (cost < workspace.getDist(next)) {
+                    workspace.reach(next, cost, current.index, weight);
+                    heap.insertOrDecrease(next, cost);
                 }
             }
         }
-        // if we reach here then there is no path from start to end
-        throw new NoSuchElementException("No path from " + start.toString() + " to " + end.toString());
+        return false;
+    }
+
+    /**
+     * Links together the SearchNodes along the shortest path that ends at the
+     * provided node, by following each node's predecessor back to the start
+     * node.
+     *
+     * @param endNode   the final node within the shortest path
+     * @param workspace the workspace of the search that reached endNode
+     * @return SearchNode for the final end node within the shortest path
+     */
+    protected SearchNode buildSearchNodes(Node endNode, SearchWorkspace workspace) {
+        SearchNode last = new SearchNode(endNode, workspace.getDist(endNode.index), null);
+        // link a SearchNode for each earlier node, walking back to the start
+        SearchNode current = last;
+        for (int from = workspace.getParent(endNode.index); from != -1; from = workspace.getParent(from)) {
+            current.predecessor = new SearchNode(nodeList.get(from), workspace.getDist(from), null);
+            current = current.predecessor;
+        }
+        return last;
     }
 
     /**
@@ -122,21 +753,8 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
      * @return list of data item from node along this shortest path
      */
     public List<NodeType> shortestPathData(NodeType start, NodeType end) {
-        // compute the shortest path from start to end
-        SearchNode endNode = computeShortestPath(start, end);
-        // create a list to store the data values along the path
-        List<NodeType> path = new java.util.ArrayList<>();
-        // traverse the path from end to start, adding each node's data to the list
-        SearchNode current = endNode;
-        while (current != null) {
-            // add the data value of the current node to the path
-            // repeatedly adding at index 0 to push old nodes to the end
-            path.add(0, current.node.data);
-            current = current.predecessor;
-        }
-        // return the list of data values along the path
-        return path;
-	}
+        return new ArrayList<>(shortestRoute(start, end).getNodes());
+    }
 
     /**
      * Returns the cost of the path (sum over edge weights) of the shortest
@@ -149,12 +767,365 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
      * @return the cost of the shortest path between these nodes
      */
     public double shortestPathCost(NodeType start, NodeType end) {
-        // compute the shortest path from start to end
-        SearchNode endNode = computeShortestPath(start, end);
-        Double cost = endNode.cost;;
+        return shortestRoute(start, end).getTotalCost();
+    }
+
+    /**
+     * Returns the shortest path from the node containing the start data to
+     * the node containing the end data as a Route: the data of the nodes along
+     * it, the weight of each leg, and its total cost, all from one search.
+     * Routes are kept in the path cache until this graph changes.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return the shortest route between these nodes
+     * @throws NoSuchElementException when no path from start to end is found
+     *                                or when either start or end data do not
+     *                                correspond to a graph node
+     */
+    public Route<NodeType> shortestRoute(NodeType start, NodeType end) {
+        List<NodeType> key = Arrays.asList(start, end);
+        long version = getVersion();
+        CachedPath result = pathCache.get(key, version);
+        if (result == null) {
+            result = new CachedPath(searchShortestRoute(start, end));
+            pathCache.put(key, result, version);
+        }
+        if (result.route == null)
+            throw new NoSuchElementException("No path from " + start.toString() + " to " + end.toString());
+        return result.route;
+    }
+
+    /**
+     * Searches for the shortest route between two nodes with the selected
+     * routing engine, or over this graph's Node and Edge objects.
+     *
+     * @param start the data item in the starting node for the path
+     * @param end   the data item in the destination node for the path
+     * @return the shortest route from start to end, or null when there is no
+     *         path
+     * @throws NoSuchElementException when either start or end data do not
+     *                                correspond to a graph node
+     */
+    protected Route<NodeType> searchShortestRoute(NodeType start, NodeType end) {
+        DynamicTree tree = start == null ? null : findDynamicTree(start);
+        if (tree != null) {
+            // a maintained tree already holds the shortest path to every node
+            if (!nodes.containsKey(end))
+                throw new NoSuchElementException("Start or end node not in graph");
+            Node endNode = nodes.get(end);
+            if (tree.dist[endNode.index] == Double.POSITIVE_INFINITY)
+                return null;
+            return buildRoute(endNode, tree.dist, tree.parentEdge);
+        }
+        ShortestPathEngine engine = currentEngine();
+        if (engine != null) {
+            // search over the frozen snapshot, then map indices back to data
+            int[] indexPath = engine.shortestPath(snapshot.indexOf(start), snapshot.indexOf(end));
+            return indexPath == null ? null : buildRoute(indexPath);
+        }
+        if (!nodes.containsKey(start) || !nodes.containsKey(end))
+            throw new NoSuchElementException("Start or end node not in graph");
+
+        Node startNode = nodes.get(start);
+        Node endNode = nodes.get(end);
+        SearchWorkspace workspace = SearchWorkspace.begin(nodeList.size());
+        if (!searchGraph(startNode, endNode, workspace))
+            return null;
+        return buildRoute(endNode, workspace);
+    }
+
+    /**
+     * Builds the Route that ends at the provided node, by following each
+     * node's predecessor in a search workspace back to the start node.
+     *
+     * @param endNode   the final node within the shortest path
+     * @param workspace the workspace of the search that reached endNode
+     * @return the route from the start node to endNode
+     */
+    protected Route<NodeType> buildRoute(Node endNode, SearchWorkspace workspace) {
+        int legCount = workspace.pathLength(endNode.index) - 1;
+        List<NodeType> path = new ArrayList<>(Collections.nCopies(legCount + 1, (NodeType) null));
+        double[] legs = new double[legCount];
+        // fill the route in from its end
+        int v = endNode.index;
+        for (int i = legCount; i >= 0; i--) {
+            path.set(i, nodeList.get(v).data);
+            if (i > 0)
+                legs[i - 1] = workspace.getParentWeight(v);
+            v = workspace.getParent(v);
+        }
+        return new Route<>(path, legs, workspace.getDist(endNode.index));
+    }
+
+    /**
+     * Builds the Route that ends at the provided node, by following the last
+     * edge on each node's path back to the start node.
+     *
+     * @param endNode    the final node within the shortest path
+     * @param dist       the cost of the shortest path to each node, by index
+     * @param parentEdge the last edge on the shortest path to each node, by
+     *                   index, or null at the start node
+     * @return the route from the start node to endNode
+     */
+    protected Route<NodeType> buildRoute(Node endNode, double[] dist, Edge[] parentEdge) {
+        // count the legs first, then fill the route in from its end
+        int legCount = 0;
+        for (Edge edge = parentEdge[endNode.index]; edge != null; edge = parentEdge[edge.predecessor.index])
+            legCount++;
+        List<NodeType> path = new ArrayList<>(Collections.nCopies(legCount + 1, (NodeType) null));
+        double[] legs = new double[legCount];
+        path.set(legCount, endNode.data);
+        for (Edge edge = parentEdge[endNode.index]; edge != null; edge = parentEdge[edge.predecessor.index]) {
+            legs[--legCount] = edge.data.doubleValue();
+            path.set(legCount, edge.predecessor.data);
+        }
+        return new Route<>(path, legs, dist[endNode.index]);
+    }
+
+    /**
+     * Maps a path of snapshot node indices to a Route, looking up the weight
+     * of each leg in the snapshot and adding them up in order.
+     *
+     * @param indexPath the indices of the nodes along a path in the snapshot
+     * @return the route along that path
+     */
+    protected Route<NodeType> buildRoute(int[] indexPath) {
+        List<NodeType> path = new ArrayList<>(indexPath.length);
+        double[] legs = new double[indexPath.length - 1];
+        double cost = 0.0;
+        for (int i = 0; i < indexPath.length; i++) {
+            path.add(snapshot.nodeAt(indexPath[i]));
+            if (i > 0) {
+                legs[i - 1] = snapshot.edgeWeight(indexPath[i - 1], indexPath[i]);
+                cost += legs[i - 1];
+            }
+        }
+        return new Route<>(path, legs, cost);
+    }
+
+    /**
+     * Returns up to k different routes from the node containing the start
+     * data to the node containing the end data, from the shortest to the most
+     * costly, using Yen's k shortest paths algorithm over a frozen snapshot.
+     * No route visits any node more than once. Fewer than k routes are
+     * returned when there are not that many such routes.
+     *
+     * @param start the data item in the starting node for the routes
+     * @param end   the data item in the destination node for the routes
+     * @param k     the most routes to return
+     * @return the shortest routes from start to end, cheapest first
+     * @throws IllegalArgumentException if k is less than 1
+     * @throws NoSuchElementException   when no path from start to end is found
+     *                                  or when either start or end data do not
+     *                                  correspond to a graph node
+     */
+    public List<Route<NodeType>> kShortestRoutes(NodeType start, NodeType end, int k) {
+        if (k < 1)
+            throw new IllegalArgumentException("At least one route must be requested: " + k);
+        CSRGraph<NodeType> snapshot = freeze();
+        List<int[]> paths = new YenKShortestPaths(snapshot, snapshot.indexOf(start),
+                snapshot.indexOf(end)).findPaths(k);
+        if (paths.isEmpty())
+            throw new NoSuchElementException("No path from " + start.toString() + " to " + end.toString());
+        List<Route<NodeType>> routes = new ArrayList<>(paths.size());
+        for (int[] path : paths)
+            routes.add(buildRoute(path));
+        return routes;
+    }
+
+    /**
+     * Computes the costs of the shortest paths from every source to every
+     * target at once. This runs one search per source (rather than one per
+     * pair) over a frozen snapshot, and each search stops once all of the
+     * targets are settled. The searches run in parallel on the common
+     * ForkJoinPool. When an all pairs table has been built, the costs are
+     * looked up in it instead.
+     *
+     * @param sources the data items in the nodes that paths start from
+     * @param targets the data items in the nodes that paths end at
+     * @return a matrix with the cost of the shortest path from the i-th source
+     *         to the j-th target at [i][j], or Double.POSITIVE_INFINITY when
+     *         there is no such path
+     * @throws NoSuchElementException if any source or target is not found in
+     *                                the graph
+     */
+    public double[][] distanceTable(List<NodeType> sources, List<NodeType> targets) {
+        CSRGraph<NodeType> snapshot = freeze();
+        int[] sourceIndices = new int[sources.size()];
+        for (int i = 0; i < sourceIndices.length; i++)
+            sourceIndices[i] = snapshot.indexOf(sources.get(i));
+        int[] targetIndices = new int[targets.size()];
+        for (int j = 0; j < targetIndices.length; j++)
+            targetIndices[j] = snapshot.indexOf(targets.get(j));
+
+        if (engine instanceof AllPairsTable) {
+            double[][] costs = new double[sourceIndices.length][targetIndices.length];
+            for (int i = 0; i < sourceIndices.length; i++)
+                for (int j = 0; j < targetIndices.length; j++)
+                    costs[i][j] = engine.shortestPathCost(sourceIndices[i], targetIndices[j]);
+            return costs;
+        }
+        return DistanceTable.compute(snapshot, sourceIndices, targetIndices);
+    }
+
+    /**
+     * Returns the shortest path tree rooted at the node containing the start
+     * data: the cost of the shortest path from start to every node that it can
+     * reach, and the predecessor of each such node along that path. The whole
+     * tree comes from a single run of Dijkstra's shortest path algorithm.
+     *
+     * @param start the data item in the root node of the tree
+     * @return the shortest path tree from start
+     * @throws NoSuchElementException if start is not found in the graph
+     */
+    public ShortestPathTree<NodeType> shortestPathTree(NodeType start) {
+        return shortestPathTree(start, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Returns the part of the shortest path tree rooted at the node containing
+     * the start data that lies within maxCost of start: every node whose
+     * shortest path from start costs at most maxCost. The search stops as soon
+     * as the next node it would settle costs more than that, so it only visits
+     * the nodes near start instead of the whole graph.
+     *
+     * @param start   the data item in the root node of the tree
+     * @param maxCost the highest path cost to include nodes at
+     * @return the shortest path tree from start, limited to maxCost
+     * @throws NoSuchElementException   if start is not found in the graph
+     * @throws IllegalArgumentException if maxCost is negative or NaN
+     */
+    public ShortestPathTree<NodeType> shortestPathTree(NodeType start, double maxCost) {
+        if (!(maxCost >= 0.0))
+            throw new IllegalArgumentException("Invalid maximum path cost: " + maxCost);
+        if (!nodes.containsKey(start))
+            throw new NoSuchElementException("Start node not in graph");
+        DynamicTree tree = findDynamicTree(start);
+        if (tree != null)
+            return buildTree(tree, maxCost);
+        if (parallelSweeps) {
+            freeze();
+            int[] parent = new int[nodeList.size()];
+            double width = deltaSteppingWidth > 0.0 ? deltaSteppingWidth : DeltaStepping.defaultDelta(snapshot);
+            double[] dist = new DeltaStepping(snapshot, width).search(snapshot.indexOf(start), maxCost, parent);
+            return buildTree(dist, parent, maxCost);
+        }
+        int n = nodeList.size();
+        double[] dist = new double[n];
+        int[] parent = new int[n];
+        int[] order = new int[n];
+
+        if (snapshot != null || routingEngine != RoutingEngine.DIJKSTRA) {
+            // sweep the frozen snapshot, where node indices match nodeList
+            freeze();
+            int settled = CSRDijkstra.search(snapshot, snapshot.indexOf(start), -1, false, maxCost,
+                    dist, parent, order);
+            return buildTree(order, settled, dist, parent);
+        }
+
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(parent, -1);
+        IndexedDaryHeap heap = new IndexedDaryHeap(n);
+        int startIndex = nodes.get(start).index;
+        dist[startIndex] = 0.0;
+        heap.insertOrDecrease(startIndex, 0.0);
+        int settled = 0;
+        while (!heap.isEmpty() && heap.getKey(heap.peek()) <= maxCost) {
+            Node current = nodeList.get(heap.poll());
+            order[settled++] = current.index;
+            for (Edge edge : current.edgesLeaving) {
+                int next = edge.successor.index;
+                double cost = dist[current.index] + edge.data.doubleValue();
+                if (cost < dist[next]) {
+                    dist[next] = cost;
+                    parent[next] = current.index;
+                    heap.insertOrDecrease(next, cost);
+                }
+            }
+        }
+        return buildTree(order, settled, dist, parent);
+    }
+
+    /**
+     * Collects the nodes of a maintained tree that are within maxCost of its
+     * start node into a ShortestPathTree.
+     *
+     * @param tree    the maintained tree to collect nodes from
+     * @param maxCost the highest path cost to include nodes at
+     * @return the tree of those nodes
+     */
+    protected ShortestPathTree<NodeType> buildTree(DynamicTree tree, double maxCost) {
+        int[] parent = new int[tree.dist.length];
+        for (int i = 0; i < parent.length; i++)
+            parent[i] = tree.parentEdge[i] == null ? -1 : tree.parentEdge[i].predecessor.index;
+        return buildTree(tree.dist, parent, maxCost);
+    }
+
+    /**
+     * Collects the nodes that are within maxCost of the start node into a
+     * ShortestPathTree, when their costs and predecessors were not found in
+     * the order of a Dijkstra search. Nodes are ordered by cost, and nodes
+     * with equal costs by their depth in the tree, so that every node comes
+     * after its predecessor.
+     *
+     * @param dist    the cost of the shortest path to each node, by index
+     * @param parent  the predecessor of each node, by index, or -1 at the
+     *                start node
+     * @param maxCost the highest path cost to include nodes at
+     * @return the tree of those nodes
+     */
+    protected ShortestPathTree<NodeType> buildTree(double[] dist, int[] parent, double maxCost) {
+        int n = dist.length;
+        int[] depth = new int[n];
+        List<Integer> reachable = new ArrayList<>();
+        for (int i = 0; i < n; i++)
+            if (dist[i] <= maxCost)
+                reachable.add(i);
+        for (int i : reachable) {
+            // walk up to the first node with a known depth, then fill in below it
+            int known = i;
+            int steps = 0;
+            while (parent[known] != -1 && depth[known] == 0) {
+                known = parent[known];
+                steps++;
+            }
+            for (int v = i; v != known; v = parent[v])
+                depth[v] = depth[known] + steps--;
+        }
+        reachable.sort((a, b) -> dist[a] != dist[b] ? Double.compare(dist[a], dist[b])
+                : Integer.compare(depth[a], depth[b]));
+        int[] order = new int[reachable.size()];
+        for (int i = 0; i < order.length; i++)
+            order[i] = reachable.get(i);
+        return buildTree(order, order.length, dist, parent);
+    }
 
-        // return the cost of the path
-        return cost;
+    /**
+     * Collects the nodes settled by a search over dense node indices into a
+     * ShortestPathTree.
+     *
+     * @param order   the index of each settled node, in the order settled
+     * @param settled the number of settled nodes
+     * @param dist    the cost of the shortest path to each node, by index
+     * @param parent  the predecessor of each node, by index, or -1
+     * @return the tree of the settled nodes
+     */
+    protected ShortestPathTree<NodeType> buildTree(int[] order, int settled, double[] dist, int[] parent) {
+        List<NodeType> treeNodes = new ArrayList<>(settled);
+        double[] costs = new double[settled];
+        int[] parents = new int[settled];
+        // remember the position of each settled node within the tree, which
+        // for a tree limited to a small cost is only a few of the nodes
+        IntIntHashMap positions = new IntIntHashMap(settled);
+        for (int i = 0; i < settled; i++) {
+            int index = order[i];
+            positions.put(index, i);
+            treeNodes.add(nodeList.get(index).data);
+            costs[i] = dist[index];
+            parents[i] = parent[index] == -1 ? -1 : positions.get(parent[index]);
+        }
+        return new ShortestPathTree<>(treeNodes, costs, parents);
     }
 
     // TODO: implement 3+ tests in step 4.1
@@ -302,5 +1273,801 @@ public class DijkstraGraph<NodeType, EdgeType extends Number>
                 ((DijkstraGraph<String, Double>) graph).shortestPathCost("A", "Z"));
     }
 
-}
+    /**
+     * Builds the same 10 node graph that the tests above use, so that the
+     * tests below can compare other ways of answering queries against it.
+     *
+     * @return a new graph containing nodes A, B, M, D, E, F, I, G, H, and L
+     */
+    protected static DijkstraGraph<String, Double> createTestGraph() {
+        DijkstraGraph<String, Double> graph = new DijkstraGraph<>();
+        for (String node : new String[] { "A", "B", "M", "D", "E", "F", "I", "G", "H", "L" })
+            graph.insertNode(node);
+        graph.insertEdge("A", "H", 7.0);
+        graph.insertEdge("D", "A", 7.0);
+        graph.insertEdge("G", "A", 4.0);
+        graph.insertEdge("A", "B", 1.0);
+        graph.insertEdge("A", "M", 5.0);
+        graph.insertEdge("B", "M", 3.0);
+        graph.insertEdge("H", "B", 6.0);
+        graph.insertEdge("M", "I", 4.0);
+        graph.insertEdge("M", "E", 3.0);
+        graph.insertEdge("M", "F", 4.0);
+        graph.insertEdge("I", "H", 2.0);
+        graph.insertEdge("I", "D", 1.0);
+        graph.insertEdge("H", "I", 2.0);
+        graph.insertEdge("D", "F", 4.0);
+        graph.insertEdge("D", "G", 2.0);
+        graph.insertEdge("F", "G", 9.0);
+        graph.insertEdge("G", "H", 9.0);
+        graph.insertEdge("G", "L", 7.0);
+        graph.insertEdge("H", "L", 2.0);
+        return graph;
+    }
+
+    /**
+     * This test freezes the test graph into a CSRGraph snapshot and checks
+     * that the path costs found over that snapshot match the ones found over
+     * the unfrozen graph for every pair of nodes, and that modifying the graph
+     * afterwards discards the snapshot.
+     */
+    @Test
+    public void test4() {
+        DijkstraGraph<String, Double> graph = createTestGraph();
+        DijkstraGraph<String, Double> frozen = createTestGraph();
+        CSRGraph<String> snapshot = frozen.freeze();
+        assertTrue(frozen.isFrozen());
+        assertEquals(10, snapshot.getNodeCount());
+        assertEquals(19, snapshot.getEdgeCount());
+
+        for (String start : graph.getAllNodes()) {
+            for (String end : graph.getAllNodes()) {
+                double cost;
+                try {
+                    cost = graph.shortestPathCost(start, end);
+                } catch (NoSuchElementException e) {
+                    // E and L have no edges leaving them
+                    assertThrows(NoSuchElementException.class, () -> frozen.shortestPathData(start, end));
+                    continue;
+                }
+                assertEquals(cost, frozen.shortestPathCost(start, end));
+                assertEquals(graph.shortestPathData(start, end).size(),
+                        frozen.shortestPathData(start, end).size());
+            }
+        }
+        assertEquals(Arrays.asList("D", "G", "L"), frozen.shortestPathData("D", "L"));
+
+        // a cheaper edge from D to L should be used once the graph thaws
+        frozen.insertEdge("D", "L", 1.0);
+        assertFalse(frozen.isFrozen());
+        assertEquals(1.0, frozen.shortestPathCost("D", "L"));
+    }
+
+    /**
+     * Builds a random graph with integer edge weights from 1 to 50. Every
+     * seventh node is removed after the edges are inserted, so that the dense
+     * node indices have to be renumbered.
+     *
+     * @param seed      the seed for the random edges, so that two graphs built
+     *                  with the same arguments are identical
+     * @param nodeCount the number of nodes to insert
+     * @param edgeCount the number of random edges to insert
+     * @return the new graph
+     */
+    protected static DijkstraGraph<Integer, Double> createRandomGraph(long seed, int nodeCount,
+            int edgeCount) {
+        Random random = new Random(seed);
+        DijkstraGraph<Integer, Double> graph = new DijkstraGraph<>();
+        for (int i = 0; i < nodeCount; i++)
+            graph.insertNode(i);
+        for (int i = 0; i < edgeCount; i++)
+            graph.insertEdge(random.nextInt(nodeCount), random.nextInt(nodeCount), 1.0 + random.nextInt(50));
+        for (int i = 0; i < nodeCount; i += 7)
+            graph.removeNode(i);
+        return graph;
+    }
+
+    /**
+     * Checks that a graph answers every query with the same cost as
+     * Dijkstra's algorithm on an identical reference graph, with a path from
+     * start to end whose edges add up to that cost, and that it throws a
+     * NoSuchElementException for every pair of nodes with no path.
+     *
+     * @param reference the graph to search with Dijkstra's algorithm
+     * @param engine    an identical graph that searches with another engine
+     */
+    protected static void assertSameShortestPaths(DijkstraGraph<Integer, Double> reference,
+            DijkstraGraph<Integer, Double> engine) {
+        for (Integer start : reference.getAllNodes()) {
+            for (Integer end : reference.getAllNodes()) {
+                double cost;
+                try {
+                    cost = reference.shortestPathCost(start, end);
+                } catch (NoSuchElementException e) {
+                    assertThrows(NoSuchElementException.class, () -> engine.shortestPathCost(start, end));
+                    assertThrows(NoSuchElementException.class, () -> engine.shortestPathData(start, end));
+                    continue;
+                }
+                assertEquals(cost, engine.shortestPathCost(start, end));
+                List<Integer> path = engine.shortestPathData(start, end);
+                assertEquals(start, path.get(0));
+                assertEquals(end, path.get(path.size() - 1));
+                double pathCost = 0.0;
+                for (int i = 1; i < path.size(); i++)
+                    pathCost += engine.getEdge(path.get(i - 1), path.get(i));
+                assertEquals(cost, pathCost);
+            }
+        }
+    }
+
+    /**
+     * This test builds a dense random graph with 60 nodes and checks the path
+     * costs found by both the object-based and the frozen searches against
+     * a simple Bellman-Ford computation.
+     */
+    @Test
+    public void test5() {
+        DijkstraGraph<Integer, Double> graph = createRandomGraph(400, 60, 900);
+        DijkstraGraph<Integer, Double> frozen = createRandomGraph(400, 60, 900);
+        frozen.freeze();
+        List<Integer> all = graph.getAllNodes();
+
+        for (Integer start : all) {
+            // relax every edge until no path cost improves
+            Map<Integer, Double> expected = new HashMap<>();
+            expected.put(start, 0.0);
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (Integer pred : all)
+                    for (Integer succ : all)
+                        if (expected.containsKey(pred) && graph.containsEdge(pred, succ)) {
+                            double cost = expected.get(pred) + graph.getEdge(pred, succ);
+                            if (!expected.containsKey(succ) || cost < expected.get(succ)) {
+                                expected.put(succ, cost);
+                                changed = true;
+                            }
+                        }
+            }
+            for (Integer end : all) {
+                if (expected.containsKey(end)) {
+                    assertEquals(expected.get(end), graph.shortestPathCost(start, end));
+                    assertEquals(expected.get(end), frozen.shortestPathCost(start, end));
+                } else {
+                    assertThrows(NoSuchElementException.class, () -> graph.shortestPathCost(start, end));
+                    assertThrows(NoSuchElementException.class, () -> frozen.shortestPathCost(start, end));
+                }
+            }
+        }
+    }
+
+    /**
+     * This test selects the ALT engine on a sparse random graph and checks
+     * that it finds paths with the same costs as Dijkstra's algorithm for
+     * every pair of nodes, and that the paths it returns have those costs.
+     */
+    @Test
+    public void test6() {
+        DijkstraGraph<Integer, Double> graph = createRandomGraph(12, 200, 600);
+        DijkstraGraph<Integer, Double> alt = createRandomGraph(12, 200, 600);
+        alt.setRoutingEngine(RoutingEngine.ALT);
+        alt.setLandmarkCount(4);
+        assertEquals(RoutingEngine.ALT, alt.getRoutingEngine());
+
+        assertSameShortestPaths(graph, alt);
+        assertTrue(alt.isFrozen());
+    }
+
+    /**
+     * This test selects the bidirectional engine and checks that it finds the
+     * same paths as Dijkstra's algorithm on the test graph, and paths with the
+     * same costs for every pair of nodes in a random graph.
+     */
+    @Test
+    public void test7() {
+        DijkstraGraph<String, Double> small = createTestGraph();
+        small.setRoutingEngine(RoutingEngine.BIDIRECTIONAL);
+        assertEquals(Arrays.asList("D", "G", "L"), small.shortestPathData("D", "L"));
+        assertEquals(Arrays.asList("A", "B", "M", "I", "D"), small.shortestPathData("A", "D"));
+        assertEquals(9.0, small.shortestPathCost("A", "D"));
+        assertEquals(Arrays.asList("A"), small.shortestPathData("A", "A"));
+        assertThrows(NoSuchElementException.class, () -> small.shortestPathData("L", "A"));
+
+        DijkstraGraph<Integer, Double> graph = createRandomGraph(3, 150, 450);
+        DijkstraGraph<Integer, Double> bidirectional = createRandomGraph(3, 150, 450);
+        bidirectional.setRoutingEngine(RoutingEngine.BIDIRECTIONAL);
+        assertSameShortestPaths(graph, bidirectional);
+    }
+
+    /**
+     * This test computes the shortest path tree from D in the test graph, both
+     * before and after freezing it, and checks the costs, predecessors, paths,
+     * and the furthest node against the point-to-point queries.
+     */
+    @Test
+    public void test8() {
+        DijkstraGraph<String, Double> graph = createTestGraph();
+        for (int i = 0; i < 2; i++) {
+            ShortestPathTree<String> tree = graph.shortestPathTree("D");
+            assertEquals("D", tree.getStart());
+            assertEquals(10, tree.getReachableCount());
+            for (String node : graph.getAllNodes()) {
+                assertEquals(graph.shortestPathCost("D", node), tree.getCost(node));
+                assertEquals(graph.shortestPathData("D", node), tree.getPath(node));
+            }
+            assertEquals("G", tree.getPredecessor("L"));
+            assertNull(tree.getPredecessor("D"));
+            // the reachable nodes are listed in order of increasing cost
+            double previous = 0.0;
+            for (String node : tree.getReachableNodes()) {
+                assertTrue(tree.getCost(node) >= previous);
+                previous = tree.getCost(node);
+            }
+            assertEquals(previous, tree.getCost(tree.getFurthestNode()));
+            graph.freeze();
+        }
+
+        // only E itself can be reached from E
+        ShortestPathTree<String> tree = graph.shortestPathTree("E");
+        assertFalse(tree.isReachable("A"));
+        assertThrows(NoSuchElementException.class, () -> tree.getCost("A"));
+        assertThrows(NoSuchElementException.class, () -> tree.getFurthestNode());
+        assertThrows(NoSuchElementException.class, () -> graph.shortestPathTree("Z"));
+    }
+
+    /**
+     * This test selects the all pairs engine on a random graph and checks its
+     * paths and costs against Dijkstra's algorithm for every pair of nodes,
+     * then checks that lowering the node limit turns the table off.
+     */
+    @Test
+    public void test9() {
+        DijkstraGraph<Integer, Double> graph = createRandomGraph(9, 120, 500);
+        DijkstraGraph<Integer, Double> table = createRandomGraph(9, 120, 500);
+        table.setRoutingEngine(RoutingEngine.ALL_PAIRS);
+        assertTrue(table.hasAllPairsTable());
+
+        assertSameShortestPaths(graph, table);
+
+        table.setAllPairsNodeLimit(100);
+        assertFalse(table.hasAllPairsTable());
+        assertEquals(graph.shortestPathCost(1, 2), table.shortestPathCost(1, 2));
+    }
+
+    /**
+     * This test selects the contraction hierarchies engine on a random graph
+     * and checks its paths and costs against Dijkstra's algorithm for every
+     * pair of nodes, then saves the hierarchy to a file and checks that it is
+     * only loaded back for the same graph.
+     */
+    @Test
+    public void test10() throws IOException {
+        DijkstraGraph<Integer, Double> graph = createRandomGraph(10, 200, 600);
+        DijkstraGraph<Integer, Double> hierarchy = createRandomGraph(10, 200, 600);
+        hierarchy.setRoutingEngine(RoutingEngine.CONTRACTION_HIERARCHIES);
+        assertEquals(Arrays.asList(10), hierarchy.shortestPathData(10, 10));
+
+        assertSameShortestPaths(graph, hierarchy);
+
+        File file = File.createTempFile("hierarchy", ".ch");
+        file.deleteOnExit();
+        ContractionHierarchy built = new ContractionHierarchy(hierarchy.freeze());
+        built.save(file.getPath());
+        ContractionHierarchy loaded = ContractionHierarchy.load(file.getPath(), hierarchy.freeze());
+        assertEquals(built.getShortcutCount(), loaded.getShortcutCount());
+        assertArrayEquals(built.shortestPath(0, 5), loaded.shortestPath(0, 5));
+        assertThrows(IOException.class, () -> ContractionHierarchy.load(file.getPath(),
+                createRandomGraph(11, 200, 600).freeze()));
+
+        // damaged counts, ranks, endpoints, and shortcuts are all IOExceptions
+        byte[] saved = Files.readAllBytes(file.toPath());
+        int n = hierarchy.getNodeCount();
+        int edges = 20 + 4 * n;
+        int shortcut = 0;
+        while (built.edgeFirst[shortcut] == -1)
+            shortcut++;
+        int[][] damages = { { 16, -1 }, { 16, Integer.MAX_VALUE }, { 20, built.getRank(1) }, { 20, n },
+                { edges, n }, { edges + 4, -2 }, { edges + 24 * shortcut + 16, built.edgeCount },
+                { edges + 24 * shortcut + 20, shortcut } };
+        for (int[] damage : damages) {
+            ByteBuffer damaged = ByteBuffer.wrap(saved.clone());
+            damaged.putInt(damage[0], damage[1]);
+            Files.write(file.toPath(), damaged.array());
+            assertThrows(IOException.class, () -> ContractionHierarchy.load(file.getPath(), hierarchy.freeze()));
+        }
+
+        // a graph rebuilds and overwrites a damaged hierarchy file
+        DijkstraGraph<Integer, Double> reloaded = createRandomGraph(10, 200, 600);
+        reloaded.setRoutingEngine(RoutingEngine.CONTRACTION_HIERARCHIES);
+        reloaded.setHierarchyFile(file.getPath());
+        for (Integer end : graph.getAllNodes())
+            if (graph.containsEdge(10, end))
+                assertEquals(graph.shortestPathCost(10, end), reloaded.shortestPathCost(10, end));
+        assertEquals(built.getShortcutCount(),
+                ContractionHierarchy.load(file.getPath(), hierarchy.freeze()).getShortcutCount());
+    }
+
+    /**
+     * This test repeats queries on the test graph and checks the path cache's
+     * hit and miss counts, that changing the graph keeps stale results from
+     * being returned, and that a full cache evicts its least recent result.
+     */
+    @Test
+    public void test11() {
+        DijkstraGraph<String, Double> graph = createTestGraph();
+        assertEquals(9.0, graph.shortestPathCost("A", "D"));
+        assertEquals(Arrays.asList("A", "B", "M", "I", "D"), graph.shortestPathData("A", "D"));
+        assertEquals(1, graph.getPathCacheMissCount());
+        assertEquals(1, graph.getPathCacheHitCount());
+        // changing the returned list does not change the cached one
+        graph.shortestPathData("A", "D").clear();
+        assertEquals(5, graph.shortestPathData("A", "D").size());
+
+        // a new shortcut changes the graph's version and the shortest path
+        long version = graph.getVersion();
+        graph.insertEdge("A", "D", 1.0);
+        assertTrue(graph.getVersion() > version);
+        assertEquals(1.0, graph.shortestPathCost("A", "D"));
+        graph.removeEdge("A", "D");
+        assertEquals(9.0, graph.shortestPathCost("A", "D"));
+
+        // missing paths are cached too
+        assertThrows(NoSuchElementException.class, () -> graph.shortestPathData("L", "A"));
+        long misses = graph.getPathCacheMissCount();
+        assertThrows(NoSuchElementException.class, () -> graph.shortestPathCost("L", "A"));
+        assertEquals(misses, graph.getPathCacheMissCount());
+
+        graph.setPathCacheCapacity(2);
+        long evictions = graph.getPathCacheEvictionCount();
+        graph.shortestPathCost("A", "B");
+        graph.shortestPathCost("A", "M");
+        graph.shortestPathCost("A", "B");
+        graph.shortestPathCost("A", "I");
+        assertTrue(graph.getPathCacheEvictionCount() > evictions);
+        // A to B was used more recently than A to M, so it was kept
+        long hits = graph.getPathCacheHitCount();
+        graph.shortestPathCost("A", "B");
+        assertEquals(hits + 1, graph.getPathCacheHitCount());
+        graph.shortestPathCost("A", "M");
+        assertEquals(hits + 1, graph.getPathCacheHitCount());
+    }
+
+    /**
+     * This test checks that shortestRoute() returns the same nodes and total
+     * cost as shortestPathData() and shortestPathCost(), with the weight of
+     * each edge along the path as its legs, both before and after freezing.
+     */
+    @Test
+    public void test12() {
+        DijkstraGraph<String, Double> graph = createTestGraph();
+        for (int i = 0; i < 2; i++) {
+            Route<String> route = graph.shortestRoute("A", "D");
+            assertEquals(Arrays.asList("A", "B", "M", "I", "D"), route.getNodes());
+            assertEquals(Arrays.asList(1.0, 3.0, 4.0, 1.0), route.getLegWeights());
+            assertEquals(9.0, route.getTotalCost());
+            assertEquals("A", route.getStart());
+            assertEquals("D", route.getEnd());
+            assertThrows(UnsupportedOperationException.class, () -> route.getNodes().clear());
+            assertEquals(0, graph.shortestRoute("A", "A").getLegCount());
+            assertThrows(NoSuchElementException.class, () -> graph.shortestRoute("L", "A"));
+            graph.setRoutingEngine(RoutingEngine.ALT);
+        }
+    }
+
+    /**
+     * This test computes a distance table between groups of nodes in a random
+     * graph, and checks every entry against a point-to-point query, including
+     * repeated targets and pairs that have no path.
+     */
+    @Test
+    public void test13() {
+        DijkstraGraph<Integer, Double> graph = createRandomGraph(13, 300, 900);
+        List<Integer> nodes = graph.getAllNodes();
+        List<Integer> sources = new ArrayList<>(nodes.subList(0, 40));
+        List<Integer> targets = new ArrayList<>(nodes.subList(20, 70));
+        targets.add(nodes.get(25));
+        double[][] table = graph.distanceTable(sources, targets);
+        assertEquals(sources.size(), table.length);
+        for (int i = 0; i < sources.size(); i++) {
+            assertEquals(targets.size(), table[i].length);
+            for (int j = 0; j < targets.size(); j++) {
+                double cost;
+                try {
+                    cost = graph.shortestPathCost(sources.get(i), targets.get(j));
+                } catch (NoSuchElementException e) {
+                    cost = Double.POSITIVE_INFINITY;
+                }
+                assertEquals(cost, table[i][j]);
+            }
+        }
+
+        graph.setRoutingEngine(RoutingEngine.ALL_PAIRS);
+        assertArrayEquals(table, graph.distanceTable(sources, targets));
+        assertEquals(0, graph.distanceTable(new ArrayList<>(), targets).length);
+        assertThrows(NoSuchElementException.class,
+                () -> graph.distanceTable(sources, Arrays.asList(-1)));
+    }
+
+    /**
+     * This test limits the shortest path tree from D in the test graph to a
+     * few different costs, and checks that it holds exactly the nodes within
+     * each limit, with the same costs as the full tree.
+     */
+    @Test
+    public void test14() {
+        DijkstraGraph<String, Double> graph = createTestGraph();
+        for (int i = 0; i < 2; i++) {
+            ShortestPathTree<String> full = graph.shortestPathTree("D");
+            for (double limit : new double[] { 0.0, 2.0, 7.5, 100.0 }) {
+                ShortestPathTree<String> tree = graph.shortestPathTree("D", limit);
+                for (String node : full.getReachableNodes()) {
+                    assertEquals(full.getCost(node) <= limit, tree.isReachable(node));
+                    if (tree.isReachable(node))
+                        assertEquals(full.getCost(node), tree.getCost(node));
+                }
+            }
+            assertEquals(Arrays.asList("D"), graph.shortestPathTree("D", 0.0).getReachableNodes());
+            assertEquals(Arrays.asList("D", "G"), graph.shortestPathTree("D", 2.0).getReachableNodes());
+            graph.freeze();
+        }
+        assertThrows(IllegalArgumentException.class, () -> graph.shortestPathTree("D", -1.0));
+        assertThrows(IllegalArgumentException.class, () -> graph.shortestPathTree("D", Double.NaN));
+    }
+
+    /**
+     * This test finds the k shortest routes between every pair of nodes in
+     * a small random graph, and checks their costs against every loopless
+     * path, found by a depth first search. It also checks the three cheapest
+     * routes from A to D in the test graph.
+     */
+    @Test
+    public void test15() {
+        DijkstraGraph<String, Double> small = createTestGraph();
+        // A-M-I-D and A-H-I-D tie for the second cheapest route
+        List<Route<String>> three = small.kShortestRoutes("A", "D", 3);
+        assertEquals(Arrays.asList("A", "B", "M", "I", "D"), three.get(0).getNodes());
+        assertEquals(10.0, three.get(1).getTotalCost());
+        assertEquals(10.0, three.get(2).getTotalCost());
+        assertEquals(new HashSet<>(Arrays.asList(Arrays.asList("A", "M", "I", "D"), Arrays.asList("A", "H", "I", "D"))),
+                new HashSet<>(Arrays.asList(three.get(1).getNodes(), three.get(2).getNodes())));
+        assertThrows(IllegalArgumentException.class, () -> small.kShortestRoutes("A", "D", 0));
+        assertThrows(NoSuchElementException.class, () -> small.kShortestRoutes("L", "A", 3));
+
+        DijkstraGraph<Integer, Double> graph = createRandomGraph(15, 14, 40);
+        for (Integer start : graph.getAllNodes()) {
+            for (Integer end : graph.getAllNodes()) {
+                List<Double> expected = new ArrayList<>();
+                collectPathCosts(graph, start, end, new ArrayList<>(Arrays.asList(start)), 0.0, expected);
+                Collections.sort(expected);
+                if (expected.isEmpty()) {
+                    assertThrows(NoSuchElementException.class, () -> graph.kShortestRoutes(start, end, 5));
+                    continue;
+                }
+                List<Route<Integer>> routes = graph.kShortestRoutes(start, end, 8);
+                assertEquals(Math.min(8, expected.size()), routes.size());
+                Set<List<Integer>> distinct = new HashSet<>();
+                for (int i = 0; i < routes.size(); i++) {
+                    assertEquals(expected.get(i), routes.get(i).getTotalCost(), 1e-9);
+                    assertEquals(routes.get(i).getNodes().size(), new HashSet<>(routes.get(i).getNodes()).size());
+                    distinct.add(routes.get(i).getNodes());
+                }
+                assertEquals(routes.size(), distinct.size());
+            }
+        }
+    }
+
+    /**
+     * This test maintains the shortest path trees from two nodes of a random
+     * graph through a long run of random edge weight increases, decreases,
+     * insertions, and removals, along with a few node changes. After every
+     * change, it checks the maintained costs and paths against a fresh
+     * search on a copy of the graph that maintains nothing.
+     */
+    @Test
+    public void test16() {
+        DijkstraGraph<Integer, Double> graph = createRandomGraph(1600, 40, 240);
+        DijkstraGraph<Integer, Double> fresh = createRandomGraph(1600, 40, 240);
+        graph.setPathCacheCapacity(0);
+        graph.maintainShortestPathTree(1);
+        graph.maintainShortestPathTree(2);
+        assertThrows(NoSuchElementException.class, () -> graph.maintainShortestPathTree(0));
+        Random random = new Random(1616);
+        for (int step = 0; step < 400; step++) {
+            int pred = random.nextInt(40);
+            int succ = random.nextInt(40);
+            if (step % 50 == 49 && graph.containsNode(pred)) {
+                // node changes fall back to rebuilding the trees
+                graph.insertNode(40 + step);
+                fresh.insertNode(40 + step);
+                graph.insertEdge(pred, 40 + step, 1.0);
+                fresh.insertEdge(pred, 40 + step, 1.0);
+            } else if (random.nextInt(4) == 0) {
+                assertEquals(fresh.removeEdge(pred, succ), graph.removeEdge(pred, succ));
+            } else if (graph.containsNode(pred) && graph.containsNode(succ)) {
+                double weight = 1.0 + random.nextInt(50);
+                graph.insertEdge(pred, succ, weight);
+                fresh.insertEdge(pred, succ, weight);
+            }
+            for (int start = 1; start <= 2; start++) {
+                ShortestPathTree<Integer> expected = fresh.shortestPathTree(start);
+                ShortestPathTree<Integer> tree = graph.shortestPathTree(start);
+                assertEquals(expected.getReachableCount(), tree.getReachableCount());
+                for (Integer node : expected.getReachableNodes()) {
+                    assertEquals(expected.getCost(node), tree.getCost(node));
+                    Route<Integer> route = graph.shortestRoute(start, node);
+                    assertEquals(expected.getCost(node), route.getTotalCost());
+                    double cost = 0.0;
+                    for (int i = 0; i < route.getLegCount(); i++) {
+                        assertEquals(graph.getEdge(route.getNodes().get(i), route.getNodes().get(i + 1)),
+                                route.getLegWeight(i));
+                        cost += route.getLegWeight(i);
+                    }
+                    assertEquals(cost, route.getTotalCost());
+                }
+            }
+        }
+        assertTrue(graph.stopMaintainingShortestPathTree(1));
+        assertFalse(graph.stopMaintainingShortestPathTree(1));
+        graph.removeNode(2);
+        assertFalse(graph.stopMaintainingShortestPathTree(2));
+    }
+
+    /**
+     * This test runs four reader threads against a SnapshotIsolatedGraph while
+     * a writer publishes batches that change every edge of a chain at once,
+     * and checks that readers only ever see whole batches. It also checks
+     * that batches which change nothing, or which fail part way, publish
+     * nothing, and that a copy of a graph matches it.
+     */
+    @Test
+    public void test17() throws InterruptedException {
+        SnapshotIsolatedGraph<Integer, Double> graph = new SnapshotIsolatedGraph<>();
+        SnapshotIsolatedGraph<Integer, Double>.Batch setup = graph.beginBatch();
+        for (int i = 0; i < 10; i++)
+            setup.insertNode(i);
+        for (int i = 0; i < 9; i++)
+            setup.insertEdge(i, i + 1, 1.0);
+        assertTrue(setup.publish());
+        assertEquals(1, graph.getVersionNumber());
+        assertFalse(graph.beginBatch().insertNode(0).publish());
+        assertThrows(RuntimeException.class,
+                () -> graph.beginBatch().insertEdge(0, 5, 1.0).insertEdge(0, 99, 1.0).publish());
+        assertFalse(graph.containsEdge(0, 5));
+        assertEquals(1, graph.getVersionNumber());
+
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        AtomicBoolean done = new AtomicBoolean();
+        List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread reader = new Thread(() -> {
+                try {
+                    while (!done.get()) {
+                        Route<Integer> route = graph.shortestRoute(0, 9);
+                        for (double leg : route.getLegWeights())
+                            assertEquals(route.getLegWeight(0), leg);
+                        DijkstraGraph<Integer, Double> version = graph.getCurrentVersion();
+                        assertEquals(9 * version.getEdge(0, 1), version.shortestPathCost(0, 9));
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+        for (int weight = 2; weight <= 200; weight++) {
+            SnapshotIsolatedGraph<Integer, Double>.Batch batch = graph.beginBatch();
+            for (int i = 0; i < 9; i++)
+                batch.insertEdge(i, i + 1, (double) weight);
+            batch.publish();
+        }
+        done.set(true);
+        for (Thread reader : readers)
+            reader.join();
+        assertEquals(new ArrayList<Throwable>(), failures);
+        assertEquals(200, graph.getVersionNumber());
+        assertEquals(1800.0, graph.shortestPathCost(0, 9));
+        assertTrue(graph.removeNode(5));
+        assertThrows(NoSuchElementException.class, () -> graph.shortestRoute(0, 9));
+
+        // a copy has the same nodes and edges in the same order, and can be
+        // changed like any other graph
+        DijkstraGraph<Integer, Double> random = createRandomGraph(1700, 100, 500);
+        random.removeNode(50);
+        DijkstraGraph<Integer, Double> copy = random.copy();
+        assertEquals(random.getEdgeCount(), copy.getEdgeCount());
+        assertEquals(random.freeze().fingerprint(), copy.freeze().fingerprint());
+        assertTrue(copy.insertNode(100));
+        assertTrue(copy.insertEdge(1, 100, 0.5));
+        assertEquals(0.5, copy.shortestPathCost(1, 100));
+        assertFalse(random.containsNode(100));
+    }
+
+    /**
+     * This test runs delta stepping over random graphs, some with edges of
+     * weight zero, with bucket widths from far below to far above the edge
+     * weights, and checks that it finds exactly the costs of a sequential
+     * search, with every predecessor on a shortest path. It also compares
+     * parallel and sequential tree sweeps of the same graph.
+     */
+    @Test
+    public void test18() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (long seed = 1800; seed < 1806; seed++) {
+            DijkstraGraph<Integer, Double> graph = createRandomGraph(seed, 3000, 12000);
+            if (seed % 2 == 1) {
+                Random random = new Random(seed);
+                for (int i = 0; i < 3000; i++)
+                    graph.insertEdge(1 + random.nextInt(2999) / 7 * 7, 1 + random.nextInt(2999) / 7 * 7, 0.0);
+            }
+            CSRGraph<Integer> snapshot = graph.freeze();
+            int source = snapshot.indexOf(1);
+            double[] expected = new double[snapshot.getNodeCount()];
+            CSRDijkstra.search(snapshot, source, -1, false, expected, null);
+            for (double width : new double[] { 0.5, 7.0, DeltaStepping.defaultDelta(snapshot), 100.0 }) {
+                int[] parent = new int[snapshot.getNodeCount()];
+                double[] dist = new DeltaStepping(snapshot, width, pool).search(source, Double.POSITIVE_INFINITY,
+                        parent);
+                assertArrayEquals(expected, dist);
+                for (int v = 0; v < dist.length; v++) {
+                    if (v == source || dist[v] == Double.POSITIVE_INFINITY)
+                        assertEquals(-1, parent[v]);
+                    else
+                        assertEquals(dist[v], dist[parent[v]] + snapshot.edgeWeight(parent[v], v));
+                }
+            }
+        }
+        pool.shutdown();
+
+        DijkstraGraph<Integer, Double> graph = createRandomGraph(1806, 400, 2400);
+        ShortestPathTree<Integer> sequential = graph.shortestPathTree(1, 60.0);
+        graph.setParallelTreeSweeps(true);
+        graph.setDeltaSteppingWidth(5.0);
+        ShortestPathTree<Integer> parallel = graph.shortestPathTree(1, 60.0);
+        assertEquals(sequential.getReachableCount(), parallel.getReachableCount());
+        for (Integer node : sequential.getReachableNodes()) {
+            assertEquals(sequential.getCost(node), parallel.getCost(node));
+            assertEquals(node, parallel.getPath(node).get(parallel.getPath(node).size() - 1));
+        }
+        assertEquals(sequential.getCost(sequential.getFurthestNode()),
+                parallel.getCost(parallel.getFurthestNode()));
+        assertThrows(IllegalArgumentException.class, () -> graph.setDeltaSteppingWidth(-1.0));
+        assertThrows(IllegalArgumentException.class, () -> new DeltaStepping(graph.freeze(), 0.0));
+    }
 
+    /**
+     * This test interleaves point queries on a large random graph and the
+     * small test graph, which share this thread's search workspace, through
+     * both the object-based and the frozen searches, and across a wrap of
+     * the workspace's epoch. Every cost must match a distance table, which
+     * searches with its own arrays.
+     */
+    @Test
+    public void test19() {
+        DijkstraGraph<Integer, Double> large = createRandomGraph(1900, 200, 1200);
+        DijkstraGraph<String, Double> small = createTestGraph();
+        large.setPathCacheCapacity(0);
+        small.setPathCacheCapacity(0);
+        List<Integer> nodes = large.getAllNodes();
+        double[][] table = large.distanceTable(nodes, nodes);
+        large.thaw();
+        for (int round = 0; round < 3; round++) {
+            if (round == 1)
+                large.freeze();
+            else if (round == 2)
+                SearchWorkspace.begin(1).epoch = Integer.MAX_VALUE - 50;
+            for (int i = 0; i < nodes.size(); i += 3) {
+                for (int j = 0; j < nodes.size(); j += 7) {
+                    if (table[i][j] == Double.POSITIVE_INFINITY) {
+                        int start = i, end = j;
+                        assertThrows(NoSuchElementException.class,
+                                () -> large.shortestPathCost(nodes.get(start), nodes.get(end)));
+                        continue;
+                    }
+                    Route<Integer> route = large.shortestRoute(nodes.get(i), nodes.get(j));
+                    assertEquals(table[i][j], route.getTotalCost());
+                    assertEquals(nodes.get(i), route.getStart());
+                    assertEquals(route.getNodes().size(), route.getLegCount() + 1);
+                    assertEquals(9.0, small.shortestPathCost("D", "L"));
+                    assertEquals(Arrays.asList("A", "B", "M", "I", "D"), small.shortestPathData("A", "D"));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that removing a node stops counting the edges entering and
+     * leaving it, with a self loop counted once, by comparing the edge count
+     * against a recount of the edges left.
+     */
+    @Test
+    public void test20() {
+        DijkstraGraph<String, Double> graph = createTestGraph();
+        graph.insertEdge("A", "A", 1.0);
+        graph.insertEdge("D", "D", 2.0);
+        for (String removed : Arrays.asList("A", "M", "D", "Z")) {
+            graph.removeNode(removed);
+            int edges = 0;
+            for (String pred : graph.getAllNodes())
+                for (String succ : graph.getAllNodes())
+                    if (graph.containsEdge(pred, succ))
+                        edges++;
+            assertEquals(edges, graph.getEdgeCount());
+        }
+        // a node whose only edge is a self loop takes one edge with it
+        graph.insertNode("A");
+        graph.insertEdge("A", "A", 3.0);
+        int before = graph.getEdgeCount();
+        graph.removeNode("A");
+        assertEquals(before - 1, graph.getEdgeCount());
+    }
+
+    /**
+     * Tests that GraphBuilder builds the same graph as inserting each node
+     * and edge, keeping the first of repeated edges, and that clear() empties
+     * a graph so that it can be built into again.
+     */
+    @Test
+    public void test21() {
+        Random random = new Random(2400);
+        GraphBuilder<Integer> builder = new GraphBuilder<>(10, 100);
+        DijkstraGraph<Integer, Double> inserted = new DijkstraGraph<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < 300; i++) {
+            int pred = random.nextInt(60);
+            int succ = random.nextInt(60);
+            double weight = 1 + random.nextInt(100);
+            builder.addNode(pred);
+            builder.addNode(succ);
+            assertTrue(builder.addEdge(pred, succ, weight));
+            inserted.insertNode(pred);
+            inserted.insertNode(succ);
+            // the first of repeated edges is kept, as when loading a file
+            if (seen.add((long) pred << 32 | succ))
+                inserted.insertEdge(pred, succ, weight);
+        }
+        assertEquals(300, builder.getEdgeCount());
+        assertFalse(builder.addEdge(0, 60, 1.0));
+        assertThrows(IndexOutOfBoundsException.class, () -> builder.addIndexedEdge(0, 60, 1.0));
+
+        DijkstraGraph<Integer, Double> built = builder.build();
+        assertEquals(inserted.getNodeCount(), built.getNodeCount());
+        assertEquals(inserted.getEdgeCount(), built.getEdgeCount());
+        assertEquals(inserted.freeze().fingerprint(), built.freeze().fingerprint());
+        for (Integer node : inserted.getAllNodes())
+            for (Integer other : inserted.getAllNodes())
+                if (inserted.containsEdge(node, other))
+                    assertEquals(inserted.getEdge(node, other), built.getEdge(node, other));
+        assertEquals(inserted.shortestPathData(0, 59), built.shortestPathData(0, 59));
+        // a built graph can be changed like any other
+        assertTrue(built.insertEdge(0, 59, 0.5));
+        assertEquals(List.of(0, 59), built.shortestPathData(0, 59));
+        assertThrows(IllegalStateException.class, () -> builder.buildInto(built));
+
+        // a cleared graph holds nothing, and can be built into again
+        built.clear();
+        assertEquals(0, built.getNodeCount());
+        assertEquals(0, built.getEdgeCount());
+        assertThrows(NoSuchElementException.class, () -> built.shortestPathData(0, 59));
+        builder.buildInto(built);
+        assertEquals(inserted.freeze().fingerprint(), built.freeze().fingerprint());
+        assertEquals(inserted.shortestPathData(0, 59), built.shortestPathData(0, 59));
+    }
+
+    // adds the cost of every loopless path from the end of path to end
+    private static void collectPathCosts(DijkstraGraph<Integer, Double> graph, Integer node, Integer end,
+            List<Integer> path, double cost, List<Double> costs) {
+        if (node.equals(end)) {
+            costs.add(cost);
+            return;
+        }
+        for (Integer next : graph.getAllNodes()) {
+            if (!path.contains(next) && graph.containsEdge(node, next)) {
+                path.add(next);
+                collectPathCosts(graph, next, end, path, cost + graph.getEdge(node, next), costs);
+                path.remove(path.size() - 1);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,131 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This DistanceTable class computes the costs of the shortest paths from each
+ * of a list of source nodes to each of a list of target nodes in a snapshot.
+ * It runs one Dijkstra search per source, and each search stops as soon as
+ * every target has been settled, instead of settling the whole graph. The
+ * searches are spread across all cores with a ForkJoinPool, and each one
+ * writes only its own row of the result.
+ */
+public class DistanceTable {
+
+    // the number of sources that each fork join task handles without splitting
+    private static final int SOURCES_PER_TASK = 4;
+
+    protected final CSRGraph<?> graph;
+    protected final int[] sources;
+    protected final int[] targets;
+    // isTarget[v] is true when node v is one of the targets
+    protected final boolean[] isTarget;
+    // the number of distinct nodes among the targets
+    protected final int distinctTargets;
+    // costs[i][j] is the cost from sources[i] to targets[j]
+    protected final double[][] costs;
+
+    /**
+     * Computes the table for the provided sources and targets, using the
+     * common ForkJoinPool.
+     *
+     * @param graph   the snapshot to search
+     * @param sources the indices of the nodes that paths start from
+     * @param targets the indices of the nodes that paths end at
+     * @return a matrix with the cost from sources[i] to targets[j] at [i][j],
+     *         or Double.POSITIVE_INFINITY when there is no such path
+     */
+    public static double[][] compute(CSRGraph<?> graph, int[] sources, int[] targets) {
+        return compute(graph, sources, targets, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes the table for the provided sources and targets, running the
+     * searches on a pool.
+     *
+     * @param graph   the snapshot to search
+     * @param sources the indices of the nodes that paths start from
+     * @param targets the indices of the nodes that paths end at
+     * @param pool    the pool to run one search per source on
+     * @return a matrix with the cost from sources[i] to targets[j] at [i][j],
+     *         or Double.POSITIVE_INFINITY when there is no such path
+     */
+    public static double[][] compute(CSRGraph<?> graph, int[] sources, int[] targets,
+            ForkJoinPool pool) {
+        DistanceTable table = new DistanceTable(graph, sources, targets);
+        if (sources.length > 0)
+            pool.invoke(table.new SourceRange(0, sources.length));
+        return table.costs;
+    }
+
+    // sets up an empty table, which compute() then fills in
+    private DistanceTable(CSRGraph<?> graph, int[] sources, int[] targets) {
+        this.graph = graph;
+        this.sources = sources;
+        this.targets = targets;
+        this.isTarget = new boolean[graph.getNodeCount()];
+        int distinct = 0;
+        for (int target : targets) {
+            if (!isTarget[target]) {
+                isTarget[target] = true;
+                distinct++;
+            }
+        }
+        this.distinctTargets = distinct;
+        this.costs = new double[sources.length][targets.length];
+    }
+
+    // fills the rows of the table for a range of sources, splitting the range
+    // in half until it is small enough to search sequentially
+    private class SourceRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int from;
+        private final int to;
+
+        public SourceRange(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SOURCES_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new SourceRange(from, mid), new SourceRange(mid, to));
+                return;
+            }
+            // each task reuses one set of search arrays for all of its sources
+            double[] dist = new double[graph.getNodeCount()];
+            IndexedDaryHeap heap = new IndexedDaryHeap(graph.getNodeCount());
+            for (int i = from; i < to; i++)
+                fillRow(i, dist, heap);
+        }
+    }
+
+    // searches from one source until every target is settled, then copies
+    // the costs to the targets into that source's row
+    private void fillRow(int row, double[] dist, IndexedDaryHeap heap) {
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        int source = sources[row];
+        dist[source] = 0.0;
+        heap.insertOrDecrease(source, 0.0);
+        int remaining = distinctTargets;
+        while (!heap.isEmpty() && remaining > 0) {
+            int u = heap.poll();
+            if (isTarget[u] && --remaining == 0)
+                break;
+            for (int e = graph.outOffsets[u]; e < graph.outOffsets[u + 1]; e++) {
+                int v = graph.outTargets[e];
+                double cost = dist[u] + graph.outWeights[e];
+                if (cost < dist[v]) {
+                    dist[v] = cost;
+                    heap.insertOrDecrease(v, cost);
+                }
+            }
+        }
+        heap.clear();
+        for (int j = 0; j < targets.length; j++)
+            costs[row][j] = dist[targets[j]];
+    }
+
+}
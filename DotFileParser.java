@@ -0,0 +1,684 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This DotFileParser class reads the edges of a DOT file like campus.dot, in
+ * which every edge is on its own line in the form
+ * "Memorial Union" -> "Science Hall" [seconds=105.8];
+ * and lines holding a curly brace open or close the graph. The file is
+ * memory-mapped and its bytes are scanned once, without splitting it into
+ * line Strings. Location names are matched against the names already seen
+ * by their bytes, so a String is only created for each distinct name, and
+ * weights are read straight from the bytes whenever that gives exactly the
+ * value that Double.parseDouble() would.
+ *
+ * Each distinct name gets an id, in the order the names first appear, and
+ * the edges are kept in flat arrays of ids and weights. When the same edge
+ * appears more than once, only its first weight is kept, just as loading the
+ * file edge by edge into a graph would.
+ *
+ * A line that does not have the expected form is reported with a
+ * ParseException, which holds the line and column where parsing failed.
+ */
+public class DotFileParser {
+
+    // the most bytes of a file that are mapped at once
+    protected static final long REGION_SIZE = 1L << 30;
+    // the fewest bytes that a chunk of a parallel parse is split at
+    protected static final long MIN_CHUNK_BYTES = 1L << 20;
+    // the largest integer that every smaller one is exactly a double
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    // powers of ten that are exactly doubles
+    private static final double[] POWERS_OF_TEN = new double[23];
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++)
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10.0;
+    }
+
+    /**
+     * This ParseException class reports a line of a DOT file that does not
+     * have the expected form, along with where on that line parsing failed.
+     */
+    public static class ParseException extends IOException {
+        private static final long serialVersionUID = 1L;
+        private final String problem;
+        private final long line;
+        private final int column;
+
+        /**
+         * Creates an exception for a problem at a position in a file.
+         *
+         * @param problem the message of the problem, without its position
+         * @param line    the number of the line, starting at 1
+         * @param column  the number of the character on the line, starting at 1
+         */
+        public ParseException(String problem, long line, int column) {
+            super(problem + " (line " + line + ", column " + column + ")");
+            this.problem = problem;
+            this.line = line;
+            this.column = column;
+        }
+
+        /**
+         * Returns the message of the problem, without its position.
+         *
+         * @return the problem that was found
+         */
+        public String getProblem() {
+            return problem;
+        }
+
+        /**
+         * Returns the number of the line that could not be parsed.
+         *
+         * @return the line number, starting at 1
+         */
+        public long getLine() {
+            return line;
+        }
+
+        /**
+         * Returns the number of the character on the line where parsing failed.
+         *
+         * @return the column number, starting at 1
+         */
+        public int getColumn() {
+            return column;
+        }
+    }
+
+    // the distinct names, by id, along with their bytes and hash codes
+    protected String[] names = new String[64];
+    protected byte[][] nameBytes = new byte[64][];
+    protected int[] nameHashes = new int[64];
+    protected int nameCount = 0;
+    // an open addressing table of name ids plus one, with 0 for empty slots
+    private int[] nameSlots = new int[128];
+
+    // edge i goes from node edgeSources[i] to node edgeTargets[i]
+    protected int[] edgeSources = new int[256];
+    protected int[] edgeTargets = new int[256];
+    protected double[] edgeWeights = new double[256];
+    protected int edgeCount = 0;
+    // an open addressing set of the edges kept so far, as source << 32 | target,
+    // with -1 for empty slots
+    private long[] pairSlots = newPairSlots(512);
+    private int pairCount = 0;
+
+    // the number of the line being parsed, and the position where it starts
+    protected long line = 0;
+    private int lineStart;
+    // the bytes of the name being read, with escapes decoded
+    private byte[] scratch = new byte[64];
+    private int scratchLength;
+
+    /**
+     * Parses a whole DOT file.
+     *
+     * @param filename the path to the file
+     * @return a parser holding the names and edges of the file
+     * @throws IOException if the file does not exist or is empty, if a line
+     *                     does not have the expected form (as a
+     *                     ParseException), or if the file cannot be read
+     */
+    public static DotFileParser parse(String filename) throws IOException {
+        DotFileParser parser = new DotFileParser();
+        parser.parseFile(Paths.get(filename));
+        return parser;
+    }
+
+    /**
+     * Parses a whole DOT file, adding its names and edges to those already
+     * held by this parser.
+     *
+     * @param path the path to the file
+     * @throws IOException if the file does not exist or is empty, if a line
+     *                     does not have the expected form (as a
+     *                     ParseException), or if the file cannot be read
+     */
+    public void parseFile(Path path) throws IOException {
+        if (!Files.exists(path))
+            throw new IOException("The file does not exist.");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0)
+                throw new IOException("The file is empty.");
+            long position = 0;
+            while (position < size) {
+                long length = Math.min(REGION_SIZE, size - position);
+                boolean last = position + length == size;
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int parsed = parseLines(region, 0, (int) length, last);
+                // a line cut off by the end of a region is parsed again from
+                // the start of the next one
+                if (parsed == 0 && !last)
+                    throw new ParseException("The line is too long.", line + 1, 1);
+                position += parsed;
+            }
+        } catch (NoSuchFileException e) {
+            throw new IOException("The file does not exist.");
+        }
+    }
+
+    /**
+     * Parses a whole DOT file on every core of the common ForkJoinPool. The
+     * result, and any exception thrown, is the same as for parse().
+     *
+     * @param filename the path to the file
+     * @return a parser holding the names and edges of the file
+     * @throws IOException if the file does not exist or is empty, if a line
+     *                     does not have the expected form (as a
+     *                     ParseException), or if the file cannot be read
+     */
+    public static DotFileParser parseParallel(String filename) throws IOException {
+        return parseParallel(Paths.get(filename), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parses a whole DOT file in parallel. The file is split into chunks at
+     * line breaks, and each chunk is mapped and parsed into its own names and
+     * edges by a separate parser. The chunks are then merged in file order,
+     * which gives every name the same id and keeps the same first copy of
+     * each edge as parsing the file from start to end would. When lines are
+     * malformed, the one that comes first in the file is reported, with its
+     * line number within the whole file.
+     *
+     * @param path the path to the file
+     * @param pool the pool to parse chunks on
+     * @return a parser holding the names and edges of the file
+     * @throws IOException if the file does not exist or is empty, if a line
+     *                     does not have the expected form (as a
+     *                     ParseException), or if the file cannot be read
+     */
+    public static DotFileParser parseParallel(Path path, ForkJoinPool pool) throws IOException {
+        if (!Files.exists(path))
+            throw new IOException("The file does not exist.");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0)
+                throw new IOException("The file is empty.");
+            long[] bounds = splitLines(channel, size, pool.getParallelism());
+            int chunkCount = bounds.length - 1;
+            DotFileParser[] chunks = new DotFileParser[chunkCount];
+            IOException[] failures = new IOException[chunkCount];
+            pool.invoke(new ChunkRange(channel, bounds, chunks, failures, 0, chunkCount));
+
+            DotFileParser merged = new DotFileParser();
+            for (int c = 0; c < chunkCount; c++) {
+                // every chunk before this one parsed, so the lines before it
+                // have all been counted
+                if (failures[c] instanceof ParseException) {
+                    ParseException e = (ParseException) failures[c];
+                    throw new ParseException(e.getProblem(), merged.line + e.getLine(), e.getColumn());
+                }
+                if (failures[c] != null)
+                    throw failures[c];
+                merged.merge(chunks[c]);
+            }
+            return merged;
+        } catch (NoSuchFileException e) {
+            throw new IOException("The file does not exist.");
+        }
+    }
+
+    // finds where the chunks of a parallel parse begin, which is always at
+    // the start of a line, followed by the size of the file
+    private static long[] splitLines(FileChannel channel, long size, int parallelism) throws IOException {
+        // a few chunks per core even out chunks that parse slowly
+        long target = Math.min(REGION_SIZE, Math.max(MIN_CHUNK_BYTES, size / (4L * parallelism) + 1));
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long next = target;
+        while (next < size) {
+            // a chunk starts after the first line break at or after next-1
+            long position = next - 1;
+            long start = -1;
+            while (start == -1 && position < size) {
+                probe.clear();
+                int read = channel.read(probe, position);
+                for (int i = 0; i < read && start == -1; i++)
+                    if (probe.get(i) == '\n')
+                        start = position + i + 1;
+                position += Math.max(read, 1);
+            }
+            if (start == -1 || start >= size)
+                break;
+            if (start - bounds.get(bounds.size() - 1) > Integer.MAX_VALUE)
+                throw new IOException("The line is too long.");
+            bounds.add(start);
+            next = start + target;
+        }
+        bounds.add(size);
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = bounds.get(i);
+        return result;
+    }
+
+    // maps and parses a range of chunks, splitting the range in half until
+    // it holds a single chunk
+    private static class ChunkRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final FileChannel channel;
+        private final long[] bounds;
+        private final DotFileParser[] chunks;
+        private final IOException[] failures;
+        private final int from;
+        private final int to;
+
+        public ChunkRange(FileChannel channel, long[] bounds, DotFileParser[] chunks, IOException[] failures,
+                int from, int to) {
+            this.channel = channel;
+            this.bounds = bounds;
+            this.chunks = chunks;
+            this.failures = failures;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ChunkRange(channel, bounds, chunks, failures, from, mid),
+                        new ChunkRange(channel, bounds, chunks, failures, mid, to));
+                return;
+            }
+            DotFileParser parser = new DotFileParser();
+            try {
+                int length = (int) (bounds[from + 1] - bounds[from]);
+                ByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, bounds[from], length);
+                parser.parseLines(chunk, 0, length, true);
+                chunks[from] = parser;
+            } catch (IOException e) {
+                failures[from] = e;
+            }
+        }
+    }
+
+    // adds the names and edges of a parser that read the part of the same
+    // file right after the part this parser has read
+    private void merge(DotFileParser other) {
+        int[] ids = new int[other.nameCount];
+        for (int id = 0; id < other.nameCount; id++)
+            ids[id] = intern(other.nameBytes[id], other.nameBytes[id].length, other.nameHashes[id], other.names[id]);
+        for (int e = 0; e < other.edgeCount; e++)
+            addEdge(ids[other.edgeSources[e]], ids[other.edgeTargets[e]], other.edgeWeights[e]);
+        line += other.line;
+    }
+
+    /**
+     * Parses the whole lines within a range of a buffer. When the range is
+     * not the end of its input, a last line with no line break after it is
+     * left unparsed.
+     *
+     * @param buffer the bytes to parse
+     * @param from   the index of the first byte of the first line
+     * @param to     the index after the last byte of the range
+     * @param last   true if the range ends its input, so its last line is
+     *               whole even without a line break
+     * @return the index after the last line that was parsed
+     * @throws ParseException if a line does not have the expected form
+     */
+    public int parseLines(ByteBuffer buffer, int from, int to, boolean last) throws ParseException {
+        int start = from;
+        while (start < to) {
+            int end = start;
+            while (end < to && buffer.get(end) != '\n')
+                end++;
+            if (end == to && !last)
+                return start;
+            line++;
+            lineStart = start;
+            parseLine(buffer, start, end);
+            start = end + 1;
+        }
+        return to;
+    }
+
+    // parses one line, from its start to the index of its line break
+    private void parseLine(ByteBuffer buffer, int start, int end) throws ParseException {
+        int i = skipSpace(buffer, start, end);
+        if (i == end)
+            return;
+        if (buffer.get(i) != '"') {
+            // the lines that open and close the graph hold no edges
+            for (int j = i; j < end; j++) {
+                byte b = buffer.get(j);
+                if (b == '{' || b == '}')
+                    return;
+            }
+            throw error(buffer, i, "The format of the file is invalid: expected a quoted location name.");
+        }
+
+        i = readName(buffer, i, end);
+        int source = intern();
+        i = expect(buffer, skipSpace(buffer, i, end), end, "->");
+        i = skipSpace(buffer, i, end);
+        if (i == end || buffer.get(i) != '"')
+            throw error(buffer, i, "The format of the file is invalid: expected a quoted location name.");
+        i = readName(buffer, i, end);
+        int target = intern();
+        i = expect(buffer, skipSpace(buffer, i, end), end, "[");
+        i = expect(buffer, skipSpace(buffer, i, end), end, "seconds");
+        i = expect(buffer, skipSpace(buffer, i, end), end, "=");
+        i = skipSpace(buffer, i, end);
+        int weightStart = i;
+        while (i < end && !isSpace(buffer.get(i)) && buffer.get(i) != ']' && buffer.get(i) != ';')
+            i++;
+        if (i == weightStart)
+            throw error(buffer, i, "The weight of the edge is not given.");
+        double weight = readWeight(buffer, weightStart, i);
+        i = expect(buffer, skipSpace(buffer, i, end), end, "]");
+        i = skipSpace(buffer, i, end);
+        if (i < end && buffer.get(i) == ';')
+            i = skipSpace(buffer, i + 1, end);
+        if (i < end)
+            throw error(buffer, i, "The format of the file is invalid: expected the end of the line.");
+        addEdge(source, target, weight);
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    private static int skipSpace(ByteBuffer buffer, int i, int end) {
+        while (i < end && isSpace(buffer.get(i)))
+            i++;
+        return i;
+    }
+
+    // checks that the bytes at i spell out token, and returns the index after it
+    private int expect(ByteBuffer buffer, int i, int end, String token) throws ParseException {
+        for (int k = 0; k < token.length(); k++)
+            if (i + k >= end || buffer.get(i + k) != token.charAt(k))
+                throw error(buffer, i, "The format of the file is invalid: expected \"" + token + "\".");
+        return i + token.length();
+    }
+
+    // copies the quoted name starting at i into scratch, decoding escaped
+    // quotes and backslashes, and returns the index after its closing quote
+    private int readName(ByteBuffer buffer, int i, int end) throws ParseException {
+        int open = i;
+        int length = 0;
+        for (i++; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '"') {
+                scratchLength = length;
+                return i + 1;
+            }
+            if (b == '\\' && i + 1 < end && (buffer.get(i + 1) == '"' || buffer.get(i + 1) == '\\'))
+                b = buffer.get(++i);
+            if (length == scratch.length)
+                scratch = Arrays.copyOf(scratch, length * 2);
+            scratch[length++] = b;
+        }
+        throw error(buffer, open, "The format of the file is invalid: the location name is never closed.");
+    }
+
+    // finds the id of the name in scratch, giving it a new id if it is new
+    private int intern() {
+        int hash = 0;
+        for (int k = 0; k < scratchLength; k++)
+            hash = 31 * hash + scratch[k];
+        return intern(scratch, scratchLength, hash, null);
+    }
+
+    // finds the id of the name whose bytes are the first length of bytes,
+    // giving it a new id if it is new, along with the name as a String when
+    // that is already known
+    private int intern(byte[] bytes, int length, int hash, String name) {
+        int mask = nameSlots.length - 1;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (nameSlots[slot] != 0) {
+            int id = nameSlots[slot] - 1;
+            if (nameHashes[id] == hash && Arrays.equals(nameBytes[id], 0, nameBytes[id].length, bytes, 0, length))
+                return id;
+            slot = (slot + 1) & mask;
+        }
+        // bytes that come with their name belong to another parser, which
+        // never changes them, while scratch is reused for the next name
+        int id = name != null ? addName(name, bytes, hash)
+                : addName(new String(bytes, 0, length, StandardCharsets.UTF_8), Arrays.copyOf(bytes, length), hash);
+        nameSlots[slot] = id + 1;
+        if (nameCount * 2 > nameSlots.length)
+            rehashNames(nameSlots.length * 2);
+        return id;
+    }
+
+    // stores a new name, and returns its id
+    private int addName(String name, byte[] bytes, int hash) {
+        if (nameCount == names.length) {
+            names = Arrays.copyOf(names, nameCount * 2);
+            nameBytes = Arrays.copyOf(nameBytes, nameCount * 2);
+            nameHashes = Arrays.copyOf(nameHashes, nameCount * 2);
+        }
+        names[nameCount] = name;
+        nameBytes[nameCount] = bytes;
+        nameHashes[nameCount] = hash;
+        return nameCount++;
+    }
+
+    private void rehashNames(int slotCount) {
+        nameSlots = new int[slotCount];
+        int mask = slotCount - 1;
+        for (int id = 0; id < nameCount; id++) {
+            int slot = (nameHashes[id] ^ (nameHashes[id] >>> 16)) & mask;
+            while (nameSlots[slot] != 0)
+                slot = (slot + 1) & mask;
+            nameSlots[slot] = id + 1;
+        }
+    }
+
+    // reads the weight between from and to, straight from the bytes when it
+    // is a plain decimal whose digits and scale are exact as doubles, since
+    // one division of exact doubles then rounds just like parseDouble() does
+    private double readWeight(ByteBuffer buffer, int from, int to) throws ParseException {
+        long mantissa = 0;
+        int digits = 0;
+        int scale = -1;
+        boolean plain = true;
+        for (int i = from; i < to && plain; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                if (++digits > 18)
+                    plain = false;
+                mantissa = mantissa * 10 + (b - '0');
+                if (scale >= 0)
+                    scale++;
+            } else if (b == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                plain = false;
+            }
+        }
+        if (plain && digits > 0 && mantissa <= MAX_EXACT_MANTISSA && scale < POWERS_OF_TEN.length)
+            return scale <= 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+
+        byte[] bytes = new byte[to - from];
+        for (int i = from; i < to; i++)
+            bytes[i - from] = buffer.get(i);
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw error(buffer, from, "The weight of the edge is not in the correct data type: \"" + text + "\".");
+        }
+    }
+
+    // keeps an edge unless the same edge was already kept
+    private void addEdge(int source, int target, double weight) {
+        long pair = (long) source << 32 | target;
+        int mask = pairSlots.length - 1;
+        int slot = (int) (pair ^ (pair >>> 29)) * 0x9E3779B9 & mask;
+        while (pairSlots[slot] != -1) {
+            if (pairSlots[slot] == pair)
+                return;
+            slot = (slot + 1) & mask;
+        }
+        pairSlots[slot] = pair;
+        if (++pairCount * 2 > pairSlots.length)
+            rehashPairs(pairSlots.length * 2);
+
+        if (edgeCount == edgeSources.length) {
+            edgeSources = Arrays.copyOf(edgeSources, edgeCount * 2);
+            edgeTargets = Arrays.copyOf(edgeTargets, edgeCount * 2);
+            edgeWeights = Arrays.copyOf(edgeWeights, edgeCount * 2);
+        }
+        edgeSources[edgeCount] = source;
+        edgeTargets[edgeCount] = target;
+        edgeWeights[edgeCount] = weight;
+        edgeCount++;
+    }
+
+    private static long[] newPairSlots(int slotCount) {
+        long[] slots = new long[slotCount];
+        Arrays.fill(slots, -1L);
+        return slots;
+    }
+
+    private void rehashPairs(int slotCount) {
+        long[] old = pairSlots;
+        pairSlots = newPairSlots(slotCount);
+        int mask = slotCount - 1;
+        for (long pair : old) {
+            if (pair == -1)
+                continue;
+            int slot = (int) (pair ^ (pair >>> 29)) * 0x9E3779B9 & mask;
+            while (pairSlots[slot] != -1)
+                slot = (slot + 1) & mask;
+            pairSlots[slot] = pair;
+        }
+    }
+
+    // creates an exception for the character at index i of the current line
+    private ParseException error(ByteBuffer buffer, int i, String problem) {
+        // UTF-8 continuation bytes do not start a new character
+        int column = 1;
+        for (int k = lineStart; k < i; k++)
+            if ((buffer.get(k) & 0xC0) != 0x80)
+                column++;
+        return new ParseException(problem, line, column);
+    }
+
+    /**
+     * Returns the number of distinct location names parsed.
+     *
+     * @return the number of names
+     */
+    public int getNodeCount() {
+        return nameCount;
+    }
+
+    /**
+     * Returns the location name with an id.
+     *
+     * @param id the id of the name, from 0 to getNodeCount()-1
+     * @return the name
+     */
+    public String getName(int id) {
+        return names[id];
+    }
+
+    /**
+     * Returns every location name, in the order they first appear.
+     *
+     * @return a list of the names, by id
+     */
+    public List<String> getNames() {
+        return Arrays.asList(Arrays.copyOf(names, nameCount));
+    }
+
+    /**
+     * Returns the number of distinct edges parsed.
+     *
+     * @return the number of edges
+     */
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Returns the id of the name an edge leaves from.
+     *
+     * @param edge the index of the edge, in the order edges first appear
+     * @return the id of its predecessor's name
+     */
+    public int getEdgeSource(int edge) {
+        return edgeSources[edge];
+    }
+
+    /**
+     * Returns the id of the name an edge leads to.
+     *
+     * @param edge the index of the edge, in the order edges first appear
+     * @return the id of its successor's name
+     */
+    public int getEdgeTarget(int edge) {
+        return edgeTargets[edge];
+    }
+
+    /**
+     * Returns the weight of an edge.
+     *
+     * @param edge the index of the edge, in the order edges first appear
+     * @return its weight in seconds
+     */
+    public double getEdgeWeight(int edge) {
+        return edgeWeights[edge];
+    }
+
+    /**
+     * Builds an immutable CSR snapshot of the parsed names and edges, in which
+     * the index of each node is the id of its name.
+     *
+     * @return a new snapshot of the parsed graph
+     */
+    public CSRGraph<String> toSnapshot() {
+        return new CSRGraph<>(Arrays.copyOf(names, nameCount, Object[].class), edgeSources, edgeTargets,
+                edgeWeights, edgeCount);
+    }
+
+    /**
+     * Emits every parsed name and edge into an empty graph in one step. The
+     * names already have dense ids and the edges hold no repeats, so they are
+     * loaded as they are, and the index of each node is the id of its name.
+     *
+     * @param graph the empty graph to fill
+     * @throws IllegalStateException if the graph is not empty
+     */
+    public void buildInto(BaseGraph<String, Double> graph) {
+        graph.load(getNames(), edgeCount, edgeSources, edgeTargets, e -> edgeWeights[e]);
+    }
+
+    /**
+     * Inserts every parsed name and edge into a graph, in the order they first
+     * appear in the file. Names that the graph already holds are not
+     * inserted again.
+     *
+     * @param graph the graph to insert into
+     */
+    public void loadInto(GraphADT<String, Double> graph) {
+        for (int id = 0; id < nameCount; id++)
+            if (!graph.containsNode(names[id]))
+                graph.insertNode(names[id]);
+        for (int e = 0; e < edgeCount; e++)
+            graph.insertEdge(names[edgeSources[e]], names[edgeTargets[e]], edgeWeights[e]);
+    }
+
+}
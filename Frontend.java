@@ -1,4 +1,5 @@
 import java.util.List;
+import java.util.NoSuchElementException;
 
 public class Frontend implements FrontendInterface{
 
@@ -53,10 +54,11 @@ public class Frontend implements FrontendInterface{
      */
     @Override
     public String generateShortestPathResponseHTML(String start, String end) {
-        List<String> locations = backend.findLocationsOnShortestPath(start, end);
-        List<Double> times = backend.findTimesOnShortestPath(start, end);
-
-        if (locations == null || locations.isEmpty()) {
+        // the locations, leg times, and total time all come from one search
+        Route<String> route;
+        try {
+            route = backend.findShortestRoute(start, end);
+        } catch (NoSuchElementException e) {
             return "<p>No path found between " + start + " and " + end + ".</p>";
         }
 
@@ -64,20 +66,16 @@ public class Frontend implements FrontendInterface{
         html.append("<p>Shortest path from " + start + " to " + end + ":</p>");
 
         html.append("<ol>\n");
-        for (String loc : locations) {
+        for (String loc : route.getNodes()) {
             html.append("<li>" + loc + "</li>\n");
         }
         html.append("</ol>\n");
 
-        if (times == null || times.isEmpty()) {
+        if (route.getLegCount() == 0) {
             return "<p>There is no travel time found between " + start + " and " + end + ".</p>";
         }
         else{
-            double totalTime = 0.0;
-            for (Double t : times) {
-                totalTime += t;
-            }
-            html.append("<p>Total travel time: " + totalTime + " seconds</p>");
+            html.append("<p>Total travel time: " + route.getTotalCost() + " seconds</p>");
         }
 
         return html.toString();
@@ -99,6 +97,8 @@ public class Frontend implements FrontendInterface{
     public String generateFurthestDestinationFromPromptHTML() {
         StringBuilder html = new StringBuilder();
         html.append("<input type='text' id='from' placeholder='Enter the starting location:'>");
+        // optional time limit, to list everything reachable within it instead
+        html.append("<input type='text' id='time' placeholder='Optional time limit in seconds:'>");
         html.append("<button type='button' id='findFurthest'>Furthest Destination From</button>");
         return html.toString();
     }
@@ -120,14 +120,15 @@ public class Frontend implements FrontendInterface{
     public String generateFurthestDestinationFromResponseHTML(String start) {
         StringBuilder html = new StringBuilder();
         html.append("<p>Searching furthest destination from " + start + "...</p>");
-        String furthest = backend.getFurthestDestinationFrom(start);
-        if (furthest == null || furthest.isEmpty()) {
+        // the destination is the last location on the path to it
+        List<String> locations = backend.findPathToFurthestDestinationFrom(start);
+        if (locations == null || locations.isEmpty()) {
             return "<p>No furthest destination found from " + start + ".</p>";
         }
+        String furthest = locations.get(locations.size() - 1);
         html.append("<p>Furthest destination from " + start + " is " + furthest + ".</p>");
         html.append("<p>Locations on the path between " + start + " and " + furthest + ":</p>");
         html.append("<ol>\n");
-        List<String> locations = backend.findLocationsOnShortestPath(start, furthest);
         for (String loc : locations) {
             html.append("<li>" + loc + "</li>\n");
         }
@@ -135,5 +136,52 @@ public class Frontend implements FrontendInterface{
 
         return html.toString();
     }
-}
 
+    /**
+     * Returns an HTML fragment that can be embedded within the body of a
+     * larger html page.  This HTML output should include:
+     * - a paragraph (p) that describes the start location and time limit
+     * - an ordered list (ol) of the locations that can be reached from there
+     *   within that time, sorted by arrival time, along with those times
+     * Or if the start location or time limit is not valid, the HTML returned
+     * should instead indicate the kind of problem encountered.
+     *
+     * @param start   is the starting location to walk from
+     * @param seconds is the time limit in seconds, as the user entered it
+     * @return an HTML string that describes the locations that can be reached
+     * from the start location within that time
+     */
+    @Override
+    public String generateLocationsWithinTimeResponseHTML(String start, String seconds) {
+        double limit;
+        try {
+            limit = Double.parseDouble(seconds.trim());
+        } catch (NumberFormatException e) {
+            return "<p>" + seconds + " is not a valid number of seconds.</p>";
+        }
+
+        ShortestPathTree<String> tree;
+        try {
+            tree = backend.findLocationsWithinTime(start, limit);
+        } catch (NoSuchElementException e) {
+            return "<p>No location named " + start + " was found.</p>";
+        } catch (IllegalArgumentException e) {
+            return "<p>" + seconds + " is not a valid number of seconds.</p>";
+        }
+
+        // the start location is always first, and is not listed
+        List<String> locations = tree.getReachableNodes();
+        if (locations.size() < 2) {
+            return "<p>No locations can be reached from " + start + " within " + limit + " seconds.</p>";
+        }
+        StringBuilder html = new StringBuilder();
+        html.append("<p>Locations reachable from " + start + " within " + limit + " seconds:</p>");
+        html.append("<ol>\n");
+        for (String loc : locations.subList(1, locations.size())) {
+            html.append("<li>" + loc + " (" + tree.getCost(loc) + " seconds)</li>\n");
+        }
+        html.append("</ol>\n");
+
+        return html.toString();
+    }
+}
@@ -51,9 +51,10 @@ public interface FrontendInterface {
      * Returns an HTML fragment that can be embedded within the body of a
      * larger html page.  This HTML output should include:
      * - a text input field with the id="from", for the start location
+     * - a text input field with the id="time", for an optional time limit
      * - a button labelled "Furthest Destination From" to submit this request
-     * Ensure that this text field is clearly labelled, so that the user
-     * can understand how to use it.
+     * Ensure that these text fields are clearly labelled, so that the user
+     * can understand how to use them.
      * @return an HTML string that contains input controls that the user can
      *         make use of to request a furthest destination calculation
      */
@@ -72,5 +73,20 @@ public interface FrontendInterface {
      *        specified start location
      */
     public String generateFurthestDestinationFromResponseHTML(String start);
+
+    /**
+     * Returns an HTML fragment that can be embedded within the body of a
+     * larger html page.  This HTML output should include:
+     * - a paragraph (p) that describes the start location and time limit
+     * - an ordered list (ol) of the locations that can be reached from there
+     *   within that time, sorted by arrival time, along with those times
+     * Or if the start location or time limit is not valid, the HTML returned
+     * should instead indicate the kind of problem encountered.
+     * @param start is the starting location to walk from
+     * @param seconds is the time limit in seconds, as the user entered it
+     * @return an HTML string that describes the locations that can be reached
+     *        from the start location within that time
+     */
+    public String generateLocationsWithinTimeResponseHTML(String start, String seconds);
  
 }
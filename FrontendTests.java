@@ -58,5 +58,23 @@ public class FrontendTests {
         assertTrue(responseHtml.contains("<li>Weeks Hall for Geological Sciences</li>"));
         assertTrue(responseHtml.contains("</ol>"));
     }
-}
 
+    /**
+     * Test that the furthest destination prompt includes the optional time field, and that
+     * generateLocationsWithinTimeResponseHTML lists only the placeholder locations within the
+     * time limit, or describes the problem with an invalid time limit.
+     */
+    @Test
+    public void roleTest4() {
+        Frontend frontend = new Frontend(new Backend_Placeholder(new Graph_Placeholder()));
+        assertTrue(frontend.generateFurthestDestinationFromPromptHTML().contains("id='time'"));
+
+        String html = frontend.generateLocationsWithinTimeResponseHTML("Union South", "1");
+        assertTrue(html.contains("<p>Locations reachable from Union South within 1.0 seconds:</p>"));
+        assertTrue(html.contains("<li>Computer Sciences and Statistics (1.0 seconds)</li>"));
+        assertFalse(html.contains("Weeks Hall for Geological Sciences"));
+
+        assertTrue(frontend.generateLocationsWithinTimeResponseHTML("Union South", "soon").contains("not a valid number"));
+        assertTrue(frontend.generateLocationsWithinTimeResponseHTML("Union South", "-5").contains("not a valid number"));
+    }
+}
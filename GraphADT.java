@@ -137,5 +137,65 @@ public interface GraphADT<NodeType, EdgeType extends Number> {
    *         start node to the end node
    */
   public double shortestPathCost(NodeType start, NodeType end);
+
+  /**
+   * Returns the shortest path from the node containing the start data to the
+   * node containing the end data as a Route.  The route holds the data of the
+   * nodes along the path, the weight of each edge (leg) between them, and the
+   * total cost of the path, all found by a single search.
+   *
+   * @param start the data item in the starting node for the path
+   * @param end the data item in the destination node for the path
+   * @return the shortest route between these nodes
+   * @throws NoSuchElementException if either the start or end node cannot
+   *         be found in the graph, or if there is no directed path from the
+   *         start node to the end node
+   */
+  public Route<NodeType> shortestRoute(NodeType start, NodeType end);
+
+  /**
+   * Returns up to k different routes from the node containing the start data
+   * to the node containing the end data, ordered from the shortest route to
+   * the most costly.  No route visits any node more than once, and fewer than
+   * k routes are returned when there are not that many such routes.
+   *
+   * @param start the data item in the starting node for the routes
+   * @param end the data item in the destination node for the routes
+   * @param k the most routes to return
+   * @return list of the k shortest routes between these nodes
+   * @throws IllegalArgumentException if k is less than 1
+   * @throws NoSuchElementException if either the start or end node cannot
+   *         be found in the graph, or if there is no directed path from the
+   *         start node to the end node
+   */
+  public List<Route<NodeType>> kShortestRoutes(NodeType start, NodeType end, int k);
+
+  /**
+   * Returns the shortest path tree rooted at the node containing the start 
+   * data. This tree holds the cost of the shortest path from start to every
+   * node that can be reached from it, and the predecessor of each of those
+   * nodes along its shortest path, all computed by a single search.
+   *
+   * @param start the data item in the root node of the tree
+   * @return the shortest path tree from start
+   * @throws NoSuchElementException if the start node cannot be found in the
+   *         graph
+   */
+  public ShortestPathTree<NodeType> shortestPathTree(NodeType start);
+
+  /**
+   * Returns the part of the shortest path tree rooted at the node containing
+   * the start data that lies within maxCost of start.  The tree holds every
+   * node whose shortest path from start costs at most maxCost, in order of
+   * increasing cost, and the search stops once it has found all of them.
+   *
+   * @param start the data item in the root node of the tree
+   * @param maxCost the highest path cost to include nodes at
+   * @return the shortest path tree from start, limited to maxCost
+   * @throws NoSuchElementException if the start node cannot be found in the
+   *         graph
+   * @throws IllegalArgumentException if maxCost is negative or NaN
+   */
+  public ShortestPathTree<NodeType> shortestPathTree(NodeType start, double maxCost);
     
 }
@@ -0,0 +1,206 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This GraphBuilder class builds a BaseGraph or DijkstraGraph from many nodes
+ * and edges at once, such as those of a DOT file. Building a graph through
+ * insertNode() and insertEdge() looks for a repeat on every call, and grows
+ * the node map many times along the way. A GraphBuilder instead numbers the
+ * nodes in a map sized for the expected number of nodes, and keeps the edges
+ * in flat arrays of node indices and weights sized for the expected number of
+ * edges. When the graph is built, repeated edges are found with one sort of
+ * each node's edges, and every node and edge is then emitted into the graph
+ * in one step.
+ *
+ * As when loading a DOT file, the first of several edges between the same two
+ * nodes is kept, and the nodes and edges of the built graph are in the order
+ * they were first added.
+ *
+ * @param NodeType is the type of the data stored in each node
+ */
+public class GraphBuilder<NodeType> {
+
+    private final ObjectIntHashMap<NodeType> indices;
+    private final List<NodeType> nodeData;
+
+    // the e-th edge added goes from edgeSources[e] to edgeTargets[e]
+    private int[] edgeSources;
+    private int[] edgeTargets;
+    private double[] edgeWeights;
+    private int edgeCount = 0;
+
+    /**
+     * Creates an empty builder for a small graph.
+     */
+    public GraphBuilder() {
+        this(16, 16);
+    }
+
+    /**
+     * Creates an empty builder, which holds the expected number of nodes and
+     * edges without growing.
+     *
+     * @param expectedNodes the number of nodes expected to be added
+     * @param expectedEdges the number of edges expected to be added
+     * @throws IllegalArgumentException if either number is negative
+     */
+    public GraphBuilder(int expectedNodes, int expectedEdges) {
+        if (expectedNodes < 0 || expectedEdges < 0)
+            throw new IllegalArgumentException("Expected counts cannot be negative.");
+        indices = new ObjectIntHashMap<>(expectedNodes);
+        nodeData = new ArrayList<>(expectedNodes);
+        edgeSources = new int[expectedEdges];
+        edgeTargets = new int[expectedEdges];
+        edgeWeights = new double[expectedEdges];
+    }
+
+    /**
+     * Adds a node, unless it has already been added.
+     *
+     * @param data the data stored in the node
+     * @return the index of the node, which numbers the nodes from 0 in the
+     *         order they were first added
+     * @throws NullPointerException if data is null
+     */
+    public int addNode(NodeType data) {
+        int index = indices.getOrDefault(data, -1);
+        if (index == -1) {
+            index = nodeData.size();
+            indices.put(data, index);
+            nodeData.add(data);
+        }
+        return index;
+    }
+
+    /**
+     * Adds a directed edge between two nodes that have already been added.
+     *
+     * @param pred   the data stored in the edge's predecessor node
+     * @param succ   the data stored in the edge's successor node
+     * @param weight the weight of the edge
+     * @return true if the edge was added, or false if either node has not
+     *         been added
+     */
+    public boolean addEdge(NodeType pred, NodeType succ, double weight) {
+        int source = indices.getOrDefault(pred, -1);
+        int target = indices.getOrDefault(succ, -1);
+        if (source == -1 || target == -1)
+            return false;
+        addIndexedEdge(source, target, weight);
+        return true;
+    }
+
+    /**
+     * Adds a directed edge between two nodes, by the indices that addNode()
+     * returned for them.
+     *
+     * @param source the index of the edge's predecessor node
+     * @param target the index of the edge's successor node
+     * @param weight the weight of the edge
+     * @throws IndexOutOfBoundsException if either index is not the index of
+     *                                   a node that has been added
+     */
+    public void addIndexedEdge(int source, int target, double weight) {
+        if (source < 0 || source >= nodeData.size())
+            throw new IndexOutOfBoundsException("No node has the index " + source + ".");
+        if (target < 0 || target >= nodeData.size())
+            throw new IndexOutOfBoundsException("No node has the index " + target + ".");
+        if (edgeCount == edgeSources.length) {
+            int length = Math.max(16, 2 * edgeCount);
+            edgeSources = Arrays.copyOf(edgeSources, length);
+            edgeTargets = Arrays.copyOf(edgeTargets, length);
+            edgeWeights = Arrays.copyOf(edgeWeights, length);
+        }
+        edgeSources[edgeCount] = source;
+        edgeTargets[edgeCount] = target;
+        edgeWeights[edgeCount] = weight;
+        edgeCount++;
+    }
+
+    /**
+     * Returns the number of distinct nodes that have been added.
+     *
+     * @return the number of nodes
+     */
+    public int getNodeCount() {
+        return nodeData.size();
+    }
+
+    /**
+     * Returns the number of edges that have been added, counting each
+     * repeated edge.
+     *
+     * @return the number of edges added
+     */
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Builds a new DijkstraGraph holding every node and edge that has been
+     * added.
+     *
+     * @return the new graph
+     */
+    public DijkstraGraph<NodeType, Double> build() {
+        DijkstraGraph<NodeType, Double> graph = new DijkstraGraph<>();
+        buildInto(graph);
+        return graph;
+    }
+
+    /**
+     * Emits every node and edge that has been added into an empty graph.
+     * The builder is not changed, so it can build more graphs.
+     *
+     * @param graph the empty graph to fill
+     * @throws IllegalStateException if the graph is not empty
+     */
+    public void buildInto(BaseGraph<NodeType, Double> graph) {
+        boolean[] kept = firstEdges();
+        int keptCount = 0;
+        for (int e = 0; e < edgeCount; e++)
+            if (kept[e])
+                keptCount++;
+        int[] sources = new int[keptCount];
+        int[] targets = new int[keptCount];
+        double[] weights = new double[keptCount];
+        int next = 0;
+        for (int e = 0; e < edgeCount; e++) {
+            if (kept[e]) {
+                sources[next] = edgeSources[e];
+                targets[next] = edgeTargets[e];
+                weights[next++] = edgeWeights[e];
+            }
+        }
+        graph.load(nodeData, keptCount, sources, targets, e -> weights[e]);
+    }
+
+    // marks the first of the edges between each pair of nodes, by sorting
+    // each predecessor's edges by successor and then by the order they were
+    // added, so that repeats end up next to each other
+    private boolean[] firstEdges() {
+        int nodeCount = nodeData.size();
+        int[] offsets = new int[nodeCount + 1];
+        for (int e = 0; e < edgeCount; e++)
+            offsets[edgeSources[e] + 1]++;
+        for (int u = 0; u < nodeCount; u++)
+            offsets[u + 1] += offsets[u];
+        // each key holds the successor in its high half and the edge in its
+        // low half, which are both non-negative ints
+        long[] keys = new long[edgeCount];
+        int[] next = Arrays.copyOf(offsets, nodeCount);
+        for (int e = 0; e < edgeCount; e++)
+            keys[next[edgeSources[e]]++] = (long) edgeTargets[e] << 32 | e;
+
+        boolean[] kept = new boolean[edgeCount];
+        for (int u = 0; u < nodeCount; u++) {
+            Arrays.sort(keys, offsets[u], offsets[u + 1]);
+            for (int i = offsets[u]; i < offsets[u + 1]; i++)
+                if (i == offsets[u] || keys[i] >>> 32 != keys[i - 1] >>> 32)
+                    kept[(int) keys[i]] = true;
+        }
+        return kept;
+    }
+
+}
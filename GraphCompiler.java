@@ -0,0 +1,137 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This GraphCompiler class compiles a DOT file like campus.dot into the
+ * binary format that CompiledGraph memory-maps, which is described there. The
+ * file is written next to its destination first and then moved into place,
+ * so that a process loading the compiled graph never sees half of it.
+ *
+ * Usage: java GraphCompiler [dot file] [compiled file]
+ * which compiles campus.dot into campus.graph when no files are given.
+ */
+public class GraphCompiler {
+
+    public static void main(String[] args) throws IOException {
+        String source = args.length > 0 ? args[0] : "campus.dot";
+        String target = args.length > 1 ? args[1] : "campus.graph";
+        CSRGraph<String> graph = compile(source, target);
+        System.out.println("Compiled " + graph.getNodeCount() + " locations and " + graph.getEdgeCount()
+                + " edges from " + source + " into " + target);
+    }
+
+    /**
+     * Parses a DOT file and writes it out as a compiled graph.
+     *
+     * @param dotFile      the path to the DOT file to read
+     * @param compiledFile the path to write the compiled graph to
+     * @return the snapshot of the graph that was written
+     * @throws IOException if the DOT file cannot be loaded, or the compiled
+     *                     graph cannot be written
+     */
+    public static CSRGraph<String> compile(String dotFile, String compiledFile) throws IOException {
+        CSRGraph<String> graph = DotFileParser.parse(dotFile).toSnapshot();
+        write(graph, Paths.get(compiledFile));
+        return graph;
+    }
+
+    /**
+     * Writes a snapshot out as a compiled graph, whose node indices match the
+     * snapshot's.
+     *
+     * @param graph the snapshot to write, whose nodes are named by Strings
+     * @param path  the path to write the compiled graph to
+     * @throws IOException if the graph is too large for the format, or the
+     *                     file cannot be written
+     */
+    public static void write(CSRGraph<String> graph, Path path) throws IOException {
+        int n = graph.getNodeCount();
+        int m = graph.getEdgeCount();
+        byte[][] names = new byte[n][];
+        int[] nameOffsets = new int[n + 1];
+        int[] nameHashes = new int[n];
+        long stringBytes = 0;
+        for (int i = 0; i < n; i++) {
+            String name = graph.nodeAt(i);
+            names[i] = name.getBytes(StandardCharsets.UTF_8);
+            nameHashes[i] = name.hashCode();
+            stringBytes += names[i].length;
+            if (stringBytes > Integer.MAX_VALUE)
+                throw new IOException("The graph is too large to compile.");
+            nameOffsets[i + 1] = (int) stringBytes;
+        }
+        int slots = CompiledGraph.slotsFor(n);
+        int[] nameSlots = new int[slots];
+        for (int i = 0; i < n; i++) {
+            int slot = CompiledGraph.spread(nameHashes[i]) & (slots - 1);
+            while (nameSlots[slot] != 0)
+                slot = (slot + 1) & (slots - 1);
+            nameSlots[slot] = i + 1;
+        }
+        long size = CompiledGraph.HEADER_BYTES + 4L * (n + 1) + 4L * n + 4L * slots
+                + 2 * (4L * (n + 1) + 4L * m + 8L * m) + stringBytes;
+        if (size > Integer.MAX_VALUE)
+            throw new IOException("The graph is too large to compile.");
+
+        Path absolute = path.toAbsolutePath();
+        // unlike Files.createTempFile(), this keeps the usual permissions, so
+        // that a web server can still read the compiled graph
+        Path temporary = absolute.resolveSibling(absolute.getFileName() + "." + ProcessHandle.current().pid()
+                + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.putInt(CompiledGraph.MAGIC);
+                buffer.putInt(CompiledGraph.VERSION);
+                buffer.putInt(n);
+                buffer.putInt(m);
+                buffer.putInt(slots);
+                buffer.putInt(0);
+                buffer.putLong(stringBytes);
+                putInts(buffer, nameOffsets);
+                putInts(buffer, nameHashes);
+                putInts(buffer, nameSlots);
+                putInts(buffer, graph.outOffsets);
+                putInts(buffer, graph.outTargets);
+                putDoubles(buffer, graph.outWeights);
+                putInts(buffer, graph.inOffsets);
+                putInts(buffer, graph.inSources);
+                putDoubles(buffer, graph.inWeights);
+                for (byte[] name : names)
+                    buffer.put(name);
+                buffer.force();
+            }
+            try {
+                Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    // writes ints at the buffer's position in bulk, and moves past them
+    private static void putInts(ByteBuffer buffer, int[] values) {
+        buffer.asIntBuffer().put(values);
+        buffer.position(buffer.position() + 4 * values.length);
+    }
+
+    // writes doubles at the buffer's position in bulk, and moves past them
+    private static void putDoubles(ByteBuffer buffer, double[] values) {
+        buffer.asDoubleBuffer().put(values);
+        buffer.position(buffer.position() + 8 * values.length);
+    }
+
+}
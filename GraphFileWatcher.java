@@ -0,0 +1,220 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/**
+ * This GraphFileWatcher class keeps a SnapshotIsolatedGraph in step with a
+ * DOT file like campus.dot while queries keep running on it. A background
+ * thread waits on a WatchService for the file to be changed or replaced, and
+ * then parses the new file and compares it to the current version of the
+ * graph. Only the edges that were inserted, removed, or given a new weight,
+ * and the nodes that were inserted or removed, are published, all in one
+ * batch, so queries switch from the old version to the new one at once.
+ *
+ * A file that cannot be loaded (for example, one that is only partly
+ * written) leaves the graph as it was, and the next change to the file is
+ * tried again. Each batch is computed from the current version while no
+ * other batch can be published, so a reload started by hand while the
+ * watcher is reloading the same file never publishes the changes twice.
+ */
+public class GraphFileWatcher implements Closeable {
+
+    // how long to wait after a change for the writer to finish, so that the
+    // events from one save are handled by a single reload
+    protected static final long SETTLE_MILLIS = 200;
+
+    protected final SnapshotIsolatedGraph<String, Double> graph;
+    protected final Path file;
+    private final WatchService watcher;
+    private final Thread thread;
+    // the reason the last reload failed, or null if it succeeded
+    private volatile IOException lastError = null;
+    // the number of reloads, successful or not, that the thread has made
+    private volatile long reloadCount = 0;
+
+    /**
+     * Creates a watcher for a DOT file, which does nothing until start() is
+     * called.
+     *
+     * @param graph    the graph to keep in step with the file
+     * @param filename the path to the DOT file
+     * @throws IOException if the file's directory cannot be watched
+     */
+    public GraphFileWatcher(SnapshotIsolatedGraph<String, Double> graph, String filename) throws IOException {
+        this.graph = graph;
+        this.file = Paths.get(filename).toAbsolutePath();
+        this.watcher = FileSystems.getDefault().newWatchService();
+        // editors often save by writing a new file and renaming it over the
+        // old one, so the directory is watched rather than the file
+        file.getParent().register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = new Thread(this::watch, "GraphFileWatcher " + file.getFileName());
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Starts reloading the file on a background thread whenever it changes.
+     */
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Parses the file, and publishes the changes that make the graph match
+     * it.
+     *
+     * @return the number of changes published, or 0 if the graph already
+     *         matched the file
+     * @throws IOException if the file cannot be loaded, in which case the
+     *                     graph is not changed
+     */
+    public int reload() throws IOException {
+        return publishChanges(graph, DotFileParser.parse(file.toString()));
+    }
+
+    /**
+     * Returns the reason that the last reload made by the background thread
+     * failed.
+     *
+     * @return the exception thrown by the last reload, or null if it
+     *         succeeded or no reload has been made
+     */
+    public IOException getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Returns the number of reloads the background thread has made, which
+     * increases once each reload has been published or has failed.
+     *
+     * @return the number of reloads
+     */
+    public long getReloadCount() {
+        return reloadCount;
+    }
+
+    /**
+     * Stops watching the file, and waits for the background thread to end.
+     *
+     * @throws IOException if the WatchService cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        watcher.close();
+        if (thread.isAlive() && thread != Thread.currentThread()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // waits for changes to the file and reloads it, until closed
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watcher.take();
+                boolean changed = isChanged(key);
+                if (!key.reset())
+                    return;
+                if (!changed)
+                    continue;
+                Thread.sleep(SETTLE_MILLIS);
+                // the reload reads the file after these events, so they need
+                // no reload of their own
+                for (WatchKey later = watcher.poll(); later != null; later = watcher.poll()) {
+                    later.pollEvents();
+                    later.reset();
+                }
+                try {
+                    reload();
+                    lastError = null;
+                } catch (IOException e) {
+                    lastError = e;
+                }
+                reloadCount++;
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // the watcher was closed
+        }
+    }
+
+    // checks whether any of a key's events may have changed the file
+    private boolean isChanged(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents())
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context()))
+                changed = true;
+        return changed;
+    }
+
+    /**
+     * Publishes the changes that make a graph match the names and edges of a
+     * parsed DOT file, as a single batch. Edges between nodes that stay are
+     * removed when they are no longer in the file, nodes that are no longer
+     * in the file are removed along with their edges, and then new nodes and
+     * new or reweighted edges are inserted, in the order of the file. The
+     * changes are computed and published while no other batch can be
+     * published, so two reloads of the same file never both publish them.
+     *
+     * @param graph  the graph to change
+     * @param parsed the parsed file that the graph should match
+     * @return the number of changes published, or 0 if the graph already
+     *         matched the file
+     */
+    public static int publishChanges(SnapshotIsolatedGraph<String, Double> graph, DotFileParser parsed) {
+        CSRGraph<String> next = parsed.toSnapshot();
+        int[] changes = { 0 };
+        boolean published = graph.publishFromCurrent(version -> {
+            SnapshotIsolatedGraph<String, Double>.Batch batch = diff(graph.beginBatch(), version.freeze(), next);
+            changes[0] = batch.size();
+            return batch;
+        });
+        return published ? changes[0] : 0;
+    }
+
+    // adds the changes that turn the live snapshot into the next one to a batch
+    private static SnapshotIsolatedGraph<String, Double>.Batch diff(SnapshotIsolatedGraph<String, Double>.Batch batch,
+            CSRGraph<String> live, CSRGraph<String> next) {
+        for (int u = 0; u < live.getNodeCount(); u++) {
+            String pred = live.nodeAt(u);
+            if (!next.containsNode(pred))
+                continue;
+            int nextPred = next.indexOf(pred);
+            for (int e = live.outOffsets[u]; e < live.outOffsets[u + 1]; e++) {
+                String succ = live.nodeAt(live.outTargets[e]);
+                if (next.containsNode(succ)
+                        && next.edgeWeight(nextPred, next.indexOf(succ)) == Double.POSITIVE_INFINITY)
+                    batch.removeEdge(pred, succ);
+            }
+        }
+        for (int u = 0; u < live.getNodeCount(); u++)
+            if (!next.containsNode(live.nodeAt(u)))
+                batch.removeNode(live.nodeAt(u));
+        for (int v = 0; v < next.getNodeCount(); v++)
+            if (!live.containsNode(next.nodeAt(v)))
+                batch.insertNode(next.nodeAt(v));
+        for (int v = 0; v < next.getNodeCount(); v++) {
+            String pred = next.nodeAt(v);
+            int livePred = live.containsNode(pred) ? live.indexOf(pred) : -1;
+            for (int e = next.outOffsets[v]; e < next.outOffsets[v + 1]; e++) {
+                String succ = next.nodeAt(next.outTargets[e]);
+                double weight = next.outWeights[e];
+                // inserting an edge that already exists updates its weight
+                if (livePred == -1 || !live.containsNode(succ)
+                        || live.edgeWeight(livePred, live.indexOf(succ)) != weight)
+                    batch.insertEdge(pred, succ, weight);
+            }
+        }
+        return batch;
+    }
+
+}
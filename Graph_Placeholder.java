@@ -91,4 +91,43 @@ public class Graph_Placeholder implements GraphADT<String, Double> {
     return sum;
   }
 
+  // the route's legs are the placeholder edge weights along its path
+  public Route<String> shortestRoute(String start, String end) {
+    List<String> locations = shortestPathData(start, end);
+    if(locations.isEmpty()) throw new NoSuchElementException();
+    double[] legs = new double[locations.size()-1];
+    for(int i=1;i<locations.size();i++)
+      legs[i-1] = getEdge(locations.get(i-1), locations.get(i));
+    return new Route<>(locations, legs, shortestPathCost(start, end));
+  }
+
+  // the placeholder path is the only route between any two locations
+  public List<Route<String>> kShortestRoutes(String start, String end, int k) {
+    if(k < 1) throw new IllegalArgumentException();
+    List<Route<String>> routes = new ArrayList<>();
+    routes.add(shortestRoute(start, end));
+    return routes;
+  }
+
+  // the tree holds the start location and every location after it
+  public ShortestPathTree<String> shortestPathTree(String start) {
+    return shortestPathTree(start, Double.POSITIVE_INFINITY);
+  }
+
+  // the limited tree stops at the first location that costs more than maxCost
+  public ShortestPathTree<String> shortestPathTree(String start, double maxCost) {
+    if(!(maxCost >= 0.0)) throw new IllegalArgumentException();
+    if(!path.contains(start)) throw new NoSuchElementException();
+    int last = path.indexOf(start) + 1;
+    while(last < path.size() && shortestPathCost(start, path.get(last)) <= maxCost) last++;
+    List<String> reachable = path.subList(path.indexOf(start), last);
+    double[] costs = new double[reachable.size()];
+    int[] parents = new int[reachable.size()];
+    for(int i=0;i<reachable.size();i++) {
+      costs[i] = i == 0 ? 0.0 : shortestPathCost(start, reachable.get(i));
+      parents[i] = i-1;
+    }
+    return new ShortestPathTree<>(new ArrayList<>(reachable), costs, parents);
+  }
+
 }
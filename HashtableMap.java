@@ -1,36 +1,186 @@
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.LinkedList;
 import java.util.NoSuchElementException;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+/**
+ * This HashtableMap class stores key-value pairs with open addressing: keys,
+ * values, and the hash code of each key live in three parallel arrays, and a
+ * key that collides with another is placed in the next free slot (linear
+ * probing). The number of slots is always a power of two, so the slot for a
+ * hash code is found by masking its bits rather than by division, and the
+ * hash code of every key is cached, so most mismatched slots are skipped
+ * without calling equals(). Removing a key shifts later keys of its probe run
+ * back into the hole, so no tombstones are ever left behind.
+ *
+ * The capacity reported by getCapacity() keeps the meaning it had when this
+ * map was separately chained: the map grows by doubling its capacity once
+ * its size reaches 80% of it. The slot arrays are the smallest power of two
+ * that is at least twice the capacity, which keeps probe runs short.
+ *
+ * By default, growing moves every entry into the new arrays at once. In
+ * incremental resize mode, the old arrays are instead kept alongside the new
+ * ones, and each put() or remove() moves the entries of the next few old
+ * slots, so that no single operation pays for the whole move. Lookups check
+ * the new arrays and then the slots of the old arrays that have not been
+ * moved yet. Old arrays are never reordered: a removed key that has not been
+ * moved yet is replaced by a marker, so the probe runs through it stay intact.
+ * Lookups never move entries, so a map that is no longer being changed can
+ * still be read by many threads at once.
+ */
 public class HashtableMap<KeyType, ValueType> implements MapADT<KeyType, ValueType> {
 
-    protected class Pair {
-        public KeyType key;
-        public ValueType value;
+    // the size, as a fraction of the capacity, at which the map grows
+    protected static final double MAX_LOAD_FACTOR = 0.8;
 
-        public Pair(KeyType key, ValueType value) {
-            this.key = key;
-            this.value = value;
-        }
-    }
-
-    protected LinkedList<Pair>[] table;
+    // keys[i] is the key in slot i, or null when that slot is empty
+    protected Object[] keys;
+    protected Object[] values;
+    // hashes[i] is the spread hash code of keys[i]
+    protected int[] hashes;
+    // one less than the number of slots, to mask hash codes with
+    protected int mask;
     protected int capacity;
     protected int size;
 
-    @SuppressWarnings("unchecked")
+    // the number of old slots whose entries each put() or remove() moves
+    protected static final int MIGRATION_STEP = 16;
+    // marks a removed key in the old arrays, which are never reordered
+    private static final Object REMOVED = new Object();
+    // whether growing moves entries a few slots at a time
+    protected boolean incremental = false;
+    // the arrays being moved out of while growing incrementally, or null
+    protected Object[] oldKeys;
+    protected Object[] oldValues;
+    protected int[] oldHashes;
+    protected int oldMask;
+    // every old slot below this one has been moved into the new arrays
+    protected int migrated;
+
     public HashtableMap(int capacity) {
         this.capacity = capacity;
         this.size = 0;
-        this.table = (LinkedList<Pair>[]) new LinkedList[capacity];
+        allocate(slotsFor(capacity));
     }
 
     public HashtableMap() {
         this(64);
     }
-	
+
+    // finds the smallest power of two that is at least twice the capacity
+    protected static int slotsFor(int capacity) {
+        int slots = 2;
+        while (slots < 2 * capacity)
+            slots <<= 1;
+        return slots;
+    }
+
+    // mixes the bits of a hash code, so that masking keeps the high bits too
+    protected static int spread(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private void allocate(int slots) {
+        keys = new Object[slots];
+        values = new Object[slots];
+        hashes = new int[slots];
+        mask = slots - 1;
+    }
+
+    // finds the slot holding key, or returns -(empty slot)-1 when key is absent
+    protected int slotOf(Object key, int hash) {
+        int slot = hash & mask;
+        while (keys[slot] != null) {
+            if (hashes[slot] == hash && keys[slot].equals(key))
+                return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -slot - 1;
+    }
+
+    // finds the old slot holding key that has not been moved yet, or -1
+    protected int oldSlotOf(Object key, int hash) {
+        if (oldKeys == null)
+            return -1;
+        int slot = hash & oldMask;
+        while (oldKeys[slot] != null) {
+            // a key in a moved slot was either found in the new arrays, or
+            // has been removed from them since it was moved
+            if (oldHashes[slot] == hash && oldKeys[slot].equals(key))
+                return slot >= migrated ? slot : -1;
+            slot = (slot + 1) & oldMask;
+        }
+        return -1;
+    }
+
+    /**
+     * Selects whether this map grows all at once, or incrementally, a few
+     * slots during each later put() or remove(). Turning incremental resize
+     * mode off finishes any move in progress.
+     *
+     * @param incremental true to grow incrementally
+     */
+    public void setIncrementalResize(boolean incremental) {
+        this.incremental = incremental;
+        if (!incremental)
+            migrate(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Grows this map once, if needed, so that it can hold an expected number
+     * of keys without growing again. Building a large map this way moves its
+     * entries once instead of every time its capacity doubles.
+     *
+     * @param expectedSize the number of keys this map is expected to hold
+     */
+    public void ensureCapacity(int expectedSize) {
+        // the map grows when its size reaches 80% of its capacity
+        int needed = (int) Math.min(1 << 29, (long) (expectedSize / MAX_LOAD_FACTOR) + 1);
+        if (needed > capacity) {
+            resize(needed);
+            migrate(Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Checks whether this map is part way through growing incrementally.
+     *
+     * @return true if some entries are still in the old arrays
+     */
+    public boolean isResizing() {
+        return oldKeys != null;
+    }
+
+    // moves the entries of up to slotCount more old slots into the new arrays
+    private void migrate(int slotCount) {
+        if (oldKeys == null)
+            return;
+        int end = (int) Math.min(oldKeys.length, (long) migrated + slotCount);
+        for (; migrated < end; migrated++) {
+            Object key = oldKeys[migrated];
+            if (key != null && key != REMOVED)
+                place(key, oldValues[migrated], oldHashes[migrated]);
+        }
+        if (migrated == oldKeys.length) {
+            oldKeys = null;
+            oldValues = null;
+            oldHashes = null;
+        }
+    }
+
+    // stores an entry that is known not to be in the new arrays yet
+    private void place(Object key, Object value, int hash) {
+        int slot = hash & mask;
+        while (keys[slot] != null)
+            slot = (slot + 1) & mask;
+        keys[slot] = key;
+        values[slot] = value;
+        hashes[slot] = hash;
+    }
+
 	/**
      * Adds a new key,value pair/mapping to this collection.It is ok that the value is null.
      * @param key the key of the key,value pair
@@ -41,43 +191,43 @@ public class HashtableMap<KeyType, ValueType> implements MapADT<KeyType, ValueTy
 
     @Override
     public void put(KeyType key, ValueType value) throws IllegalArgumentException, NullPointerException {
-        if (key == null){
-			throw new NullPointerException("Key cannot be null.");
-		}
-		int index = Math.abs(key.hashCode()) % capacity;
-		// ensure bucket is intialized, else intialize it
-		if (table[index] == null){
-			table[index] = new LinkedList<>();
-		}
-		for (Pair pair : table[index]){
-			if(pair.key.equals(key))
-				throw new IllegalArgumentException("Duplicate key.");
-		}
-		table[index].add(new Pair(key, value));
-		size++;
-		
-		 if ((double)size / capacity >= 0.8)
-			resize();
-    }
-	
-	// private helper method for dynamically growing hashtable
-	private void resize(){
-		capacity *= 2;
-		LinkedList<Pair>[] oldTable = table;
-		
-		@SuppressWarnings("unchecked")
-		LinkedList<Pair>[] newTable = (LinkedList<Pair>[]) new LinkedList[capacity];
-		table = newTable;
-
-		size = 0;
-		for (LinkedList<Pair> bucket : oldTable) {
-			if (bucket != null) {
-				for (Pair pair : bucket) {
-					put(pair.key, pair.value);
-				}
-			}
-		}
-	}
+        if (key == null)
+            throw new NullPointerException("Key cannot be null.");
+        migrate(MIGRATION_STEP);
+        int hash = spread(key.hashCode());
+        int slot = slotOf(key, hash);
+        if (slot >= 0 || oldSlotOf(key, hash) >= 0)
+            throw new IllegalArgumentException("Duplicate key.");
+        slot = -slot - 1;
+        keys[slot] = key;
+        values[slot] = value;
+        hashes[slot] = hash;
+        size++;
+
+        if ((double) size / capacity >= MAX_LOAD_FACTOR)
+            resize();
+    }
+
+    // private helper method for dynamically growing hashtable, which moves
+    // every entry to its new slot by its cached hash, without comparing keys
+    private void resize() {
+        resize(Math.max(1, capacity * 2));
+    }
+
+    // grows this hashtable to a new capacity
+    private void resize(int newCapacity) {
+        // a move still in progress is finished before the next one starts
+        migrate(Integer.MAX_VALUE);
+        capacity = newCapacity;
+        oldKeys = keys;
+        oldValues = values;
+        oldHashes = hashes;
+        oldMask = mask;
+        migrated = 0;
+        allocate(slotsFor(capacity));
+        if (!incremental)
+            migrate(Integer.MAX_VALUE);
+    }
 
 	/**
      * Checks whether a key maps to a value in this collection.
@@ -88,16 +238,10 @@ public class HashtableMap<KeyType, ValueType> implements MapADT<KeyType, ValueTy
 
     @Override
     public boolean containsKey(KeyType key) {
-		int index = Math.abs(key.hashCode()) % capacity;
-		if(table[index] == null)
-			return false;
-		for(Pair pair : table[index]){
-			if(pair.key.equals(key))
-				return true;
-		}
-		return false;	
-    }
-	
+        int hash = spread(key.hashCode());
+        return slotOf(key, hash) >= 0 || oldSlotOf(key, hash) >= 0;
+    }
+
 	/**
      * Retrieves the specific value that a key maps to.
      * @param key the key to look up
@@ -107,13 +251,16 @@ public class HashtableMap<KeyType, ValueType> implements MapADT<KeyType, ValueTy
      */
 
     @Override
+    @SuppressWarnings("unchecked")
     public ValueType get(KeyType key) throws NoSuchElementException {
-		int index = Math.abs(key.hashCode()) % capacity;
-		for(Pair pair : table[index]){
-			if(pair.key.equals(key))
-				return pair.value;
-		}
-		throw new NoSuchElementException("Key not found: " + key);
+        int hash = spread(key.hashCode());
+        int slot = slotOf(key, hash);
+        if (slot >= 0)
+            return (ValueType) values[slot];
+        slot = oldSlotOf(key, hash);
+        if (slot >= 0)
+            return (ValueType) oldValues[slot];
+        throw new NoSuchElementException("Key not found: " + key);
     }
 
 	/**
@@ -125,19 +272,37 @@ public class HashtableMap<KeyType, ValueType> implements MapADT<KeyType, ValueTy
      */
 
     @Override
+    @SuppressWarnings("unchecked")
     public ValueType remove(KeyType key) throws NoSuchElementException {
-        if(!containsKey(key))
-			throw new NoSuchElementException("Key not found: " + key);
-		int index = Math.abs(key.hashCode()) % capacity;
-		for(Pair pair: table[index]){
-			if(pair.key.equals(key)){
-				ValueType value = pair.value;
-				table[index].remove(pair);
-				size--;
-				return value;
-			}
-		}
-		throw new NoSuchElementException("Key not found: " + key);	
+        migrate(MIGRATION_STEP);
+        int hash = spread(key.hashCode());
+        int slot = slotOf(key, hash);
+        if (slot < 0) {
+            int oldSlot = oldSlotOf(key, hash);
+            if (oldSlot < 0)
+                throw new NoSuchElementException("Key not found: " + key);
+            ValueType value = (ValueType) oldValues[oldSlot];
+            oldKeys[oldSlot] = REMOVED;
+            oldValues[oldSlot] = null;
+            size--;
+            return value;
+        }
+        ValueType value = (ValueType) values[slot];
+        // shift back each later key in the probe run that may fill the hole
+        int hole = slot;
+        for (int i = (slot + 1) & mask; keys[i] != null; i = (i + 1) & mask) {
+            int home = hashes[i] & mask;
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                hashes[hole] = hashes[i];
+                hole = i;
+            }
+        }
+        keys[hole] = null;
+        values[hole] = null;
+        size--;
+        return value;
     }
 
 	/**
@@ -146,12 +311,12 @@ public class HashtableMap<KeyType, ValueType> implements MapADT<KeyType, ValueTy
 
     @Override
     public void clear() {
-		for(int i = 0; i < table.length; i++){
-			if(table[i] != null) {
-				table[i].clear();
-			}
-		}
-        size = 0; // stub
+        oldKeys = null;
+        oldValues = null;
+        oldHashes = null;
+        Arrays.fill(keys, null);
+        Arrays.fill(values, null);
+        size = 0;
     }
 
 	/**
@@ -166,7 +331,8 @@ public class HashtableMap<KeyType, ValueType> implements MapADT<KeyType, ValueTy
 
 	/**
      * Retrieves this collection's capacity.
-     * @return the size of te underlying array for this collection
+     * @return the capacity of this collection, which doubles once the
+     *         collection is 80% full
      */
 
     @Override
@@ -174,18 +340,19 @@ public class HashtableMap<KeyType, ValueType> implements MapADT<KeyType, ValueTy
         return capacity;
     }
 
-	@Override
-	public List<KeyType> getKeys() {
-		List<KeyType> keys = new LinkedList<>();
-		for (LinkedList<Pair> bucket : table) {
-			if (bucket != null) {
-				for (Pair pair : bucket) {
-					keys.add(pair.key);
-				}
-			}
-		}
-		return keys;
-	}
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<KeyType> getKeys() {
+        List<KeyType> list = new ArrayList<>(size);
+        for (Object key : keys)
+            if (key != null)
+                list.add((KeyType) key);
+        if (oldKeys != null)
+            for (int i = migrated; i < oldKeys.length; i++)
+                if (oldKeys[i] != null && oldKeys[i] != REMOVED)
+                    list.add((KeyType) oldKeys[i]);
+        return list;
+    }
 
 
     // Midweek Test Methods 	
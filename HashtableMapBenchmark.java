@@ -0,0 +1,113 @@
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Random;
+
+/**
+ * This HashtableMapBenchmark class times the open addressing HashtableMap
+ * against the separately chained ChainedHashtableMap that it replaced. For
+ * each map and key type, it puts n distinct keys into a map with the default
+ * capacity (so that the map grows many times), looks up every key, looks up
+ * n keys that are not stored, and then removes every key. Each run is
+ * repeated, and the fastest time of each operation is reported in
+ * nanoseconds per operation, so that JIT warm up does not skew the results.
+ * A separate pass times every put on its own, and reports the slowest one in
+ * microseconds, which shows the pause that growing the map causes; the
+ * HashtableMap is also run in incremental resize mode, which spreads that
+ * pause over later writes.
+ *
+ * Usage: java HashtableMapBenchmark [n] [repetitions]
+ */
+public class HashtableMapBenchmark {
+
+    // creates an empty map for one run
+    private interface MapFactory {
+        MapADT<Object, Object> create();
+    }
+
+    // keeps results alive, so the JIT cannot remove the lookups
+    private static long sink = 0;
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 7;
+
+        Random random = new Random(400);
+        Object[][] keySets = new Object[3][];
+        String[] keyNames = { "Integer", "String", "colliding Integer" };
+        keySets[0] = new Object[2 * n];
+        keySets[1] = new Object[2 * n];
+        keySets[2] = new Object[2 * n];
+        for (int i = 0; i < 2 * n; i++) {
+            // stored keys are even and absent keys are odd, so they never match
+            keySets[0][i] = random.nextInt() & ~1 | (i < n ? 0 : 1);
+            keySets[1][i] = "Location " + i + " " + random.nextInt(1000);
+            // multiples of 1024 all fell into the same few chained buckets
+            keySets[2][i] = i << 10;
+        }
+
+        System.out.printf("%-27s %-20s %9s %9s %9s %9s %9s%n", "map", "keys", "put", "get", "miss", "remove",
+                "max put");
+        for (int k = 0; k < keySets.length; k++) {
+            Object[] keys = distinct(keySets[k], n);
+            run("HashtableMap", keyNames[k], HashtableMap::new, keys, n, repetitions);
+            run("HashtableMap incremental", keyNames[k], () -> {
+                HashtableMap<Object, Object> map = new HashtableMap<>();
+                map.setIncrementalResize(true);
+                return map;
+            }, keys, n, repetitions);
+            run("ChainedHashtableMap", keyNames[k], ChainedHashtableMap::new, keys, n, repetitions);
+        }
+        if (sink == 42)
+            System.out.println();
+    }
+
+    // drops repeated keys, keeping n stored keys followed by n absent ones
+    private static Object[] distinct(Object[] keys, int n) {
+        LinkedHashSet<Object> seen = new LinkedHashSet<>();
+        for (Object key : keys)
+            seen.add(key);
+        Object[] result = seen.toArray();
+        return result.length >= 2 * n ? result : Arrays.copyOf(result, 2 * (result.length / 2));
+    }
+
+    // times every operation repetitions times and prints the fastest times
+    private static void run(String mapName, String keyName, MapFactory factory, Object[] keys, int n,
+            int repetitions) {
+        int stored = Math.min(n, keys.length / 2);
+        long[] best = { Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE };
+        for (int r = 0; r < repetitions; r++) {
+            MapADT<Object, Object> map = factory.create();
+            long start = System.nanoTime();
+            for (int i = 0; i < stored; i++)
+                map.put(keys[i], keys[i]);
+            long put = System.nanoTime();
+            for (int i = 0; i < stored; i++)
+                sink += map.get(keys[i]).hashCode();
+            long get = System.nanoTime();
+            for (int i = stored; i < 2 * stored; i++)
+                if (map.containsKey(keys[i]))
+                    sink++;
+            long miss = System.nanoTime();
+            for (int i = 0; i < stored; i++)
+                map.remove(keys[i]);
+            long remove = System.nanoTime();
+            best[0] = Math.min(best[0], put - start);
+            best[1] = Math.min(best[1], get - put);
+            best[2] = Math.min(best[2], miss - get);
+            best[3] = Math.min(best[3], remove - miss);
+
+            map = factory.create();
+            long slowest = 0;
+            for (int i = 0; i < stored; i++) {
+                long before = System.nanoTime();
+                map.put(keys[i], keys[i]);
+                slowest = Math.max(slowest, System.nanoTime() - before);
+            }
+            best[4] = Math.min(best[4], slowest);
+        }
+        System.out.printf("%-27s %-20s %9.1f %9.1f %9.1f %9.1f %9.1f%n", mapName, keyName,
+                (double) best[0] / stored, (double) best[1] / stored, (double) best[2] / stored,
+                (double) best[3] / stored, best[4] / 1000.0);
+    }
+
+}
@@ -0,0 +1,207 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * This IndexedDaryHeap class is a min priority queue of integer items from 0
+ * to capacity-1, such as dense node indices, each with a double key. Every
+ * item is stored at most once, and the heap remembers the position of each
+ * item so that its key can be lowered in place (decrease-key) rather than by
+ * adding a second copy of that item.
+ *
+ * Each position in the heap has up to d children, where d is the arity that
+ * the heap is created with. A wider heap is shallower, so that lowering a key
+ * does fewer swaps and poll compares more children per level.
+ */
+public class IndexedDaryHeap {
+
+    // the arity used when none is specified
+    public static final int DEFAULT_ARITY = 4;
+
+    protected final int arity;
+    // heap[i] is the item stored at position i within the heap
+    protected int[] heap;
+    // positions[item] is the position of item within the heap, or -1
+    protected int[] positions;
+    // keys[item] is the priority of item, where lower keys are polled first
+    protected double[] keys;
+    protected int size = 0;
+
+    /**
+     * Creates an empty 4-ary heap that can hold the items 0 to capacity-1.
+     *
+     * @param capacity the number of distinct items this heap can hold
+     */
+    public IndexedDaryHeap(int capacity) {
+        this(capacity, DEFAULT_ARITY);
+    }
+
+    /**
+     * Creates an empty d-ary heap that can hold the items 0 to capacity-1.
+     *
+     * @param capacity the number of distinct items this heap can hold
+     * @param arity    the number of children of each position, at least 2
+     * @throws IllegalArgumentException if arity is less than 2
+     */
+    public IndexedDaryHeap(int capacity, int arity) {
+        if (arity < 2)
+            throw new IllegalArgumentException("Heap arity must be at least 2.");
+        this.arity = arity;
+        this.heap = new int[capacity];
+        this.positions = new int[capacity];
+        this.keys = new double[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    /**
+     * Checks whether this heap is empty.
+     *
+     * @return true if there are no items in this heap
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Retrieves the number of items stored in this heap.
+     *
+     * @return the number of items in this heap
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether an item is currently stored in this heap.
+     *
+     * @param item the item to check for
+     * @return true if item is in this heap, or false otherwise
+     */
+    public boolean contains(int item) {
+        return positions[item] != -1;
+    }
+
+    /**
+     * Retrieves the key that an item in this heap is stored with.
+     *
+     * @param item the item to look up
+     * @return the key of that item
+     * @throws NoSuchElementException if item is not in this heap
+     */
+    public double getKey(int item) {
+        if (!contains(item))
+            throw new NoSuchElementException("Item not in heap: " + item);
+        return keys[item];
+    }
+
+    /**
+     * Adds an item to this heap with the provided key, or lowers the key of
+     * that item if it is already stored with a higher key.
+     *
+     * @param item the item to add or update
+     * @param key  the new key for that item
+     * @return true if the item was added or its key lowered, or false if it
+     *         was already stored with a key no higher than this one
+     */
+    public boolean insertOrDecrease(int item, double key) {
+        int position = positions[item];
+        if (position == -1) {
+            // add the new item at the bottom of the heap
+            position = size++;
+            positions[item] = position;
+            heap[position] = item;
+        } else if (key >= keys[item]) {
+            return false;
+        }
+        keys[item] = key;
+        siftUp(position);
+        return true;
+    }
+
+    /**
+     * Retrieves the item with the lowest key, without removing it.
+     *
+     * @return the item with the lowest key
+     * @throws NoSuchElementException if this heap is empty
+     */
+    public int peek() {
+        if (size == 0)
+            throw new NoSuchElementException("Heap is empty.");
+        return heap[0];
+    }
+
+    /**
+     * Removes and returns the item with the lowest key.
+     *
+     * @return the item with the lowest key
+     * @throws NoSuchElementException if this heap is empty
+     */
+    public int poll() {
+        int min = peek();
+        positions[min] = -1;
+        size--;
+        if (size > 0) {
+            // move the last item to the root, and sift it down into place
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * Removes every item from this heap.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++)
+            positions[heap[i]] = -1;
+        size = 0;
+    }
+
+    // moves the item at position up until its parent's key is no higher
+    private void siftUp(int position) {
+        int item = heap[position];
+        double key = keys[item];
+        while (position > 0) {
+            int parentPosition = (position - 1) / arity;
+            int parent = heap[parentPosition];
+            if (keys[parent] <= key)
+                break;
+            heap[position] = parent;
+            positions[parent] = position;
+            position = parentPosition;
+        }
+        heap[position] = item;
+        positions[item] = position;
+    }
+
+    // moves the item at position down until no child has a lower key
+    private void siftDown(int position) {
+        int item = heap[position];
+        double key = keys[item];
+        while (true) {
+            int firstChild = position * arity + 1;
+            if (firstChild >= size)
+                break;
+            // find the child with the lowest key
+            int lastChild = Math.min(firstChild + arity, size);
+            int minPosition = firstChild;
+            double minKey = keys[heap[firstChild]];
+            for (int c = firstChild + 1; c < lastChild; c++) {
+                double childKey = keys[heap[c]];
+                if (childKey < minKey) {
+                    minPosition = c;
+                    minKey = childKey;
+                }
+            }
+            if (key <= minKey)
+                break;
+            int child = heap[minPosition];
+            heap[position] = child;
+            positions[child] = position;
+            position = minPosition;
+        }
+        heap[position] = item;
+        positions[item] = position;
+    }
+
+}
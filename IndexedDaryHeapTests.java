@@ -0,0 +1,97 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+public class IndexedDaryHeapTests {
+
+    // runs random inserts, decrease-keys, and polls on a heap of the given
+    // arity, checking each poll against a scan of the keys still stored
+    private static void checkAgainstScan(int arity, long seed) {
+        int capacity = 500;
+        IndexedDaryHeap heap = new IndexedDaryHeap(capacity, arity);
+        double[] expected = new double[capacity];
+        Arrays.fill(expected, Double.NaN);
+        int stored = 0;
+        Random random = new Random(seed);
+        for (int step = 0; step < 20000; step++) {
+            int item = random.nextInt(capacity);
+            if (random.nextInt(3) > 0) {
+                // keys are small integers, so that many of them tie
+                double key = random.nextInt(1000);
+                boolean lower = Double.isNaN(expected[item]) || key < expected[item];
+                assertEquals(lower, heap.insertOrDecrease(item, key));
+                if (lower) {
+                    if (Double.isNaN(expected[item]))
+                        stored++;
+                    expected[item] = key;
+                }
+            } else if (stored > 0) {
+                double min = Double.POSITIVE_INFINITY;
+                for (double key : expected)
+                    if (!Double.isNaN(key))
+                        min = Math.min(min, key);
+                int polled = heap.poll();
+                assertEquals(min, expected[polled]);
+                expected[polled] = Double.NaN;
+                stored--;
+            }
+            assertEquals(stored, heap.size());
+            assertEquals(!Double.isNaN(expected[item]), heap.contains(item));
+        }
+        // drains in order of key
+        double last = Double.NEGATIVE_INFINITY;
+        while (!heap.isEmpty()) {
+            int polled = heap.poll();
+            assertTrue(expected[polled] >= last);
+            last = expected[polled];
+        }
+    }
+
+    /**
+     * Tests that a binary heap polls items in order of their lowest key.
+     */
+    @Test
+    public void heapTest1() {
+        checkAgainstScan(2, 200);
+    }
+
+    /**
+     * Tests that the default 4-ary heap polls items in order of their lowest
+     * key.
+     */
+    @Test
+    public void heapTest2() {
+        assertEquals(4, IndexedDaryHeap.DEFAULT_ARITY);
+        checkAgainstScan(IndexedDaryHeap.DEFAULT_ARITY, 400);
+    }
+
+    /**
+     * Tests that an 8-ary heap polls items in order of their lowest key.
+     */
+    @Test
+    public void heapTest3() {
+        checkAgainstScan(8, 800);
+    }
+
+    /**
+     * Tests clear(), getKey(), and the exceptions of an empty or invalid heap.
+     */
+    @Test
+    public void heapTest4() {
+        assertThrows(IllegalArgumentException.class, () -> new IndexedDaryHeap(10, 1));
+        IndexedDaryHeap heap = new IndexedDaryHeap(10, 3);
+        assertThrows(NoSuchElementException.class, () -> heap.poll());
+        heap.insertOrDecrease(7, 2.5);
+        heap.insertOrDecrease(3, 1.5);
+        assertEquals(2.5, heap.getKey(7));
+        assertThrows(NoSuchElementException.class, () -> heap.getKey(4));
+        heap.clear();
+        assertTrue(heap.isEmpty());
+        assertFalse(heap.contains(7));
+        assertTrue(heap.insertOrDecrease(7, 9.0));
+        assertEquals(7, heap.poll());
+    }
+
+}
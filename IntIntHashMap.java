@@ -0,0 +1,237 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * This IntIntHashMap class maps primitive int keys to primitive int values,
+ * such as sparse node indices to positions. It offers the same operations as
+ * MapADT, but stores its entries with open addressing in flat arrays of keys
+ * and values, with a flag marking each full slot, so nothing is ever boxed
+ * and no object is allocated per entry. Collisions are resolved by linear
+ * probing, the capacity is always a power of two so that slots are found by
+ * masking the hash, and removals shift later entries back instead of leaving
+ * tombstones.
+ */
+public class IntIntHashMap {
+
+    // the capacity of a map created without an expected size
+    public static final int DEFAULT_CAPACITY = 16;
+    // the map grows once more than this fraction of its slots are full
+    private static final double MAX_LOAD_FACTOR = 0.7;
+
+    private int[] keys;
+    private int[] values;
+    // used[i] is true when slot i holds an entry
+    private boolean[] used;
+    private int mask;
+    private int size = 0;
+
+    /**
+     * Creates an empty map with the default capacity.
+     */
+    public IntIntHashMap() {
+        this(0);
+    }
+
+    /**
+     * Creates an empty map with enough capacity to hold expectedSize entries
+     * without growing.
+     *
+     * @param expectedSize the number of entries expected to be stored
+     * @throws IllegalArgumentException if expectedSize is negative
+     */
+    public IntIntHashMap(int expectedSize) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Expected size cannot be negative: " + expectedSize);
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity * MAX_LOAD_FACTOR < expectedSize)
+            capacity <<= 1;
+        allocate(capacity);
+    }
+
+    // finds the home slot of a key, spreading its bits so that sequential
+    // keys do not fill one run of slots
+    private int homeOf(int key) {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    // finds the slot holding key, or returns -(empty slot)-1 when key is absent
+    private int slotOf(int key) {
+        int slot = homeOf(key);
+        while (used[slot]) {
+            if (keys[slot] == key)
+                return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -slot - 1;
+    }
+
+    /**
+     * Adds a new key-value pair to this map.
+     *
+     * @param key   the key of the new pair
+     * @param value the value of the new pair
+     * @throws IllegalArgumentException if key is already stored in this map
+     */
+    public void put(int key, int value) {
+        int slot = slotOf(key);
+        if (slot >= 0)
+            throw new IllegalArgumentException("Key already exists: " + key);
+        insert(-slot - 1, key, value);
+    }
+
+    /**
+     * Maps a key to a value, adding the key when it is not already stored,
+     * or replacing its value when it is.
+     *
+     * @param key   the key to map
+     * @param value the value to map key to
+     */
+    public void set(int key, int value) {
+        int slot = slotOf(key);
+        if (slot >= 0)
+            values[slot] = value;
+        else
+            insert(-slot - 1, key, value);
+    }
+
+    // stores a new entry in an empty slot, growing the map when it is full
+    private void insert(int slot, int key, int value) {
+        keys[slot] = key;
+        values[slot] = value;
+        used[slot] = true;
+        size++;
+        if (size > keys.length * MAX_LOAD_FACTOR)
+            rehash(keys.length << 1);
+    }
+
+    // moves every entry into new arrays, without checking for duplicates
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (!oldUsed[i])
+                continue;
+            int slot = homeOf(oldKeys[i]);
+            while (used[slot])
+                slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+            used[slot] = true;
+        }
+    }
+
+    /**
+     * Checks whether a key is stored in this map.
+     *
+     * @param key the key to check for
+     * @return true if the key is stored, or false if it is not
+     */
+    public boolean containsKey(int key) {
+        return slotOf(key) >= 0;
+    }
+
+    /**
+     * Retrieves the value that a key maps to.
+     *
+     * @param key the key to look up
+     * @return the value that key maps to
+     * @throws NoSuchElementException when key is not stored in this map
+     */
+    public int get(int key) {
+        int slot = slotOf(key);
+        if (slot < 0)
+            throw new NoSuchElementException("Key not found: " + key);
+        return values[slot];
+    }
+
+    /**
+     * Retrieves the value that a key maps to, or a default value when the
+     * key is not stored, with a single lookup.
+     *
+     * @param key          the key to look up
+     * @param defaultValue the value to return when key is not stored
+     * @return the value that key maps to, or defaultValue
+     */
+    public int getOrDefault(int key, int defaultValue) {
+        int slot = slotOf(key);
+        return slot < 0 ? defaultValue : values[slot];
+    }
+
+    /**
+     * Removes the mapping for a key from this map.
+     *
+     * @param key the key whose mapping to remove
+     * @return the value that the removed key mapped to
+     * @throws NoSuchElementException when key is not stored in this map
+     */
+    public int remove(int key) {
+        int slot = slotOf(key);
+        if (slot < 0)
+            throw new NoSuchElementException("Key not found: " + key);
+        int value = values[slot];
+        // shift back each later entry in the run that may fill the hole
+        int hole = slot;
+        for (int i = (slot + 1) & mask; used[i]; i = (i + 1) & mask) {
+            int home = homeOf(keys[i]);
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        used[hole] = false;
+        size--;
+        return value;
+    }
+
+    /**
+     * Removes all key-value pairs from this map, keeping its capacity.
+     */
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    /**
+     * Retrieves the number of keys stored in this map.
+     *
+     * @return the number of keys stored in this map
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Retrieves the number of slots in this map's arrays.
+     *
+     * @return the capacity of this map
+     */
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * Retrieves this map's keys.
+     *
+     * @return a new array of the keys in this map, in no particular order
+     */
+    public int[] getKeys() {
+        int[] list = new int[size];
+        int count = 0;
+        for (int i = 0; i < keys.length; i++)
+            if (used[i])
+                list[count++] = keys[i];
+        return list;
+    }
+
+}
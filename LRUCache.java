@@ -0,0 +1,164 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This LRUCache class stores a bounded number of values by key, and evicts
+ * the least recently used entry whenever a new entry would exceed that bound.
+ * Every entry is stamped with the version of the data that it was computed
+ * from, and an entry is only returned while that version is still current.
+ * This way a single version counter, bumped whenever the data changes, keeps
+ * stale entries from ever being served, without clearing the whole cache.
+ *
+ * All methods are synchronized, so one cache can be shared between threads.
+ *
+ * @param K is the type of the keys that values are cached by
+ * @param V is the type of the cached values
+ */
+public class LRUCache<K, V> {
+
+    // an entry's value along with the version it was computed from
+    private static class Entry<V> {
+        private final V value;
+        private final long version;
+
+        private Entry(V value, long version) {
+            this.value = value;
+            this.version = version;
+        }
+    }
+
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private int capacity;
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+
+    /**
+     * Creates an empty cache that holds at most capacity entries.
+     *
+     * @param capacity the most entries to hold, or 0 to cache nothing
+     * @throws IllegalArgumentException if capacity is negative
+     */
+    public LRUCache(int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("Cache capacity cannot be negative: " + capacity);
+        this.capacity = capacity;
+        // access order moves every entry that is read to the end of the map
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() <= LRUCache.this.capacity)
+                    return false;
+                evictionCount++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns the value cached for a key, if it was computed from the current
+     * version. An entry from any other version is removed.
+     *
+     * @param key     the key to look up
+     * @param version the current version of the data
+     * @return the cached value, or null when there is no current entry
+     */
+    public synchronized V get(K key, long version) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null || entry.version != version) {
+            if (entry != null)
+                entries.remove(key);
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.value;
+    }
+
+    /**
+     * Caches a value for a key, replacing any older entry for that key.
+     *
+     * @param key     the key to cache the value by
+     * @param value   the value to cache
+     * @param version the version of the data the value was computed from
+     */
+    public synchronized void put(K key, V value, long version) {
+        if (capacity > 0)
+            entries.put(key, new Entry<>(value, version));
+    }
+
+    /**
+     * Removes every entry from this cache. The hit, miss, and eviction counts
+     * are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Changes the most entries this cache holds, evicting the least recently
+     * used entries when there are more than that.
+     *
+     * @param capacity the most entries to hold, or 0 to cache nothing
+     * @throws IllegalArgumentException if capacity is negative
+     */
+    public synchronized void setCapacity(int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("Cache capacity cannot be negative: " + capacity);
+        this.capacity = capacity;
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (entries.size() > capacity) {
+            iterator.next();
+            iterator.remove();
+            evictionCount++;
+        }
+    }
+
+    /**
+     * Returns the most entries this cache holds.
+     *
+     * @return the capacity of this cache
+     */
+    public synchronized int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of entries in this cache, including any stale ones
+     * that have not been looked up since their version changed.
+     *
+     * @return the number of entries
+     */
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of lookups that found a current entry.
+     *
+     * @return the number of cache hits
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of lookups that found no current entry.
+     *
+     * @return the number of cache misses
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of entries removed to stay within the capacity.
+     *
+     * @return the number of evictions
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+}
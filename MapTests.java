@@ -0,0 +1,328 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This MapTests class tests the maps that the graphs are built on: the open
+ * addressing HashtableMap and the chained version it replaced, the
+ * concurrent HashtableMap, and the primitive maps used by the searches.
+ */
+public class MapTests {
+
+    /**
+     * This test applies the same random puts, sets, and removals to the three
+     * primitive maps and to a java.util.HashMap, with keys drawn from a small
+     * range (and multiples of a large power of two for the object map) so
+     * that probe runs collide, wrap around, and shift back on removal.
+     */
+    @Test
+    public void mapTest1() {
+        ObjectIntHashMap<Integer> objectMap = new ObjectIntHashMap<>();
+        IntIntHashMap intMap = new IntIntHashMap();
+        IntDoubleHashMap doubleMap = new IntDoubleHashMap(3);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(2000);
+        for (int step = 0; step < 20000; step++) {
+            int key = random.nextInt(300) - 150;
+            Integer objectKey = key << 20;
+            int action = random.nextInt(3);
+            if (action == 0 && !expected.containsKey(key)) {
+                objectMap.put(objectKey, step);
+                intMap.put(key, step);
+                doubleMap.put(key, step / 2.0);
+                expected.put(key, step);
+            } else if (action == 1) {
+                objectMap.set(objectKey, step);
+                intMap.set(key, step);
+                doubleMap.set(key, step / 2.0);
+                expected.put(key, step);
+            } else if (action == 2 && expected.containsKey(key)) {
+                int value = expected.remove(key);
+                assertEquals(value, objectMap.remove(objectKey));
+                assertEquals(value, intMap.remove(key));
+                assertEquals(value / 2.0, doubleMap.remove(key));
+            } else if (expected.containsKey(key)) {
+                assertThrows(IllegalArgumentException.class, () -> intMap.put(key, 0));
+            } else {
+                assertThrows(NoSuchElementException.class, () -> objectMap.remove(objectKey));
+            }
+            assertEquals(expected.size(), objectMap.getSize());
+            assertEquals(expected.size(), intMap.getSize());
+            assertEquals(expected.size(), doubleMap.getSize());
+            if (step % 100 == 0) {
+                for (int k = -150; k < 150; k++) {
+                    Integer value = expected.get(k);
+                    assertEquals(value != null, objectMap.containsKey(k << 20));
+                    assertEquals(value == null ? -1 : value, intMap.getOrDefault(k, -1));
+                    assertEquals(value == null ? -1.0 : value / 2.0, doubleMap.getOrDefault(k, -1.0));
+                    if (value != null)
+                        assertEquals((int) value, objectMap.get(k << 20));
+                }
+                assertEquals(expected.size(), objectMap.getKeys().size());
+                assertEquals(expected.size(), intMap.getKeys().length);
+            }
+        }
+        assertEquals(0, (objectMap.getCapacity() - 1) & objectMap.getCapacity());
+        assertThrows(NoSuchElementException.class, () -> intMap.get(1000));
+        assertFalse(objectMap.containsKey(null));
+        doubleMap.clear();
+        assertEquals(0, doubleMap.getSize());
+        assertFalse(doubleMap.containsKey(expected.keySet().iterator().next()));
+    }
+
+    /**
+     * This test applies the same random puts, gets, and removals to the open
+     * addressing HashtableMap, the chained version it replaced, and a
+     * java.util.HashMap, using keys whose hash codes collide, are negative,
+     * or are Integer.MIN_VALUE. It checks that every result, exception, size,
+     * and capacity matches.
+     */
+    @Test
+    public void mapTest2() {
+        HashtableMap<Long, Integer> map = new HashtableMap<>(8);
+        ChainedHashtableMap<Long, Integer> chained = new ChainedHashtableMap<>(8);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(2100);
+        for (int step = 0; step < 5000; step++) {
+            // Long hash codes xor the high and low halves, so these collide
+            long base = random.nextInt(200);
+            long key = random.nextBoolean() ? base : (base << 32) | base;
+            if (step % 97 == 0)
+                key = Integer.MIN_VALUE & 0xFFFFFFFFL;
+            Long boxed = key;
+            if (random.nextInt(3) > 0) {
+                if (expected.containsKey(key)) {
+                    assertThrows(IllegalArgumentException.class, () -> map.put(boxed, 0));
+                    assertThrows(IllegalArgumentException.class, () -> chained.put(boxed, 0));
+                } else {
+                    map.put(key, step);
+                    chained.put(key, step);
+                    expected.put(key, step);
+                }
+            } else if (expected.containsKey(key)) {
+                int value = expected.remove(key);
+                assertEquals(value, map.remove(key));
+                assertEquals(value, chained.remove(key));
+            } else {
+                assertThrows(NoSuchElementException.class, () -> map.remove(boxed));
+                assertThrows(NoSuchElementException.class, () -> map.get(boxed));
+            }
+            assertEquals(expected.size(), map.getSize());
+            assertEquals(chained.getCapacity(), map.getCapacity());
+            for (Map.Entry<Long, Integer> entry : expected.entrySet())
+                assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        assertEquals(new HashSet<>(expected.keySet()), new HashSet<>(map.getKeys()));
+        assertThrows(NullPointerException.class, () -> map.put(null, 1));
+        map.put(-1L, null);
+        assertNull(map.get(-1L));
+        map.clear();
+        assertEquals(0, map.getSize());
+        assertFalse(map.containsKey(-1L));
+    }
+
+    /**
+     * This test has eight threads put and then remove their own keys of a
+     * ConcurrentHashtableMap, starting from a small capacity so that it grows
+     * many times, while two more threads race to put the same shared keys and
+     * reader threads keep getting and listing keys that never change. It
+     * checks that no write is lost, that each shared key is put exactly once,
+     * and that readers always find the stable keys, even while a resize is
+     * moving them.
+     */
+    @Test
+    public void mapTest3() throws InterruptedException {
+        ConcurrentHashtableMap<Integer, Integer> map = new ConcurrentHashtableMap<>(4, 4);
+        for (int key = -100; key < 0; key++)
+            map.put(key, -key);
+        AtomicBoolean done = new AtomicBoolean();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        int[] duplicates = new int[2];
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 10; t++) {
+            int thread = t;
+            writers.add(new Thread(() -> {
+                try {
+                    if (thread >= 8) {
+                        // two threads put the same keys, and only one may win each
+                        for (int key = 100000; key < 120000; key++) {
+                            try {
+                                map.put(key, thread);
+                            } catch (IllegalArgumentException e) {
+                                duplicates[thread - 8]++;
+                            }
+                        }
+                        return;
+                    }
+                    for (int key = thread; key < 80000; key += 8)
+                        map.put(key, key * 2);
+                    for (int key = thread; key < 80000; key += 8)
+                        if (key % 3 == 0)
+                            assertEquals(key * 2, map.remove(key));
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < 2; t++) {
+            readers.add(new Thread(() -> {
+                try {
+                    while (!done.get())
+                        for (int key = -100; key < 0; key++)
+                            assertEquals(-key, map.get(key));
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        // listing the keys follows bins that a resize has already moved
+        readers.add(new Thread(() -> {
+            try {
+                while (!done.get()) {
+                    Set<Integer> keys = new HashSet<>(map.getKeys());
+                    for (int key = -100; key < 0; key++)
+                        assertTrue(keys.contains(key));
+                }
+            } catch (Throwable e) {
+                failures.add(e);
+            }
+        }));
+        for (Thread thread : readers)
+            thread.start();
+        for (Thread thread : writers)
+            thread.start();
+        for (Thread thread : writers)
+            thread.join();
+        done.set(true);
+        for (Thread thread : readers)
+            thread.join();
+
+        assertEquals(new ArrayList<Throwable>(), failures);
+        assertEquals(20000, duplicates[0] + duplicates[1]);
+        int expectedSize = 100 + 20000;
+        for (int key = 0; key < 80000; key++) {
+            assertEquals(key % 3 != 0, map.containsKey(key));
+            if (key % 3 != 0) {
+                assertEquals(key * 2, map.get(key));
+                expectedSize++;
+            }
+        }
+        assertEquals(expectedSize, map.getSize());
+        assertEquals(expectedSize, map.getKeys().size());
+        assertTrue(map.getCapacity() * 0.8 > expectedSize);
+        assertThrows(NoSuchElementException.class, () -> map.remove(0));
+        assertThrows(IllegalArgumentException.class, () -> map.put(1, 0));
+        map.clear();
+        assertEquals(0, map.getSize());
+        assertFalse(map.containsKey(1));
+    }
+
+    /**
+     * This test puts and removes random keys, including colliding ones, in a
+     * HashtableMap that grows incrementally, alongside a HashtableMap that
+     * grows all at once and a java.util.HashMap. It checks that every lookup
+     * matches while entries are still being moved, that the capacity grows
+     * at the same points, and that each move finishes before the next growth.
+     */
+    @Test
+    public void mapTest4() {
+        HashtableMap<Long, Integer> map = new HashtableMap<>(8);
+        map.setIncrementalResize(true);
+        HashtableMap<Long, Integer> eager = new HashtableMap<>(8);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(2300);
+        boolean sawResizing = false;
+        for (int step = 0; step < 20000; step++) {
+            long key = random.nextInt(step < 12000 ? 4000 : 400);
+            // Long hash codes xor the high and low halves, so a few keys of
+            // the form (c << 32) | c all hash to 0 and share one probe run,
+            // while the rest have distinct hash codes
+            if (random.nextInt(10) == 0) {
+                long c = 1 + random.nextInt(16);
+                key = (c << 32) | c;
+            }
+            Long boxed = key;
+            // mostly puts at first, so the map grows many times, then mostly
+            // removes, so that keys are removed from arrays still being moved
+            if (random.nextInt(10) < (step < 12000 ? 8 : 3)) {
+                if (expected.containsKey(key)) {
+                    assertThrows(IllegalArgumentException.class, () -> map.put(boxed, 0));
+                } else {
+                    map.put(key, step);
+                    eager.put(key, step);
+                    expected.put(key, step);
+                }
+            } else if (expected.containsKey(key)) {
+                int value = expected.remove(key);
+                assertEquals(value, map.remove(key));
+                assertEquals(value, eager.remove(key));
+            } else {
+                assertThrows(NoSuchElementException.class, () -> map.remove(boxed));
+                assertThrows(NoSuchElementException.class, () -> map.get(boxed));
+            }
+            sawResizing |= map.isResizing();
+            assertFalse(eager.isResizing());
+            assertEquals(expected.size(), map.getSize());
+            assertEquals(eager.getCapacity(), map.getCapacity());
+            if (step % 50 == 0) {
+                for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+                    assertTrue(map.containsKey(entry.getKey()));
+                    assertEquals(entry.getValue(), map.get(entry.getKey()));
+                }
+                assertEquals(expected.size(), map.getKeys().size());
+                assertEquals(new HashSet<>(expected.keySet()), new HashSet<>(map.getKeys()));
+            }
+        }
+        assertTrue(sawResizing);
+
+        // growing right after a put while a move is still in progress
+        HashtableMap<Integer, Integer> small = new HashtableMap<>(4);
+        small.setIncrementalResize(true);
+        for (int key = 0; key < 4; key++)
+            small.put(key, key);
+        assertTrue(small.isResizing());
+        assertEquals(8, small.getCapacity());
+        small.setIncrementalResize(false);
+        assertFalse(small.isResizing());
+        for (int key = 0; key < 4; key++)
+            assertEquals(key, small.get(key));
+        small.setIncrementalResize(true);
+        for (int key = 4; key < 7; key++)
+            small.put(key, key);
+        assertEquals(16, small.getCapacity());
+        assertTrue(small.isResizing());
+        small.clear();
+        assertFalse(small.isResizing());
+        assertEquals(0, small.getKeys().size());
+        assertFalse(small.containsKey(1));
+    }
+
+    /**
+     * Tests that HashtableMap.ensureCapacity() grows a map only once for the
+     * entries it is sized for, and never shrinks it.
+     */
+    @Test
+    public void mapTest5() {
+        HashtableMap<Integer, Integer> map = new HashtableMap<>();
+        map.ensureCapacity(1000);
+        int capacity = map.getCapacity();
+        for (int key = 0; key < 1000; key++)
+            map.put(key, key);
+        assertEquals(capacity, map.getCapacity());
+        map.ensureCapacity(10);
+        assertEquals(capacity, map.getCapacity());
+        for (int key = 0; key < 1000; key++)
+            assertEquals(key, map.get(key));
+    }
+
+}
@@ -0,0 +1,251 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * This ObjectIntHashMap class maps object keys to primitive int values, such
+ * as node data to dense node indices. It offers the same operations as
+ * MapADT, but stores its entries with open addressing in three flat arrays
+ * (keys, cached key hashes, and values) instead of in Pair objects within
+ * bucket lists, so values are never boxed and no object is allocated per
+ * entry. Collisions are resolved by linear probing, the capacity is always a
+ * power of two so that slots are found by masking the hash, and removals
+ * shift later entries back instead of leaving tombstones.
+ *
+ * @param KeyType is the type of the keys, which must not be null
+ */
+public class ObjectIntHashMap<KeyType> {
+
+    // the capacity of a map created without an expected size
+    public static final int DEFAULT_CAPACITY = 16;
+    // the map grows once more than this fraction of its slots are full
+    private static final double MAX_LOAD_FACTOR = 0.7;
+
+    // keys[i] is the key in slot i, or null when that slot is empty
+    private Object[] keys;
+    // hashes[i] is the spread hash code of keys[i]
+    private int[] hashes;
+    private int[] values;
+    private int mask;
+    private int size = 0;
+
+    /**
+     * Creates an empty map with the default capacity.
+     */
+    public ObjectIntHashMap() {
+        this(0);
+    }
+
+    /**
+     * Creates an empty map with enough capacity to hold expectedSize entries
+     * without growing.
+     *
+     * @param expectedSize the number of entries expected to be stored
+     * @throws IllegalArgumentException if expectedSize is negative
+     */
+    public ObjectIntHashMap(int expectedSize) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Expected size cannot be negative: " + expectedSize);
+        allocate(capacityFor(expectedSize));
+    }
+
+    // finds the smallest power of two capacity that holds size entries
+    static int capacityFor(int size) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity * MAX_LOAD_FACTOR < size)
+            capacity <<= 1;
+        return capacity;
+    }
+
+    // spreads the bits of a hash code, so that masking keeps the high bits
+    private static int spread(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        hashes = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    // finds the slot holding key, or returns -(empty slot)-1 when key is absent
+    private int slotOf(Object key, int hash) {
+        int slot = hash & mask;
+        while (keys[slot] != null) {
+            if (hashes[slot] == hash && keys[slot].equals(key))
+                return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -slot - 1;
+    }
+
+    /**
+     * Adds a new key-value pair to this map.
+     *
+     * @param key   the key of the new pair
+     * @param value the value of the new pair
+     * @throws IllegalArgumentException if key is already stored in this map
+     * @throws NullPointerException     if key is null
+     */
+    public void put(KeyType key, int value) {
+        int hash = spread(key.hashCode());
+        int slot = slotOf(key, hash);
+        if (slot >= 0)
+            throw new IllegalArgumentException("Key already exists: " + key);
+        insert(-slot - 1, key, hash, value);
+    }
+
+    /**
+     * Maps a key to a value, adding the key when it is not already stored,
+     * or replacing its value when it is.
+     *
+     * @param key   the key to map
+     * @param value the value to map key to
+     * @throws NullPointerException if key is null
+     */
+    public void set(KeyType key, int value) {
+        int hash = spread(key.hashCode());
+        int slot = slotOf(key, hash);
+        if (slot >= 0)
+            values[slot] = value;
+        else
+            insert(-slot - 1, key, hash, value);
+    }
+
+    // stores a new entry in an empty slot, growing the map when it is full
+    private void insert(int slot, Object key, int hash, int value) {
+        keys[slot] = key;
+        hashes[slot] = hash;
+        values[slot] = value;
+        size++;
+        if (size > keys.length * MAX_LOAD_FACTOR)
+            rehash(keys.length << 1);
+    }
+
+    // moves every entry into new arrays, without checking for duplicates
+    private void rehash(int capacity) {
+        Object[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == null)
+                continue;
+            int slot = oldHashes[i] & mask;
+            while (keys[slot] != null)
+                slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            hashes[slot] = oldHashes[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    /**
+     * Checks whether a key is stored in this map.
+     *
+     * @param key the key to check for
+     * @return true if the key is stored, or false if it is not (or is null)
+     */
+    public boolean containsKey(KeyType key) {
+        return key != null && slotOf(key, spread(key.hashCode())) >= 0;
+    }
+
+    /**
+     * Retrieves the value that a key maps to.
+     *
+     * @param key the key to look up
+     * @return the value that key maps to
+     * @throws NoSuchElementException when key is not stored in this map
+     */
+    public int get(KeyType key) {
+        int slot = key == null ? -1 : slotOf(key, spread(key.hashCode()));
+        if (slot < 0)
+            throw new NoSuchElementException("Key not found: " + key);
+        return values[slot];
+    }
+
+    /**
+     * Retrieves the value that a key maps to, or a default value when the
+     * key is not stored, with a single lookup.
+     *
+     * @param key          the key to look up
+     * @param defaultValue the value to return when key is not stored
+     * @return the value that key maps to, or defaultValue
+     */
+    public int getOrDefault(KeyType key, int defaultValue) {
+        int slot = key == null ? -1 : slotOf(key, spread(key.hashCode()));
+        return slot < 0 ? defaultValue : values[slot];
+    }
+
+    /**
+     * Removes the mapping for a key from this map.
+     *
+     * @param key the key whose mapping to remove
+     * @return the value that the removed key mapped to
+     * @throws NoSuchElementException when key is not stored in this map
+     */
+    public int remove(KeyType key) {
+        int slot = key == null ? -1 : slotOf(key, spread(key.hashCode()));
+        if (slot < 0)
+            throw new NoSuchElementException("Key not found: " + key);
+        int value = values[slot];
+        // shift back each later entry in the run that may fill the hole
+        int hole = slot;
+        for (int i = (slot + 1) & mask; keys[i] != null; i = (i + 1) & mask) {
+            int home = hashes[i] & mask;
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                hashes[hole] = hashes[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        keys[hole] = null;
+        size--;
+        return value;
+    }
+
+    /**
+     * Removes all key-value pairs from this map, keeping its capacity.
+     */
+    public void clear() {
+        Arrays.fill(keys, null);
+        size = 0;
+    }
+
+    /**
+     * Retrieves the number of keys stored in this map.
+     *
+     * @return the number of keys stored in this map
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Retrieves the number of slots in this map's arrays.
+     *
+     * @return the capacity of this map
+     */
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * Retrieves this map's keys.
+     *
+     * @return a list of the keys in this map, in no particular order
+     */
+    @SuppressWarnings("unchecked")
+    public List<KeyType> getKeys() {
+        List<KeyType> list = new ArrayList<>(size);
+        for (Object key : keys)
+            if (key != null)
+                list.add((KeyType) key);
+        return list;
+    }
+
+}
@@ -0,0 +1,118 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This Route class holds everything that one shortest path search finds
+ * between two nodes: the data of the nodes along the path, the weight of each
+ * leg (the edge between two consecutive nodes), and the total cost of the
+ * path. Leg i runs from node i to node i+1, so a route through n nodes has
+ * n-1 legs. Routes cannot be changed once they are created.
+ *
+ * @param NodeType is the data type stored at each graph node
+ */
+public class Route<NodeType> {
+
+    // node data along the route, from start to end
+    protected final List<NodeType> nodes;
+    // the weight of the edge leaving each node but the last
+    protected final double[] legs;
+    // the total cost reported by the search that found this route
+    protected final double totalCost;
+
+    /**
+     * Creates a route from the nodes along a path and the weights of the edges
+     * between them.
+     *
+     * @param nodes     the data of the nodes along the path, in order
+     * @param legs      the weight of the edge between each pair of
+     *                  consecutive nodes
+     * @param totalCost the total cost of the path
+     * @throws IllegalArgumentException if nodes is empty, or if there is not
+     *                                  exactly one leg between every pair of
+     *                                  consecutive nodes
+     */
+    public Route(List<NodeType> nodes, double[] legs, double totalCost) {
+        if (nodes.isEmpty())
+            throw new IllegalArgumentException("A route must contain at least one node.");
+        if (legs.length != nodes.size() - 1)
+            throw new IllegalArgumentException("A route through " + nodes.size()
+                    + " nodes must have " + (nodes.size() - 1) + " legs, not " + legs.length);
+        this.nodes = Collections.unmodifiableList(new ArrayList<>(nodes));
+        this.legs = legs.clone();
+        this.totalCost = totalCost;
+    }
+
+    /**
+     * Returns the node that this route starts from.
+     *
+     * @return the start node's data
+     */
+    public NodeType getStart() {
+        return nodes.get(0);
+    }
+
+    /**
+     * Returns the node that this route ends at.
+     *
+     * @return the end node's data
+     */
+    public NodeType getEnd() {
+        return nodes.get(nodes.size() - 1);
+    }
+
+    /**
+     * Returns the data of the nodes along this route, starting with the start
+     * node and ending with the end node.
+     *
+     * @return an unmodifiable list of node data along this route
+     */
+    public List<NodeType> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the number of legs in this route, which is one less than the
+     * number of nodes along it.
+     *
+     * @return the number of legs
+     */
+    public int getLegCount() {
+        return legs.length;
+    }
+
+    /**
+     * Returns the weight of one leg of this route.
+     *
+     * @param leg the index of the leg, from 0 to getLegCount()-1
+     * @return the weight of the edge from node leg to node leg+1
+     * @throws IndexOutOfBoundsException if leg is not a valid leg index
+     */
+    public double getLegWeight(int leg) {
+        if (leg < 0 || leg >= legs.length)
+            throw new IndexOutOfBoundsException("Invalid leg index: " + leg);
+        return legs[leg];
+    }
+
+    /**
+     * Returns the weights of every leg of this route, in order.
+     *
+     * @return a new list of leg weights
+     */
+    public List<Double> getLegWeights() {
+        List<Double> weights = new ArrayList<>(legs.length);
+        for (double weight : legs)
+            weights.add(weight);
+        return weights;
+    }
+
+    /**
+     * Returns the total cost of this route.
+     *
+     * @return the total cost from the start node to the end node
+     */
+    public double getTotalCost() {
+        return totalCost;
+    }
+
+}
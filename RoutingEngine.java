@@ -0,0 +1,42 @@
+/**
+ * This enum lists the algorithms that a DijkstraGraph can use to answer its
+ * shortestPathData() and shortestPathCost() queries.
+ */
+public enum RoutingEngine {
+
+    /**
+     * Dijkstra's algorithm, run over the graph's Node and Edge objects, or
+     * over its CSRGraph snapshot while the graph is frozen.
+     */
+    DIJKSTRA,
+
+    /**
+     * A* search over a frozen snapshot, guided by lower bounds that are
+     * derived from precomputed distances to and from a set of landmarks.
+     */
+    ALT,
+
+    /**
+     * Dijkstra's algorithm run forwards from the start node and backwards
+     * from the end node of a frozen snapshot at the same time, stopping once
+     * the two searches meet on a shortest path.
+     */
+    BIDIRECTIONAL,
+
+    /**
+     * Lookups in a table of the shortest paths between every pair of nodes,
+     * precomputed in parallel when the graph is frozen. Graphs with more
+     * nodes than the limit set by DijkstraGraph.setAllPairsNodeLimit() fall
+     * back to Dijkstra's algorithm over the snapshot instead.
+     */
+    ALL_PAIRS,
+
+    /**
+     * A bidirectional search that only moves towards more important nodes of
+     * a contraction hierarchy, which adds shortcut edges to the snapshot when
+     * it is frozen. The hierarchy can be saved to and loaded from a file set
+     * by DijkstraGraph.setHierarchyFile(), to skip that preprocessing.
+     */
+    CONTRACTION_HIERARCHIES
+
+}
@@ -0,0 +1,214 @@
+import java.util.Arrays;
+
+/**
+ * This SearchWorkspace class holds the arrays that one shortest path search
+ * keeps its state in: the tentative cost of each node, the predecessor of
+ * each node and the weight of the edge from it, a lower bound on each node's
+ * remaining cost for A* searches, and a heap of node indices.
+ * Each thread has its own workspace, which every search on that thread
+ * reuses, so that steady-state searches allocate nothing. Each thread also
+ * has a second workspace, for the backward half of a bidirectional search.
+ *
+ * Instead of clearing the arrays before every search, each node's entries
+ * are stamped with the epoch of the search that wrote them, and a node whose
+ * stamp is from an earlier epoch counts as not yet reached. Beginning a new
+ * search only bumps the epoch, and empties the heap, which holds no more
+ * nodes than the last search left in it.
+ *
+ * A search must be done reading its workspace before another search on the
+ * same thread begins.
+ */
+public class SearchWorkspace {
+
+    // the workspace of each thread, created on its first search
+    private static final ThreadLocal<SearchWorkspace> WORKSPACES =
+            ThreadLocal.withInitial(SearchWorkspace::new);
+
+    // the second workspace of each thread, for backward searches
+    private static final ThreadLocal<SearchWorkspace> BACKWARD_WORKSPACES =
+            ThreadLocal.withInitial(SearchWorkspace::new);
+
+    protected double[] dist = new double[0];
+    protected int[] parent = new int[0];
+    protected double[] parentWeight = new double[0];
+    // stamps[v] is the epoch of the last search that reached node v
+    protected int[] stamps = new int[0];
+    // a lower bound on each node's remaining cost, for A* searches, which is
+    // only current when boundStamps[v] is the current epoch
+    protected double[] bounds = new double[0];
+    protected int[] boundStamps = new int[0];
+    protected int epoch = 0;
+    protected IndexedDaryHeap heap = new IndexedDaryHeap(0);
+
+    /**
+     * Returns the current thread's workspace, ready for a new search over
+     * nodes 0 to nodeCount-1. Its arrays are only reallocated when they are
+     * too small for nodeCount nodes.
+     *
+     * @param nodeCount the number of nodes in the graph to search
+     * @return this thread's workspace, with no node reached
+     */
+    public static SearchWorkspace begin(int nodeCount) {
+        SearchWorkspace workspace = WORKSPACES.get();
+        workspace.reset(nodeCount);
+        return workspace;
+    }
+
+    /**
+     * Returns the current thread's second workspace, ready for a new search
+     * over nodes 0 to nodeCount-1, so that the backward half of a
+     * bidirectional search can keep its state apart from the forward half in
+     * the workspace returned by begin().
+     *
+     * @param nodeCount the number of nodes in the graph to search
+     * @return this thread's second workspace, with no node reached
+     */
+    public static SearchWorkspace beginBackward(int nodeCount) {
+        SearchWorkspace workspace = BACKWARD_WORKSPACES.get();
+        workspace.reset(nodeCount);
+        return workspace;
+    }
+
+    // grows the arrays when needed, and starts a new epoch
+    private void reset(int nodeCount) {
+        if (stamps.length < nodeCount) {
+            int capacity = Math.max(nodeCount, stamps.length * 2);
+            dist = new double[capacity];
+            parent = new int[capacity];
+            parentWeight = new double[capacity];
+            stamps = new int[capacity];
+            bounds = new double[capacity];
+            boundStamps = new int[capacity];
+            heap = new IndexedDaryHeap(capacity);
+            epoch = 0;
+        }
+        heap.clear();
+        epoch++;
+        // after the epoch wraps around, old stamps could look current again
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            Arrays.fill(boundStamps, 0);
+            epoch = 1;
+        }
+    }
+
+    /**
+     * Checks whether the current search has reached a node.
+     *
+     * @param v the index of the node
+     * @return true if the node has a tentative cost in this search
+     */
+    public boolean isReached(int v) {
+        return stamps[v] == epoch;
+    }
+
+    /**
+     * Returns the tentative cost of a node in the current search.
+     *
+     * @param v the index of the node
+     * @return the node's cost, or Double.POSITIVE_INFINITY if it has not
+     *         been reached
+     */
+    public double getDist(int v) {
+        return stamps[v] == epoch ? dist[v] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the predecessor of a node on its tentative path.
+     *
+     * @param v the index of the node
+     * @return the predecessor's index, or -1 at the start node or when the
+     *         node has not been reached
+     */
+    public int getParent(int v) {
+        return stamps[v] == epoch ? parent[v] : -1;
+    }
+
+    /**
+     * Returns the weight of the edge from a node's predecessor to it.
+     *
+     * @param v the index of a reached node other than the start node
+     * @return the weight of the last edge on the node's tentative path
+     */
+    public double getParentWeight(int v) {
+        return parentWeight[v];
+    }
+
+    /**
+     * Records a new tentative path to a node.
+     *
+     * @param v      the index of the node
+     * @param cost   the cost of the path
+     * @param from   the index of the node's predecessor, or -1 for the start
+     * @param weight the weight of the edge from the predecessor
+     */
+    public void reach(int v, double cost, int from, double weight) {
+        stamps[v] = epoch;
+        dist[v] = cost;
+        parent[v] = from;
+        parentWeight[v] = weight;
+    }
+
+    /**
+     * Returns the lower bound on a node's remaining cost that the current
+     * search recorded, so that an A* search only computes it once per node.
+     *
+     * @param v the index of the node
+     * @return the node's bound, or Double.NaN if none has been recorded
+     */
+    public double getBound(int v) {
+        return boundStamps[v] == epoch ? bounds[v] : Double.NaN;
+    }
+
+    /**
+     * Records a lower bound on a node's remaining cost for the current
+     * search.
+     *
+     * @param v     the index of the node
+     * @param bound the lower bound
+     */
+    public void setBound(int v, double bound) {
+        boundStamps[v] = epoch;
+        bounds[v] = bound;
+    }
+
+    /**
+     * Returns the heap of node indices that the current search uses, which
+     * starts out empty.
+     *
+     * @return the workspace's heap
+     */
+    public IndexedDaryHeap getHeap() {
+        return heap;
+    }
+
+    /**
+     * Counts the nodes along the tentative path to a node, including the
+     * start node and the node itself.
+     *
+     * @param v the index of a reached node
+     * @return the number of nodes on its path
+     */
+    public int pathLength(int v) {
+        int length = 0;
+        for (int u = v; u != -1; u = getParent(u))
+            length++;
+        return length;
+    }
+
+    /**
+     * Lists the nodes along the tentative path to a node, from the start node
+     * to the node itself.
+     *
+     * @param v the index of a reached node
+     * @return the node indices along its path
+     */
+    public int[] buildPath(int v) {
+        int length = pathLength(v);
+        int[] path = new int[length];
+        for (int u = v; u != -1; u = getParent(u))
+            path[--length] = u;
+        return path;
+    }
+
+}
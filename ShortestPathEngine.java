@@ -0,0 +1,31 @@
+/**
+ * This interface represents a strategy for answering point-to-point shortest
+ * path queries over a frozen CSRGraph snapshot. Nodes are identified by their
+ * dense index within that snapshot. Implementations must not modify the
+ * snapshot, and must be safe to query from several threads at once.
+ */
+public interface ShortestPathEngine {
+
+    /**
+     * Returns the indices of the nodes along the shortest path from source to
+     * target, starting with source and ending with target.
+     *
+     * @param source the index of the starting node for the path
+     * @param target the index of the destination node for the path
+     * @return the node indices along this shortest path, or null when there
+     *         is no directed path from source to target
+     */
+    public int[] shortestPath(int source, int target);
+
+    /**
+     * Returns the cost (sum over edge weights) of the shortest path from
+     * source to target.
+     *
+     * @param source the index of the starting node for the path
+     * @param target the index of the destination node for the path
+     * @return the cost of this shortest path, or Double.POSITIVE_INFINITY
+     *         when there is no directed path from source to target
+     */
+    public double shortestPathCost(int source, int target);
+
+}
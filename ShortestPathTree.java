@@ -0,0 +1,147 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * This ShortestPathTree class holds the result of a single-source shortest
+ * path search: the cost of the shortest path from one start node to every
+ * node that it can reach, along with the predecessor of each of those nodes
+ * on its shortest path. The reachable nodes are kept in the order that the
+ * search settled them, which is from the lowest to the highest cost.
+ *
+ * @param NodeType is the data type stored at each graph node
+ */
+public class ShortestPathTree<NodeType> {
+
+    // reachable node data, in order of increasing path cost
+    protected final List<NodeType> nodes;
+    // cost of the shortest path to each node, in the same order
+    protected final double[] costs;
+    // position of each node's predecessor within nodes, or -1 for the start
+    protected final int[] parents;
+    // position of each reachable node within nodes, by node data
+    protected final ObjectIntHashMap<NodeType> positions;
+
+    /**
+     * Creates a tree from the nodes settled by a shortest path search. The
+     * first node must be the start node, and the predecessor of every other
+     * node must be settled before it.
+     *
+     * @param nodes   the reachable nodes, in order of increasing path cost
+     * @param costs   the cost of the shortest path to each of those nodes
+     * @param parents the position within nodes of each node's predecessor,
+     *                or -1 for the start node
+     */
+    public ShortestPathTree(List<NodeType> nodes, double[] costs, int[] parents) {
+        this.nodes = nodes;
+        this.costs = costs;
+        this.parents = parents;
+        this.positions = new ObjectIntHashMap<>(nodes.size());
+        for (int i = 0; i < nodes.size(); i++)
+            positions.put(nodes.get(i), i);
+    }
+
+    // finds the position of a reachable node, or throws NSE
+    private int positionOf(NodeType node) {
+        int position = positions.getOrDefault(node, -1);
+        if (position == -1)
+            throw new NoSuchElementException("No path from " + getStart() + " to " + node);
+        return position;
+    }
+
+    /**
+     * Returns the node that every path in this tree starts from.
+     *
+     * @return the start node's data
+     */
+    public NodeType getStart() {
+        return nodes.get(0);
+    }
+
+    /**
+     * Checks whether there is a path from the start node to the provided node.
+     *
+     * @param node the node data to check for
+     * @return true if node can be reached from the start node
+     */
+    public boolean isReachable(NodeType node) {
+        return node != null && positions.containsKey(node);
+    }
+
+    /**
+     * Returns the number of nodes that can be reached from the start node,
+     * including the start node itself.
+     *
+     * @return the number of reachable nodes
+     */
+    public int getReachableCount() {
+        return nodes.size();
+    }
+
+    /**
+     * Returns every node that can be reached from the start node, in order of
+     * increasing path cost. The start node is always first.
+     *
+     * @return an unmodifiable list of the reachable nodes
+     */
+    public List<NodeType> getReachableNodes() {
+        return Collections.unmodifiableList(nodes);
+    }
+
+    /**
+     * Returns the cost of the shortest path from the start node to a node.
+     *
+     * @param node the destination node's data
+     * @return the cost of the shortest path to that node
+     * @throws NoSuchElementException if node cannot be reached
+     */
+    public double getCost(NodeType node) {
+        return costs[positionOf(node)];
+    }
+
+    /**
+     * Returns the node before a node on its shortest path from the start node.
+     *
+     * @param node the node's data
+     * @return the predecessor's data, or null when node is the start node
+     * @throws NoSuchElementException if node cannot be reached
+     */
+    public NodeType getPredecessor(NodeType node) {
+        int parent = parents[positionOf(node)];
+        return parent == -1 ? null : nodes.get(parent);
+    }
+
+    /**
+     * Returns the data of the nodes along the shortest path from the start
+     * node to a node, starting with the start node and ending with node.
+     *
+     * @param node the destination node's data
+     * @return list of node data along that shortest path
+     * @throws NoSuchElementException if node cannot be reached
+     */
+    public List<NodeType> getPath(NodeType node) {
+        int position = positionOf(node);
+        int length = 0;
+        for (int p = position; p != -1; p = parents[p])
+            length++;
+        List<NodeType> path = new ArrayList<>(Collections.nCopies(length, (NodeType) null));
+        for (int p = position; p != -1; p = parents[p])
+            path.set(--length, nodes.get(p));
+        return path;
+    }
+
+    /**
+     * Returns the reachable node with the most costly shortest path from the
+     * start node, other than the start node itself.
+     *
+     * @return the data of the furthest reachable node
+     * @throws NoSuchElementException if no other node can be reached
+     */
+    public NodeType getFurthestNode() {
+        if (nodes.size() < 2)
+            throw new NoSuchElementException("No other nodes can be reached from " + getStart());
+        return nodes.get(nodes.size() - 1);
+    }
+
+}
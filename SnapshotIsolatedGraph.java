@@ -0,0 +1,296 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * This SnapshotIsolatedGraph lets many threads query a graph while other
+ * threads change it. Every version of the graph is a frozen DijkstraGraph
+ * that is never modified once it is published. Each query reads the current
+ * version with one volatile read and then runs entirely on that version, so
+ * queries never take a lock that writers hold, and never see a change that is
+ * only partly applied.
+ *
+ * Writers collect changes in a Batch. Publishing a batch copies the current
+ * version, applies the batch's changes to the copy, freezes it (so that no
+ * reader ever builds a snapshot or routing engine), and then makes the copy
+ * the current version with one volatile write. Batches are published one at
+ * a time, and each one is applied to the version published before it, so no
+ * change is ever lost. Since every publish copies the whole graph, changes
+ * should be grouped into as few batches as possible.
+ *
+ * @param NodeType is the data type stored at each graph node
+ * @param EdgeType is the numeric data type stored at each graph edge
+ */
+public class SnapshotIsolatedGraph<NodeType, EdgeType extends Number>
+        implements GraphADT<NodeType, EdgeType> {
+
+    // the version that queries run on, which is never modified
+    private volatile DijkstraGraph<NodeType, EdgeType> current;
+    // the number of versions published since this graph was created
+    private volatile long versionNumber = 0;
+    // held while a batch is applied and published
+    private final Object writeLock = new Object();
+
+    /**
+     * A Batch collects changes to publish to a SnapshotIsolatedGraph all at
+     * once. Nothing is applied until publish() is called, and a batch that is
+     * never published has no effect.
+     */
+    public class Batch {
+        // each change returns true when it modified the graph
+        private final List<Predicate<DijkstraGraph<NodeType, EdgeType>>> changes = new ArrayList<>();
+
+        /**
+         * Adds the insertion of a node to this batch.
+         *
+         * @param data the data item to store in the new node
+         * @return this batch
+         */
+        public Batch insertNode(NodeType data) {
+            changes.add(graph -> graph.insertNode(data));
+            return this;
+        }
+
+        /**
+         * Adds the removal of a node and all of its edges to this batch.
+         *
+         * @param data the data item stored in the node to remove
+         * @return this batch
+         */
+        public Batch removeNode(NodeType data) {
+            changes.add(graph -> graph.removeNode(data));
+            return this;
+        }
+
+        /**
+         * Adds the insertion of an edge, or the update of an existing edge's
+         * weight, to this batch.
+         *
+         * @param pred   the data item in the edge's predecessor node
+         * @param succ   the data item in the edge's successor node
+         * @param weight the weight of the edge
+         * @return this batch
+         */
+        public Batch insertEdge(NodeType pred, NodeType succ, EdgeType weight) {
+            changes.add(graph -> graph.insertEdge(pred, succ, weight));
+            return this;
+        }
+
+        /**
+         * Adds the removal of an edge to this batch.
+         *
+         * @param pred the data item in the edge's predecessor node
+         * @param succ the data item in the edge's successor node
+         * @return this batch
+         */
+        public Batch removeEdge(NodeType pred, NodeType succ) {
+            changes.add(graph -> graph.removeEdge(pred, succ));
+            return this;
+        }
+
+        /**
+         * Returns the number of changes added to this batch.
+         *
+         * @return the number of changes
+         */
+        public int size() {
+            return changes.size();
+        }
+
+        /**
+         * Applies every change in this batch, in the order they were added,
+         * to a copy of the current version, and publishes that copy as the
+         * new current version. When no change modifies the graph, or when a
+         * change throws an exception, nothing is published.
+         *
+         * @return true if a new version was published, or false if no change
+         *         modified the graph
+         */
+        public boolean publish() {
+            synchronized (writeLock) {
+                DijkstraGraph<NodeType, EdgeType> next = current.copy();
+                boolean changed = false;
+                for (Predicate<DijkstraGraph<NodeType, EdgeType>> change : changes)
+                    changed |= change.test(next);
+                if (!changed)
+                    return false;
+                next.freeze();
+                current = next;
+                versionNumber++;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Creates an empty graph.
+     */
+    public SnapshotIsolatedGraph() {
+        this(new DijkstraGraph<>());
+    }
+
+    /**
+     * Creates a graph whose first version is a copy of the provided graph,
+     * with the same routing settings. Later changes to the provided graph
+     * are not seen by this one.
+     *
+     * @param graph the graph to copy
+     */
+    public SnapshotIsolatedGraph(DijkstraGraph<NodeType, EdgeType> graph) {
+        DijkstraGraph<NodeType, EdgeType> first = graph.copy();
+        first.freeze();
+        this.current = first;
+    }
+
+    /**
+     * Starts a new batch of changes to this graph.
+     *
+     * @return the new, empty batch
+     */
+    public Batch beginBatch() {
+        return new Batch();
+    }
+
+    /**
+     * Builds a batch from the current version and publishes it, holding the
+     * lock that batches are published under throughout, so that no other
+     * batch can be published between reading that version and publishing the
+     * changes computed from it. This lets a writer publish the differences
+     * between the current version and some other graph, even while other
+     * writers publish their own batches.
+     *
+     * @param changes builds the batch of changes to make to the version it is
+     *                given, which it must not modify
+     * @return true if a new version was published, or false if the batch was
+     *         empty or no change modified the graph
+     */
+    public boolean publishFromCurrent(Function<DijkstraGraph<NodeType, EdgeType>, Batch> changes) {
+        synchronized (writeLock) {
+            Batch batch = changes.apply(current);
+            return batch.size() > 0 && batch.publish();
+        }
+    }
+
+    /**
+     * Returns the version of this graph that queries currently run on. The
+     * returned graph never changes, so a caller can run several queries on
+     * it and get consistent answers, but it must not be modified.
+     *
+     * @return the current version
+     */
+    public DijkstraGraph<NodeType, EdgeType> getCurrentVersion() {
+        return current;
+    }
+
+    /**
+     * Returns the number of versions that have been published since this
+     * graph was created.
+     *
+     * @return the number of published versions
+     */
+    public long getVersionNumber() {
+        return versionNumber;
+    }
+
+    /**
+     * Inserts a node by publishing a batch with this one change.
+     *
+     * @see the method is overridden from the GraphADT interface
+     */
+    @Override
+    public boolean insertNode(NodeType data) {
+        return beginBatch().insertNode(data).publish();
+    }
+
+    /**
+     * Removes a node by publishing a batch with this one change.
+     *
+     * @see the method is overridden from the GraphADT interface
+     */
+    @Override
+    public boolean removeNode(NodeType data) {
+        return beginBatch().removeNode(data).publish();
+    }
+
+    /**
+     * Inserts an edge by publishing a batch with this one change.
+     *
+     * @see the method is overridden from the GraphADT interface
+     */
+    @Override
+    public boolean insertEdge(NodeType pred, NodeType succ, EdgeType weight) {
+        return beginBatch().insertEdge(pred, succ, weight).publish();
+    }
+
+    /**
+     * Removes an edge by publishing a batch with this one change.
+     *
+     * @see the method is overridden from the GraphADT interface
+     */
+    @Override
+    public boolean removeEdge(NodeType pred, NodeType succ) {
+        return beginBatch().removeEdge(pred, succ).publish();
+    }
+
+    @Override
+    public boolean containsNode(NodeType data) {
+        return current.containsNode(data);
+    }
+
+    @Override
+    public List<NodeType> getAllNodes() {
+        return current.getAllNodes();
+    }
+
+    @Override
+    public int getNodeCount() {
+        return current.getNodeCount();
+    }
+
+    @Override
+    public boolean containsEdge(NodeType pred, NodeType succ) {
+        return current.containsEdge(pred, succ);
+    }
+
+    @Override
+    public EdgeType getEdge(NodeType pred, NodeType succ) {
+        return current.getEdge(pred, succ);
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return current.getEdgeCount();
+    }
+
+    @Override
+    public List<NodeType> shortestPathData(NodeType start, NodeType end) {
+        return current.shortestPathData(start, end);
+    }
+
+    @Override
+    public double shortestPathCost(NodeType start, NodeType end) {
+        return current.shortestPathCost(start, end);
+    }
+
+    @Override
+    public Route<NodeType> shortestRoute(NodeType start, NodeType end) {
+        return current.shortestRoute(start, end);
+    }
+
+    @Override
+    public List<Route<NodeType>> kShortestRoutes(NodeType start, NodeType end, int k) {
+        return current.kShortestRoutes(start, end, k);
+    }
+
+    @Override
+    public ShortestPathTree<NodeType> shortestPathTree(NodeType start) {
+        return current.shortestPathTree(start);
+    }
+
+    @Override
+    public ShortestPathTree<NodeType> shortestPathTree(NodeType start, double maxCost) {
+        return current.shortestPathTree(start, maxCost);
+    }
+
+}
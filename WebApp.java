@@ -28,6 +28,10 @@ import java.util.stream.Stream;
  * Then visit through browser via https://cs400-web.cs.wisc.edu/CS_LOGIN/
  */
 public class WebApp {
+    // the frontend shared by every request to the server, whose graph is
+    // reloaded whenever campus.dot changes
+    private static FrontendInterface sharedFrontend;
+
     public static void main(String[] args) throws IOException {
 	// expects the port number as a command line argument to this program
 	// or if a non-numeric argument is passed treat this like the query
@@ -48,6 +52,12 @@ public class WebApp {
 	    return;
 	}
 				
+	// load the graph once, and keep it in step with campus.dot while the
+	// server runs, so that edits to the file need no restart
+	Backend backend = new Backend(new SnapshotIsolatedGraph<>());
+	backend.watchGraphData("./campus.dot");
+	sharedFrontend = new Frontend(backend);
+
 	// configure and start server on this port, responding in this way
 	InetSocketAddress address = new InetSocketAddress(portNumber);
 	HttpServer server = HttpServer.create(address,8);
@@ -68,8 +78,8 @@ public class WebApp {
 							  exchange.getRequestURI().getQuery());
 	    System.out.println("Query includes args: "+keyValuePairs);
 	    
-	    // create backend and frontend objects to respond to this request
-	    FrontendInterface frontend = createWorkingFrontend("./campus.dot");
+	    // respond with the frontend whose graph follows campus.dot
+	    FrontendInterface frontend = sharedFrontend;
 	    // compute answer to user's requested problem based on query args:
 	    String response = generateResponseHTML(keyValuePairs,frontend);
 	    // generate HTML prompts for user for make next requests
@@ -99,7 +109,8 @@ public class WebApp {
 	HashMap<String,String> map = new HashMap<>();
 	if(query != null && query.contains("="))
 	    Stream.of(query.split("&")).forEach(arg -> {
-		    String[] pair = arg.split("=");
+		    // a limit of -1 keeps an empty value (like time=) as ""
+		    String[] pair = arg.split("=",-1);
 		    if(pair.length != 2)
 			throw new IllegalArgumentException("Unable to split "+
 							   "arg: " + arg+" into a key value pair around a "+
@@ -109,11 +120,17 @@ public class WebApp {
 	return map;
     }
 
-    // creates a working Frontend, Backend, DijkstraGraph, and HashtableMap
+    // creates a working Frontend, Backend, DijkstraGraph, and HashtableMap,
+    // loading the compiled form of the dot file instead when it is up to date
     private static FrontendInterface createWorkingFrontend(String filename) throws IOException {
 	GraphADT<String,Double> graph = new DijkstraGraph<>();
 	BackendInterface backend = new Backend(graph);
-	backend.loadGraphData(filename);			
+	File dotFile = new File(filename);
+	File compiledFile = new File(filename.replaceFirst("\\.dot$", "") + ".graph");
+	if(compiledFile.exists() && compiledFile.lastModified() >= dotFile.lastModified())
+	    backend.loadCompiledGraphData(compiledFile.getPath());
+	else
+	    backend.loadGraphData(filename);
 	FrontendInterface frontend = new Frontend(backend);
 	return frontend;
     }
@@ -127,6 +144,13 @@ public class WebApp {
 	    response += frontend.generateShortestPathResponseHTML(
 								  keyValuePairs.get("start"),
 								  keyValuePairs.get("end")) + "</div>";
+	    // compute response for a time limited request, when one was entered
+	} else if(keyValuePairs.containsKey("from") &&
+		  keyValuePairs.containsKey("time") &&
+		  !keyValuePairs.get("time").isBlank()) {
+	    response += frontend.generateLocationsWithinTimeResponseHTML(
+									 keyValuePairs.get("from"),
+									 keyValuePairs.get("time")) + "</div>";
 	    // compute response for other request
 	} else if(keyValuePairs.containsKey("from")) {
 	    response += frontend.generateFurthestDestinationFromResponseHTML(
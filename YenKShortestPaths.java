@@ -0,0 +1,204 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * This YenKShortestPaths class finds the k shortest loopless paths between
+ * two nodes of a snapshot with Yen's algorithm. After the shortest path is
+ * found, each further path is the cheapest deviation from one of the paths
+ * found so far: for every spur node along the last path found, the edges that
+ * earlier paths with the same root take out of the spur node are masked, the
+ * nodes of the root path are masked, and a spur search finds the shortest way
+ * from the spur node to the target that avoids them.
+ *
+ * Masking only ever removes edges and nodes, so the costs of the shortest
+ * paths from every node to the target in the unmasked snapshot are lower
+ * bounds for every spur search. These costs are computed once, with a single
+ * backward search from the target, and then guide every spur search as an A*
+ * heuristic. Masks are kept as stamped arrays, so no edges are ever removed
+ * from the snapshot, and no mask needs to be cleared between spur searches.
+ */
+public class YenKShortestPaths {
+
+    protected final CSRGraph<?> graph;
+    protected final int source;
+    protected final int target;
+    // the cost of the shortest path from each node to target, unmasked
+    protected final double[] toTarget;
+
+    // a node or edge is masked when its stamp equals the current stamp
+    private final int[] nodeMask;
+    private final int[] edgeMask;
+    private int stamp = 0;
+
+    // search arrays that every spur search reuses
+    private final double[] dist;
+    private final int[] parent;
+    private final IndexedDaryHeap heap;
+
+    /**
+     * A Candidate is one path that a spur search found, which has not yet
+     * been accepted as one of the k shortest paths.
+     */
+    private static class Candidate implements Comparable<Candidate> {
+        private final int[] path;
+        private final double cost;
+
+        private Candidate(int[] path, double cost) {
+            this.path = path;
+            this.cost = cost;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            if (cost != other.cost)
+                return cost < other.cost ? -1 : +1;
+            return Integer.compare(path.length, other.path.length);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Candidate && Arrays.equals(path, ((Candidate) other).path);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(path);
+        }
+    }
+
+    /**
+     * Prepares to find paths between two nodes of a snapshot, by computing
+     * the cost from every node to target.
+     *
+     * @param graph  the snapshot to search
+     * @param source the index of the node that every path starts at
+     * @param target the index of the node that every path ends at
+     */
+    public YenKShortestPaths(CSRGraph<?> graph, int source, int target) {
+        this.graph = graph;
+        this.source = source;
+        this.target = target;
+        int n = graph.getNodeCount();
+        this.toTarget = new double[n];
+        CSRDijkstra.search(graph, target, -1, true, toTarget, null);
+        this.nodeMask = new int[n];
+        this.edgeMask = new int[graph.getEdgeCount()];
+        this.dist = new double[n];
+        this.parent = new int[n];
+        this.heap = new IndexedDaryHeap(n);
+    }
+
+    /**
+     * Finds up to k shortest loopless paths from source to target.
+     *
+     * @param k the most paths to find
+     * @return the node indices along each path, from the cheapest path to the
+     *         most costly, or an empty list when target cannot be reached
+     * @throws IllegalArgumentException if k is less than 1
+     */
+    public List<int[]> findPaths(int k) {
+        if (k < 1)
+            throw new IllegalArgumentException("At least one path must be requested: " + k);
+        List<int[]> paths = new ArrayList<>();
+        if (toTarget[source] == Double.POSITIVE_INFINITY)
+            return paths;
+
+        // the first path follows the unmasked search from source
+        stamp++;
+        paths.add(spurSearch(source));
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>();
+        Set<Candidate> seen = new HashSet<>();
+        seen.add(new Candidate(paths.get(0), 0.0));
+
+        while (paths.size() < k) {
+            int[] last = paths.get(paths.size() - 1);
+            for (int i = 0; i < last.length - 1; i++) {
+                stamp++;
+                int spur = last[i];
+                // mask the next edge of every accepted path with this root
+                for (int[] path : paths)
+                    if (path.length > i + 1 && sameRoot(path, last, i))
+                        maskEdge(spur, path[i + 1]);
+                // mask the root path, so the spur path cannot loop back to it
+                for (int j = 0; j < i; j++)
+                    nodeMask[last[j]] = stamp;
+
+                int[] spurPath = spurSearch(spur);
+                if (spurPath == null)
+                    continue;
+                int[] path = Arrays.copyOf(last, i + spurPath.length);
+                System.arraycopy(spurPath, 0, path, i, spurPath.length);
+                Candidate candidate = new Candidate(path, pathCost(path));
+                if (seen.add(candidate))
+                    candidates.add(candidate);
+            }
+            if (candidates.isEmpty())
+                break;
+            paths.add(candidates.poll().path);
+        }
+        return paths;
+    }
+
+    // checks whether two paths share their first i+1 nodes
+    private static boolean sameRoot(int[] path, int[] other, int i) {
+        for (int j = 0; j <= i; j++)
+            if (path[j] != other[j])
+                return false;
+        return true;
+    }
+
+    // masks every edge from u to v for the current spur search
+    private void maskEdge(int u, int v) {
+        for (int e = graph.outOffsets[u]; e < graph.outOffsets[u + 1]; e++)
+            if (graph.outTargets[e] == v)
+                edgeMask[e] = stamp;
+    }
+
+    // adds up the weights along a path, in order
+    private double pathCost(int[] path) {
+        double cost = 0.0;
+        for (int i = 1; i < path.length; i++)
+            cost += graph.edgeWeight(path[i - 1], path[i]);
+        return cost;
+    }
+
+    /**
+     * Runs A* search from a spur node to target, skipping every node and edge
+     * that is masked with the current stamp.
+     *
+     * @param spur the index of the node to search from
+     * @return the node indices along the path from spur to target, or null
+     *         when the masks leave no such path
+     */
+    protected int[] spurSearch(int spur) {
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(parent, -1);
+        heap.clear();
+        dist[spur] = 0.0;
+        heap.insertOrDecrease(spur, toTarget[spur]);
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            if (u == target)
+                return CSRDijkstra.buildPath(parent, target);
+            for (int e = graph.outOffsets[u]; e < graph.outOffsets[u + 1]; e++) {
+                int v = graph.outTargets[e];
+                // the unmasked costs also prove which nodes cannot reach target
+                if (edgeMask[e] == stamp || nodeMask[v] == stamp
+                        || toTarget[v] == Double.POSITIVE_INFINITY)
+                    continue;
+                double cost = dist[u] + graph.outWeights[e];
+                if (cost < dist[v]) {
+                    dist[v] = cost;
+                    parent[v] = u;
+                    heap.insertOrDecrease(v, cost + toTarget[v]);
+                }
+            }
+        }
+        return null;
+    }
+
+}